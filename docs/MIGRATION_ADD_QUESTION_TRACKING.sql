@@ -1 +1,4 @@
-
+-- Índice compuesto para las consultas de preguntas acotadas a una ronda
+-- (QuestionRepository.findByGameSessionIdAndRoundIdOrderByIdAsc y los subselects de
+-- GameSessionRepository.findRoundView / markRoundInProgress).
+CREATE INDEX IF NOT EXISTS idx_question_session_round ON question (game_session_id, round_id);
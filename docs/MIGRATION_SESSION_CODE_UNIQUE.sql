@@ -0,0 +1,39 @@
+-- Índice único sobre game_session.session_code.
+-- Hibernate (ddl-auto=update) crea la restricción, pero falla si ya existen códigos duplicados.
+-- Ejecutar antes del despliegue en bases con sesiones antiguas.
+
+-- 1. Liberar usuarios de las sesiones duplicadas (se conserva la más reciente por código)
+UPDATE users SET game_session_id = NULL
+WHERE game_session_id IN (
+    SELECT id FROM (
+        SELECT id, ROW_NUMBER() OVER (PARTITION BY session_code ORDER BY id DESC) AS rn
+        FROM game_session
+    ) t WHERE t.rn > 1
+);
+
+UPDATE question SET game_session_id = NULL
+WHERE game_session_id IN (
+    SELECT id FROM (
+        SELECT id, ROW_NUMBER() OVER (PARTITION BY session_code ORDER BY id DESC) AS rn
+        FROM game_session
+    ) t WHERE t.rn > 1
+);
+
+DELETE FROM shown_questions
+WHERE session_id IN (
+    SELECT id FROM (
+        SELECT id, ROW_NUMBER() OVER (PARTITION BY session_code ORDER BY id DESC) AS rn
+        FROM game_session
+    ) t WHERE t.rn > 1
+);
+
+DELETE FROM game_session
+WHERE id IN (
+    SELECT id FROM (
+        SELECT id, ROW_NUMBER() OVER (PARTITION BY session_code ORDER BY id DESC) AS rn
+        FROM game_session
+    ) t WHERE t.rn > 1
+);
+
+-- 2. Índice único (findBySessionCode pasa a ser un index scan)
+CREATE UNIQUE INDEX IF NOT EXISTS uk_game_session_session_code ON game_session (session_code);
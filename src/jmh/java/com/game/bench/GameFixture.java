@@ -0,0 +1,153 @@
+package com.game.bench;
+
+import com.game.model.GameSession;
+import com.game.model.ImpostorWord;
+import com.game.model.Question;
+import com.game.model.QuienEsMasProbable;
+import com.game.model.User;
+import com.game.repository.GameSessionRepository;
+import com.game.repository.ImpostorWordRepository;
+import com.game.repository.QuestionRepository;
+import com.game.repository.QuienEsMasProbableRepository;
+import com.game.repository.UserRepository;
+import com.game.service.*;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Una sesión con {@code players} jugadores y los servicios reales de juego montados sobre
+ * repositorios en memoria. Los eventos se serializan y se numeran como en producción,
+ * pero el broker los descarta.
+ */
+final class GameFixture {
+
+    static final String SESSION_CODE = "1234";
+
+    final GameSession session = new GameSession();
+    final List<String> players = new ArrayList<>();
+    final List<Question> questions = new ArrayList<>();
+
+    final SessionExecutor sessionExecutor = new SessionExecutor();
+    final GameTimerService gameTimers = new GameTimerService(sessionExecutor, 100, 512);
+    final GameSessionStore sessionStore;
+    final SessionSyncTracker syncTracker;
+    final TopicPublisher topicPublisher;
+
+    final ElImpostorService impostor;
+    final QuienEsMasProbableService quien;
+    final PreguntasDirectasService preguntasDirectas;
+    final GameSessionService gameSessions;
+
+    GameFixture(int players, int roundQuestions) {
+        session.setId(1L);
+        session.setSessionCode(SESSION_CODE);
+        session.setCreatorName("player0");
+        for (int i = 0; i < players; i++) {
+            User user = new User("player" + i);
+            user.setId((long) i + 1);
+            session.addUser(user);
+            this.players.add(user.getUsername());
+        }
+        String roundId = UUID.randomUUID().toString();
+        session.setCurrentRoundId(roundId);
+        for (int i = 0; i < roundQuestions; i++) {
+            Question q = new Question();
+            q.setId((long) i + 1);
+            q.setFromUser(this.players.get(i % players));
+            q.setToUser(this.players.get((i + 1) % players));
+            q.setQuestion("¿Pregunta " + i + "?");
+            q.setRoundId(roundId);
+            q.setGameSession(session);
+            questions.add(q);
+        }
+
+        PlatformTransactionManager noTx = InMemoryRepositories.noTransactions();
+        GameSessionRepository sessions = InMemoryRepositories.of(GameSessionRepository.class, List.of(session),
+                Map.<String, Function<Object[], Object>>of(
+                        "findBySessionCode", args -> Optional.of(session).filter(s -> s.getSessionCode().equals(args[0])),
+                        "findSnapshotBySessionCode", args -> Optional.of(session)
+                                .filter(s -> s.getSessionCode().equals(args[0])),
+                        "insertShownQuestion", args -> {
+                            session.getShownQuestions().add((Long) args[1]);
+                            return null;
+                        },
+                        "updateCurrentQuestion", args -> {
+                            session.setCurrentQuestionIndex((Integer) args[1]);
+                            session.setCurrentQuestionId((Long) args[2]);
+                            return null;
+                        }));
+        QuestionRepository questionRepository = InMemoryRepositories.of(QuestionRepository.class, questions,
+                Map.<String, Function<Object[], Object>>of(
+                        "findByGameSessionIdAndRoundIdOrderByIdAsc", args -> questions.stream()
+                                .filter(q -> q.getRoundId().equals(args[1]))
+                                .toList()));
+        UserRepository users = InMemoryRepositories.of(UserRepository.class, session.getUsers());
+
+        sessionStore = new GameSessionStore(sessions, questionRepository, noTx);
+        syncTracker = new SessionSyncTracker(sessionStore, sessionExecutor);
+        MessageChannel discard = (message, timeout) -> true;
+        topicPublisher = new TopicPublisher(new SimpMessagingTemplate(discard), discard,
+                new SessionEventJournal(256), new GameMetrics());
+        ReadyFlags readyFlags = new ReadyFlags(null, users, sessionExecutor, sessionStore);
+
+        impostor = new ElImpostorService(sessions, InMemoryRepositories.of(ImpostorWordRepository.class, words()),
+                topicPublisher, gameTimers, new WebSocketSessionRegistry(), sessionStore, sessionExecutor, noTx);
+        quien = new QuienEsMasProbableService(sessions,
+                InMemoryRepositories.of(QuienEsMasProbableRepository.class, quienQuestions()),
+                topicPublisher, sessionStore, sessionExecutor, noTx);
+        preguntasDirectas = new PreguntasDirectasService(sessions, readyFlags, questionRepository,
+                topicPublisher, sessionStore, sessionExecutor, noTx);
+        gameSessions = new GameSessionService(sessions, users, questionRepository, null, null, null, null,
+                quien, null, impostor, sessionStore, null, syncTracker, readyFlags, sessionExecutor,
+                new ServerGeneration());
+    }
+
+    /** Nueva ronda con las mismas preguntas, para cuando el mazo se agota. */
+    void restartRound() {
+        String roundId = UUID.randomUUID().toString();
+        session.setCurrentRoundId(roundId);
+        session.getShownQuestions().clear();
+        session.setCurrentQuestionIndex(0);
+        session.setCurrentQuestionId(null);
+        questions.forEach(q -> q.setRoundId(roundId));
+        sessionStore.invalidate(SESSION_CODE);
+    }
+
+    void close() {
+        gameTimers.shutdown();
+        sessionExecutor.shutdown();
+    }
+
+    private static List<ImpostorWord> words() {
+        List<ImpostorWord> words = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ImpostorWord word = new ImpostorWord();
+            word.setId((long) i + 1);
+            word.setWord("palabra" + i);
+            word.setCategory("general");
+            words.add(word);
+        }
+        return words;
+    }
+
+    private static List<QuienEsMasProbable> quienQuestions() {
+        List<QuienEsMasProbable> questions = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            QuienEsMasProbable q = new QuienEsMasProbable();
+            q.setId((long) i + 1);
+            q.setTexto(i % 3 == 0 ? "¿Quién es más probable que {player} invite la ronda " + i + "?"
+                    : "¿Quién es más probable que llegue tarde " + i + "?");
+            q.setTipo(i % 2 == 0 ? "tranquilo" : "picante");
+            questions.add(q);
+        }
+        return questions;
+    }
+}
@@ -0,0 +1,45 @@
+package com.game.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Una votación completa de El Impostor: inicio de partida, llamada a votación, un voto por
+ * jugador vivo (cada uno actualiza el recuento y difunde voteUpdate) y el resultado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImpostorVotingBenchmark {
+
+    @Param({"6", "12", "20"})
+    public int players;
+
+    private GameFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new GameFixture(players, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public void votingRound() {
+        String code = GameFixture.SESSION_CODE;
+        fixture.impostor.start(code, 1);
+        fixture.impostor.callVote(code, fixture.players.get(0));
+        // Todos votan al último jugador: se elimina y la partida sigue o termina según su rol
+        String target = fixture.players.get(players - 1);
+        for (String voter : fixture.players) {
+            fixture.impostor.vote(code, voter, target);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.game.bench;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Repositorios Spring Data en memoria para los benchmarks: un proxy de la interfaz que
+ * responde findAll/count/save sobre una lista y delega los métodos propios del repositorio
+ * en las funciones que se le pasen. El resto devuelve un valor vacío.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static <R> R of(Class<R> type, List<?> rows) {
+        return of(type, rows, Map.of());
+    }
+
+    static <R> R of(Class<R> type, List<?> rows, Map<String, Function<Object[], Object>> methods) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            Function<Object[], Object> custom = methods.get(method.getName());
+            if (custom != null) return custom.apply(args);
+            return switch (method.getName()) {
+                case "findAll" -> new ArrayList<>(rows);
+                case "count" -> (long) rows.size();
+                case "save", "saveAndFlush" -> args[0];
+                case "saveAll" -> args[0];
+                case "hashCode" -> System.identityHashCode(self);
+                case "equals" -> self == args[0];
+                case "toString" -> type.getSimpleName() + "(in-memory)";
+                default -> emptyValue(method.getReturnType());
+            };
+        });
+        return type.cast(proxy);
+    }
+
+    /** Sin base de datos no hay nada que confirmar: las plantillas de transacción solo ejecutan. */
+    static PlatformTransactionManager noTransactions() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    private static Object emptyValue(Class<?> type) {
+        if (type == Optional.class) return Optional.empty();
+        if (type == List.class) return List.of();
+        if (type == long.class) return 0L;
+        if (type == int.class) return 0;
+        if (type == boolean.class) return false;
+        return null;
+    }
+}
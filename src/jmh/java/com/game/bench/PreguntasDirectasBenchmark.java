@@ -0,0 +1,52 @@
+package com.game.bench;
+
+import com.game.model.Question;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Avance del mazo de Preguntas Directas: buzón de la sesión, snapshot recargado tras la
+ * invalidación de la pregunta anterior, elección evitando repetir destinatario y escritura del cursor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PreguntasDirectasBenchmark {
+
+    @Param({"12"})
+    public int players;
+
+    @Param({"30", "200"})
+    public int roundQuestions;
+
+    private GameFixture fixture;
+    private String lastToUser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new GameFixture(players, roundQuestions);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Question selectAndSetNextQuestion() {
+        Question next;
+        try {
+            next = fixture.preguntasDirectas.selectAndSetNextQuestion(GameFixture.SESSION_CODE, lastToUser);
+        } catch (IllegalStateException e) {
+            // Ronda agotada: otra con las mismas preguntas
+            fixture.restartRound();
+            next = fixture.preguntasDirectas.selectAndSetNextQuestion(GameFixture.SESSION_CODE, null);
+        }
+        lastToUser = next.getToUser();
+        return next;
+    }
+}
@@ -0,0 +1,56 @@
+package com.game.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Siguiente pregunta de ¿Quién es más probable? y la ronda de votos que la sigue. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuienEsMasProbableBenchmark {
+
+    @Param({"6", "20"})
+    public int players;
+
+    private GameFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new GameFixture(players, 0);
+        fixture.quien.start(GameFixture.SESSION_CODE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public String getNext() {
+        return nextQuestion();
+    }
+
+    @Benchmark
+    public String questionAndVotes() {
+        String question = nextQuestion();
+        String voted = fixture.players.get(0);
+        for (String voter : fixture.players) {
+            fixture.quien.registerVote(GameFixture.SESSION_CODE, voter, voted);
+        }
+        return question;
+    }
+
+    // Con el mazo agotado se empieza otro, como haría un nuevo inicio de juego
+    private String nextQuestion() {
+        try {
+            return fixture.quien.getNext(GameFixture.SESSION_CODE, "tranquilo");
+        } catch (IllegalStateException e) {
+            fixture.quien.cleanup(GameFixture.SESSION_CODE);
+            return fixture.quien.getNext(GameFixture.SESSION_CODE, "tranquilo");
+        }
+    }
+}
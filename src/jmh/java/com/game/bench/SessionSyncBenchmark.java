@@ -0,0 +1,47 @@
+package com.game.bench;
+
+import com.game.dto.SessionSyncDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construcción del DTO de /sync: sin cambios (vista ya versionada) y tras una invalidación,
+ * que obliga a recargar el snapshot y reconstruir y comparar la vista.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionSyncBenchmark {
+
+    @Param({"6", "20"})
+    public int players;
+
+    private GameFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new GameFixture(players, 0);
+        fixture.quien.start(GameFixture.SESSION_CODE);
+        fixture.quien.getNext(GameFixture.SESSION_CODE, "tranquilo");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public SessionSyncDTO syncUnchanged() {
+        return fixture.gameSessions.getSessionSync(GameFixture.SESSION_CODE, "player0");
+    }
+
+    @Benchmark
+    public SessionSyncDTO syncAfterChange() {
+        fixture.sessionStore.invalidate(GameFixture.SESSION_CODE);
+        return fixture.gameSessions.getSessionSync(GameFixture.SESSION_CODE, "player0");
+    }
+}
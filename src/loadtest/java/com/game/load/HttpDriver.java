@@ -0,0 +1,73 @@
+package com.game.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Llamadas REST de un jugador simulado. Cada llamada se mide bajo su plantilla de ruta
+ * ("POST /{code}/el-impostor/vote"), no la ruta concreta, para agrupar entre lobbies.
+ */
+final class HttpDriver {
+
+    static final String PREFIX = "http ";
+
+    private final String baseUrl;
+    private final LatencyStats stats;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    HttpDriver(String baseUrl, LatencyStats stats) {
+        this.baseUrl = baseUrl;
+        this.stats = stats;
+    }
+
+    /** POST con cuerpo JSON (o vacío si {@code body} es null). Devuelve null si la respuesta no es 2xx. */
+    JsonNode post(String route, String path, Object body) {
+        try {
+            HttpRequest.BodyPublisher publisher = body == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body));
+            return send(route, HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .POST(publisher)
+                    .build());
+        } catch (Exception e) {
+            stats.error(route + " " + e.getClass().getSimpleName());
+            return null;
+        }
+    }
+
+    JsonNode get(String route, String path) {
+        return send(route, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build());
+    }
+
+    private JsonNode send(String route, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            stats.record(PREFIX + route, System.nanoTime() - start);
+            if (response.statusCode() / 100 != 2) {
+                stats.error(route + " [" + response.statusCode() + "]");
+                return null;
+            }
+            byte[] body = response.body();
+            return body.length == 0 ? mapper.createObjectNode() : mapper.readTree(body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (Exception e) {
+            stats.error(route + " " + e.getClass().getSimpleName());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.game.load;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Latencias por clave (endpoint o evento) y contador de errores, con percentiles al final. */
+final class LatencyStats {
+
+    private final ConcurrentHashMap<String, Recorder> recorders = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> errors = new ConcurrentHashMap<>();
+
+    void record(String key, long nanos) {
+        recorders.computeIfAbsent(key, k -> new Recorder()).add(nanos);
+    }
+
+    void error(String key) {
+        errors.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    void print(String title, String prefix, PrintStream out) {
+        out.printf("%n%s%n", title);
+        out.printf("%-52s %8s %9s %9s %9s %9s%n", "", "count", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        new TreeMap<>(recorders).forEach((key, recorder) -> {
+            if (!key.startsWith(prefix)) return;
+            long[] values = recorder.sorted();
+            if (values.length == 0) return;
+            out.printf("%-52s %8d %9.2f %9.2f %9.2f %9.2f%n", key.substring(prefix.length()), values.length,
+                    ms(percentile(values, 50)), ms(percentile(values, 95)), ms(percentile(values, 99)),
+                    ms(values[values.length - 1]));
+        });
+    }
+
+    void printErrors(PrintStream out) {
+        if (errors.isEmpty()) return;
+        out.printf("%nErrores%n");
+        for (Map.Entry<String, AtomicLong> e : new TreeMap<>(errors).entrySet()) {
+            out.printf("%-52s %8d%n", e.getKey(), e.getValue().get());
+        }
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Recorder {
+        private long[] values = new long[1024];
+        private int size;
+
+        synchronized void add(long nanos) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = nanos;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
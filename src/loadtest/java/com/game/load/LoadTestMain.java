@@ -0,0 +1,131 @@
+package com.game.load;
+
+import com.game.AppGameApplication;
+import com.game.model.CulturaPendeja;
+import com.game.model.PreguntasIncomodas;
+import com.game.model.QuienEsMasProbable;
+import com.game.model.YoNuncaNunca;
+import com.game.repository.CulturaPendejaRepository;
+import com.game.repository.PreguntasIncomodasRepository;
+import com.game.repository.QuienEsMasProbableRepository;
+import com.game.repository.YoNuncaNuncaRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.messaging.converter.SimpleMessageConverter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Generador de carga: N lobbies concurrentes jugando por REST y STOMP (SockJS en /websocket),
+ * como lo haría el frontend. Sin {@code --target} arranca la aplicación embebida con el
+ * perfil "loadtest" (H2 en memoria); con {@code --target} ataca un servidor ya arrancado,
+ * por ejemplo uno contra un Postgres local.
+ * <p>
+ * Al terminar imprime percentiles por endpoint y por tipo de evento. La latencia de un evento
+ * es el tiempo desde la última acción de su lobby hasta que llega a cada jugador.
+ * <p>
+ * Uso: {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--lobbies=500 --players=10"}
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext server = null;
+        String baseUrl = options.target();
+        if (baseUrl.isEmpty()) {
+            System.setProperty("spring.devtools.restart.enabled", "false");
+            server = new SpringApplicationBuilder(AppGameApplication.class)
+                    .profiles("loadtest")
+                    .run("--server.port=0");
+            seed(server);
+            baseUrl = "http://localhost:" + server.getEnvironment().getProperty("local.server.port");
+        }
+
+        LatencyStats stats = new LatencyStats();
+        HttpDriver http = new HttpDriver(baseUrl, stats);
+        WebSocketStompClient stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new SimpleMessageConverter());
+
+        System.out.printf("Carga contra %s: %d lobbies x %d jugadores, %d rondas, %d a la vez%n",
+                baseUrl, options.lobbies(), options.players(), options.rounds(), options.concurrency());
+        long start = System.nanoTime();
+        runLobbies(options, http, stompClient, baseUrl + "/websocket", stats);
+        long elapsed = System.nanoTime() - start;
+
+        stats.print("Endpoints", HttpDriver.PREFIX, System.out);
+        stats.print("Eventos /topic (desde la acción que los provoca)", PlayerClient.PREFIX, System.out);
+        stats.printErrors(System.out);
+        System.out.printf("%nDuración total: %.1f s%n", elapsed / 1e9);
+
+        if (server != null) server.close();
+        System.exit(0);
+    }
+
+    private static void runLobbies(LoadTestOptions options, HttpDriver http, WebSocketStompClient stompClient,
+                                   String wsUrl, LatencyStats stats) throws InterruptedException {
+        String runId = UUID.randomUUID().toString().substring(0, 6);
+        Semaphore slots = new Semaphore(options.concurrency());
+        long delay = options.lobbies() > 1 ? options.rampMillis() / options.lobbies() : 0;
+        try (ExecutorService lobbies = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.lobbies(); i++) {
+                // Nombres únicos entre lobbies y entre ejecuciones contra el mismo servidor
+                String prefix = "lt" + runId + "l" + i;
+                slots.acquire();
+                lobbies.execute(() -> {
+                    try {
+                        new LobbyScenario(options, http, stompClient, wsUrl, stats, prefix).run();
+                    } finally {
+                        slots.release();
+                    }
+                });
+                if (delay > 0) Thread.sleep(delay);
+            }
+            lobbies.shutdown();
+            lobbies.awaitTermination(1, TimeUnit.HOURS);
+        }
+    }
+
+    // El esquema se crea vacío: los juegos de preguntas necesitan preguntas (El Impostor tiene su seeder)
+    private static void seed(ConfigurableApplicationContext server) {
+        seed(server.getBean(QuienEsMasProbableRepository.class), QuienEsMasProbable::new,
+                (q, i) -> q.setTexto("¿Quién es más probable que haga la prueba de carga " + i + "?"),
+                QuienEsMasProbable::setTipo);
+        seed(server.getBean(YoNuncaNuncaRepository.class), YoNuncaNunca::new,
+                (q, i) -> q.setTexto("Yo nunca nunca he hecho la prueba de carga " + i), YoNuncaNunca::setTipo);
+        seed(server.getBean(CulturaPendejaRepository.class), CulturaPendeja::new,
+                (q, i) -> q.setTexto("Cultura de la prueba de carga " + i), CulturaPendeja::setTipo);
+        seed(server.getBean(PreguntasIncomodasRepository.class), PreguntasIncomodas::new,
+                (q, i) -> q.setTexto("Pregunta incómoda de la prueba de carga " + i), PreguntasIncomodas::setTipo);
+    }
+
+    private static <T> void seed(JpaRepository<T, Long> repository, Supplier<T> factory,
+                                 ObjIntConsumer<T> texto, BiConsumer<T, String> tipo) {
+        if (repository.count() > 0) return;
+        List<T> questions = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            T q = factory.get();
+            texto.accept(q, i);
+            tipo.accept(q, i % 2 == 0 ? "tranquilo" : "picante");
+            questions.add(q);
+        }
+        repository.saveAll(questions);
+    }
+}
@@ -0,0 +1,38 @@
+package com.game.load;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parámetros de la prueba de carga, en formato {@code --clave=valor}.
+ *
+ * @param target      URL de un servidor ya arrancado; vacío para arrancar uno embebido sobre H2
+ * @param lobbies     lobbies simulados en total
+ * @param players     jugadores por lobby
+ * @param rounds      rondas por lobby, rotando por los seis juegos (por defecto una de cada)
+ * @param concurrency lobbies jugando a la vez como máximo
+ * @param churn       probabilidad por jugador y ronda de desconectarse y volver
+ * @param thinkMillis pausa media entre acciones de un jugador
+ * @param rampMillis  tiempo en el que se reparten los arranques de lobby
+ */
+record LoadTestOptions(String target, int lobbies, int players, int rounds, int concurrency,
+                       double churn, long thinkMillis, long rampMillis) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) continue;
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return new LoadTestOptions(
+                values.getOrDefault("target", ""),
+                Integer.parseInt(values.getOrDefault("lobbies", "200")),
+                Integer.parseInt(values.getOrDefault("players", "8")),
+                Integer.parseInt(values.getOrDefault("rounds", "6")),
+                Integer.parseInt(values.getOrDefault("concurrency", "200")),
+                Double.parseDouble(values.getOrDefault("churn", "0.1")),
+                Long.parseLong(values.getOrDefault("think-ms", "200")),
+                Long.parseLong(values.getOrDefault("ramp-ms", "10000")));
+    }
+}
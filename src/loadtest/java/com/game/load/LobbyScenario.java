@@ -0,0 +1,211 @@
+package com.game.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Una partida completa de un lobby: creación, entrada de jugadores con su conexión STOMP,
+ * varias rondas rotando por los seis juegos (Preguntas Directas, Yo Nunca Nunca, ¿Quién es más
+ * probable?, Cultura Pendeja, El Impostor y Preguntas Incómodas),
+ * desconexiones y reconexiones dentro del periodo de gracia, y fin de juego.
+ */
+final class LobbyScenario implements Runnable {
+
+    private static final String API = "/api/game-sessions";
+
+    private final LoadTestOptions options;
+    private final HttpDriver http;
+    private final WebSocketStompClient stompClient;
+    private final String wsUrl;
+    private final LatencyStats stats;
+    private final String namePrefix;
+
+    // Momento de la última acción del lobby; los eventos recibidos se miden contra él
+    private final AtomicLong clock = new AtomicLong(System.nanoTime());
+    private final List<PlayerClient> players = new ArrayList<>();
+    private String code;
+
+    LobbyScenario(LoadTestOptions options, HttpDriver http, WebSocketStompClient stompClient, String wsUrl,
+                  LatencyStats stats, String namePrefix) {
+        this.options = options;
+        this.http = http;
+        this.stompClient = stompClient;
+        this.wsUrl = wsUrl;
+        this.stats = stats;
+        this.namePrefix = namePrefix;
+    }
+
+    @Override
+    public void run() {
+        try {
+            if (!setUpLobby()) return;
+            for (int round = 0; round < options.rounds(); round++) {
+                switch (round % 6) {
+                    case 0 -> playPreguntasDirectas();
+                    case 1 -> playYoNuncaNunca();
+                    case 2 -> playQuienEsMasProbable();
+                    case 3 -> playCulturaPendeja();
+                    case 4 -> playImpostor();
+                    default -> playPreguntasIncomodas();
+                }
+                churn();
+                http.get("GET /{code}/sync", API + "/" + code + "/sync?username=" + players.get(0).username());
+            }
+            act();
+            http.post("POST /{code}/end-game", API + "/" + code + "/end-game", null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            players.forEach(PlayerClient::disconnect);
+        }
+    }
+
+    private boolean setUpLobby() throws InterruptedException {
+        String creator = namePrefix + "p0";
+        JsonNode created = http.post("POST /create", API + "/create?username=" + creator, null);
+        if (created == null) return false;
+        code = created.get("sessionCode").asText();
+        players.add(connect(creator));
+
+        for (int i = 1; i < options.players(); i++) {
+            String username = namePrefix + "p" + i;
+            act();
+            if (http.post("POST /join", API + "/join", Map.of("sessionCode", code, "username", username)) == null) {
+                continue;
+            }
+            players.add(connect(username));
+            think();
+        }
+        act();
+        http.post("POST /{code}/start-game", API + "/" + code + "/start-game", null);
+        return players.size() > 2;
+    }
+
+    private PlayerClient connect(String username) {
+        PlayerClient player = new PlayerClient(stompClient, wsUrl, code, username, clock, stats);
+        player.connect();
+        return player;
+    }
+
+    private void playPreguntasDirectas() throws InterruptedException {
+        act();
+        http.post("POST /{code}/start-preguntas-directas", API + "/" + code + "/start-preguntas-directas", null);
+        for (int i = 0; i < players.size(); i++) {
+            String from = players.get(i).username();
+            String to = players.get((i + 1) % players.size()).username();
+            http.post("POST /{code}/send-question", API + "/" + code + "/send-question", Map.of(
+                    "fromUser", from, "toUser", to, "question", "¿Qué harías si " + i + "?", "anonymous", i % 2 == 0));
+        }
+        for (PlayerClient player : players) {
+            http.post("POST /users/{username}/ready", "/api/users/" + player.username() + "/ready", null);
+        }
+        act();
+        http.post("POST /{code}/check-all-ready", API + "/" + code + "/check-all-ready", null);
+
+        String lastToUser = players.get(0).username();
+        for (int i = 0; i < players.size(); i++) {
+            think();
+            act();
+            JsonNode next = http.post("POST /{code}/next-random-question", API + "/" + code + "/next-random-question",
+                    Map.of("lastToUser", lastToUser));
+            if (next == null || next.path("allQuestionsShown").asBoolean()) break;
+            lastToUser = next.path("toUser").asText(lastToUser);
+            http.get("GET /{code}/round-info", API + "/" + code + "/round-info");
+        }
+    }
+
+    private void playYoNuncaNunca() throws InterruptedException {
+        playQuestionLoop("POST /{code}/yo-nunca-nunca/start", "/yo-nunca-nunca/start",
+                "GET /{code}/next-yo-nunca-nunca", "/next-yo-nunca-nunca");
+    }
+
+    private void playCulturaPendeja() throws InterruptedException {
+        playQuestionLoop("POST /{code}/cultura-pendeja/start", "/cultura-pendeja/start",
+                "GET /{code}/next-cultura-pendeja", "/next-cultura-pendeja");
+    }
+
+    private void playPreguntasIncomodas() throws InterruptedException {
+        playQuestionLoop("POST /{code}/start-preguntas-incomodas", "/start-preguntas-incomodas",
+                "GET /{code}/next-preguntas-incomodas", "/next-preguntas-incomodas");
+    }
+
+    // Juegos de solo leer preguntas: se arranca y el grupo pasa una por jugador
+    private void playQuestionLoop(String startRoute, String startPath, String nextRoute, String nextPath)
+            throws InterruptedException {
+        act();
+        if (http.post(startRoute, API + "/" + code + startPath, null) == null) return;
+        for (int i = 0; i < players.size(); i++) {
+            think();
+            act();
+            if (http.get(nextRoute, API + "/" + code + nextPath + "?tipo=tranquilo") == null) return;
+        }
+    }
+
+    private void playQuienEsMasProbable() throws InterruptedException {
+        act();
+        if (http.post("POST /{code}/quien-es-mas-probable/start", API + "/" + code + "/quien-es-mas-probable/start",
+                null) == null) return;
+        for (int q = 0; q < 3; q++) {
+            think();
+            http.get("GET /{code}/next-quien-es-mas-probable",
+                    API + "/" + code + "/next-quien-es-mas-probable?tipo=tranquilo");
+            for (PlayerClient voter : players) {
+                String voted = players.get(ThreadLocalRandom.current().nextInt(players.size())).username();
+                act();
+                http.post("POST /{code}/vote", API + "/" + code + "/vote",
+                        Map.of("votingUser", voter.username(), "votedUser", voted));
+            }
+            http.get("GET /{code}/vote-results", API + "/" + code + "/vote-results");
+            http.post("POST /{code}/clear-votes", API + "/" + code + "/clear-votes", null);
+        }
+    }
+
+    private void playImpostor() throws InterruptedException {
+        act();
+        if (http.post("POST /{code}/el-impostor/start", API + "/" + code + "/el-impostor/start",
+                Map.of("impostorCount", 1)) == null) return;
+        for (PlayerClient player : players) {
+            http.get("GET /{code}/el-impostor/my-role",
+                    API + "/" + code + "/el-impostor/my-role?username=" + player.username());
+        }
+        think();
+        act();
+        http.post("POST /{code}/el-impostor/call-vote",
+                API + "/" + code + "/el-impostor/call-vote?username=" + players.get(0).username(), null);
+        String target = players.get(players.size() - 1).username();
+        for (PlayerClient voter : players) {
+            act();
+            http.post("POST /{code}/el-impostor/vote", API + "/" + code + "/el-impostor/vote",
+                    Map.of("votingUser", voter.username(), "votedUser", target));
+        }
+    }
+
+    // Algunos jugadores pierden la conexión y vuelven antes de que venza el periodo de gracia
+    private void churn() throws InterruptedException {
+        for (int i = 1; i < players.size(); i++) {
+            if (ThreadLocalRandom.current().nextDouble() >= options.churn()) continue;
+            PlayerClient player = players.get(i);
+            act();
+            player.disconnect();
+            Thread.sleep(ThreadLocalRandom.current().nextLong(200, 2_000));
+            act();
+            player.reconnect();
+        }
+    }
+
+    private void act() {
+        clock.set(System.nanoTime());
+    }
+
+    private void think() throws InterruptedException {
+        if (options.thinkMillis() > 0) {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(options.thinkMillis() / 2, options.thinkMillis() + 1));
+        }
+    }
+}
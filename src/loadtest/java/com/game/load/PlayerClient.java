@@ -0,0 +1,118 @@
+package com.game.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conexión STOMP de un jugador, con las cabeceras que espera WebSocketEventListener
+ * (username, sessionCode y, al reconectar, lastSeq). Cada evento recibido en /topic/{code}
+ * se mide contra la última acción de su lobby.
+ */
+final class PlayerClient {
+
+    static final String PREFIX = "event ";
+
+    // Eventos programados por timers: su retraso es intencionado, no latencia
+    private static final Set<String> SCHEDULED = Set.of(
+            "impostorCountdown", "impostorGameStarted", "votingTimerExpired");
+
+    private final WebSocketStompClient stompClient;
+    private final String url;
+    private final String sessionCode;
+    private final String username;
+    private final AtomicLong lobbyClock;
+    private final LatencyStats stats;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final AtomicLong lastSeq = new AtomicLong();
+    private volatile StompSession session;
+    private volatile long connectStartedAt;
+
+    PlayerClient(WebSocketStompClient stompClient, String url, String sessionCode, String username,
+                 AtomicLong lobbyClock, LatencyStats stats) {
+        this.stompClient = stompClient;
+        this.url = url;
+        this.sessionCode = sessionCode;
+        this.username = username;
+        this.lobbyClock = lobbyClock;
+        this.stats = stats;
+    }
+
+    String username() {
+        return username;
+    }
+
+    void connect() {
+        connect(false);
+    }
+
+    /** Vuelve a conectar dentro del periodo de gracia pidiendo los eventos perdidos. */
+    void reconnect() {
+        connect(true);
+    }
+
+    void disconnect() {
+        StompSession current = session;
+        session = null;
+        if (current != null && current.isConnected()) current.disconnect();
+    }
+
+    private void connect(boolean replay) {
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("username", username);
+        connectHeaders.add("sessionCode", sessionCode);
+        if (replay) connectHeaders.add("lastSeq", Long.toString(lastSeq.get()));
+
+        long start = System.nanoTime();
+        connectStartedAt = start;
+        try {
+            session = stompClient.connectAsync(url, new WebSocketHttpHeaders(), connectHeaders,
+                    new StompSessionHandlerAdapter() {
+                    }).get(15, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            stats.error("stomp connect " + e.getClass().getSimpleName());
+            return;
+        }
+        stats.record(HttpDriver.PREFIX + (replay ? "STOMP reconnect" : "STOMP connect"), System.nanoTime() - start);
+        session.subscribe("/topic/" + sessionCode, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                onEvent(headers, (byte[]) payload);
+            }
+        });
+    }
+
+    private void onEvent(StompHeaders headers, byte[] payload) {
+        long received = System.nanoTime();
+        String seq = headers.getFirst("seq");
+        if (seq != null) lastSeq.accumulateAndGet(Long.parseLong(seq), Math::max);
+        try {
+            JsonNode json = mapper.readTree(payload);
+            String event = json.path("event").asText("unknown");
+            if ("true".equals(headers.getFirst("replay"))) {
+                // Repetición desde el journal: desde que empezó la reconexión
+                stats.record(PREFIX + "(replay) " + event, received - connectStartedAt);
+            } else if (!SCHEDULED.contains(event)) {
+                stats.record(PREFIX + event, received - lobbyClock.get());
+            }
+        } catch (Exception e) {
+            stats.error("event parse " + e.getClass().getSimpleName());
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.game.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 @Configuration
@@ -16,11 +18,23 @@ public class AppConfig {
         return new ObjectMapper();
     }
 
+    /**
+     * Tareas @Scheduled (snapshot del estado de juego, limpieza de sesiones inactivas). Los
+     * timers de juego y los periodos de gracia de desconexión no pasan por aquí: usan
+     * HashedWheelTimer (GameTimerService). Con spring.threads.virtual.enabled cada disparo
+     * corre en su propio hilo virtual, así que una tarea bloqueada en BD no retrasa a las demás.
+     */
     @Bean
-    public TaskScheduler taskScheduler() {
+    public TaskScheduler taskScheduler(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+            scheduler.setVirtualThreads(true);
+            scheduler.setThreadNamePrefix("scheduled-");
+            return scheduler;
+        }
         ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
         scheduler.setPoolSize(5);
-        scheduler.setThreadNamePrefix("ws-disconnect-");
+        scheduler.setThreadNamePrefix("scheduled-");
         scheduler.initialize();
         return scheduler;
     }
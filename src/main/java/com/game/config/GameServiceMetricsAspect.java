@@ -0,0 +1,35 @@
+package com.game.config;
+
+import com.game.service.GameMetrics;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mide cada método público de los servicios de juego (com.game.service.*Service).
+ * Incluye la espera en el buzón de la sesión: es el tiempo que ve el controlador.
+ * Las llamadas internas dentro de un mismo servicio no pasan por el proxy y no se miden aparte.
+ */
+@Aspect
+@Component
+public class GameServiceMetricsAspect {
+
+    private final GameMetrics metrics;
+
+    public GameServiceMetricsAspect(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Around("execution(public * com.game.service.*Service.*(..)) && !within(com.game.service.GameTimerService)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            String method = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                    + "." + joinPoint.getSignature().getName();
+            metrics.record(GameMetrics.SERVICE_CALLS, method, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.game.config;
+
+import com.game.listener.WebSocketEventListener;
+import com.game.service.ElImpostorService;
+import com.game.service.GameMetrics;
+import com.game.service.GameTimerService;
+import com.game.service.SessionCodeAllocator;
+import com.game.service.SessionExecutor;
+import com.game.service.SessionReaper;
+import com.game.service.WebSocketSessionRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Conecta {@link GameMetrics} con el resto de la aplicación: gauges del estado en memoria,
+ * endpoint REST en curso (para contar consultas por endpoint) y conteo de SQL de Hibernate.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final GameMetrics metrics;
+
+    public MetricsConfig(GameMetrics metrics,
+                         SessionCodeAllocator codeAllocator,
+                         WebSocketSessionRegistry sessionRegistry,
+                         GameTimerService gameTimers,
+                         ElImpostorService elImpostorService,
+                         SessionExecutor sessionExecutor,
+                         SessionReaper sessionReaper) {
+        this.metrics = metrics;
+        metrics.gauge("game.sessions.active", codeAllocator::inUse);
+        metrics.gauge("game.sockets.connected", sessionRegistry::connectedCount);
+        metrics.gauge("game.disconnect-timers.pending", () -> gameTimers.pending(WebSocketEventListener.TIMER_GROUP));
+        metrics.gauge("game.impostor.active", elImpostorService::activeGames);
+        metrics.gauge("game.sessions.tracked", sessionReaper::trackedSessions);
+        metrics.gauge("game.sessions.mailboxes", sessionExecutor::size);
+        // Las consultas hechas en el buzón de la sesión cuentan para el endpoint que las encoló
+        sessionExecutor.setTaskDecorator(metrics::propagateEndpoint);
+    }
+
+    /**
+     * Cada sentencia que prepara Hibernate suma una consulta al endpoint del hilo actual.
+     * Estático: el EntityManagerFactory lo necesita antes de que existan los servicios de este constructor.
+     */
+    @Bean
+    public static HibernatePropertiesCustomizer queryCountingInspector(GameMetrics metrics) {
+        StatementInspector inspector = sql -> {
+            metrics.increment(GameMetrics.DB_QUERIES, GameMetrics.currentEndpoint());
+            return sql;
+        };
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                     @NonNull Object handler) {
+                // Plantilla de la ruta ("/api/game-sessions/{sessionCode}/vote"), no la ruta concreta
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String endpoint = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+                GameMetrics.enterEndpoint(endpoint);
+                metrics.increment(GameMetrics.HTTP_REQUESTS, endpoint);
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                        @NonNull Object handler, Exception ex) {
+                GameMetrics.exitEndpoint();
+            }
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package com.game.config;
+
+import com.game.service.GameSessionService;
+import com.game.service.SessionReaper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Antes de atender /api/game-sessions/{code}/..., adopta la sesión si viene de un proceso
+ * anterior ({@link GameSessionService#ensureCurrentGeneration}) y le apunta actividad para
+ * {@link SessionReaper}. Tras la primera petición de cada sesión es una consulta a un set en
+ * memoria.
+ */
+@Component
+public class SessionGenerationFilter extends OncePerRequestFilter {
+
+    private static final Pattern SESSION_PATH = Pattern.compile("^/api/game-sessions/(\\d{4})(/.*)?$");
+
+    private final GameSessionService gameSessionService;
+    private final SessionReaper sessionReaper;
+
+    public SessionGenerationFilter(GameSessionService gameSessionService, SessionReaper sessionReaper) {
+        this.gameSessionService = gameSessionService;
+        this.sessionReaper = sessionReaper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/game-sessions/");
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain) throws ServletException, IOException {
+        Matcher matcher = SESSION_PATH.matcher(request.getRequestURI());
+        if (matcher.matches()) {
+            gameSessionService.ensureCurrentGeneration(matcher.group(1));
+            sessionReaper.touch(matcher.group(1));
+        }
+        chain.doFilter(request, response);
+    }
+}
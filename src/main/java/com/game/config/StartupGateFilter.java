@@ -0,0 +1,56 @@
+package com.game.config;
+
+import com.game.service.StartupPipeline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Puerta de arranque: mientras los seeders de {@link StartupPipeline} siguen en marcha, las
+ * peticiones a /api esperan (en su hilo virtual) a que terminen. Si tardan más que
+ * game.startup.gate-timeout-ms se responde 503 con Retry-After. /api/metrics no espera.
+ */
+@Component
+public class StartupGateFilter extends OncePerRequestFilter {
+
+    private final StartupPipeline startupPipeline;
+    private final Duration timeout;
+
+    public StartupGateFilter(StartupPipeline startupPipeline,
+                             @Value("${game.startup.gate-timeout-ms:10000}") long timeoutMs) {
+        this.startupPipeline = startupPipeline;
+        this.timeout = Duration.ofMillis(timeoutMs);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return startupPipeline.isReady() || !uri.startsWith("/api/") || uri.startsWith("/api/metrics");
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain) throws ServletException, IOException {
+        boolean ready;
+        try {
+            ready = startupPipeline.awaitReady(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ready = false;
+        }
+        if (!ready) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Servidor iniciando");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
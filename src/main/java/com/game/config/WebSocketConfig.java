@@ -1,6 +1,10 @@
 package com.game.config;
 
+import com.game.listener.SubscriptionReplayInterceptor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -10,10 +14,21 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final SubscriptionReplayInterceptor subscriptionReplay;
+
+    public WebSocketConfig(SubscriptionReplayInterceptor subscriptionReplay) {
+        this.subscriptionReplay = subscriptionReplay;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic"); // Broker para enviar mensajes
         config.setApplicationDestinationPrefixes("/app"); // Prefijo para mensajes entrantes
+        // Sin tope de hilos en el canal de salida, mantener el orden de envío por cliente
+        if (virtualThreads) config.setPreservePublishOrder(true);
     }
 
     @Override
@@ -22,4 +37,23 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOrigins("https://fe-bbtronic-vue.vercel.app", "http://localhost:5173") // Permitir solicitudes desde el origen del frontend
                 .withSockJS(); // Habilitar SockJS
     }
+
+    // Con hilos virtuales los canales STOMP no tienen tope de hilos: un handler que
+    // espera a la BD no deja sin atender a los mensajes de otras sesiones
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) registration.executor(virtualExecutor("stomp-in-"));
+        registration.interceptors(subscriptionReplay);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) registration.executor(virtualExecutor("stomp-out-"));
+    }
+
+    private static SimpleAsyncTaskExecutor virtualExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        return executor;
+    }
 }
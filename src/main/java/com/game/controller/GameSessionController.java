@@ -1,7 +1,10 @@
 package com.game.controller;
 
+import com.game.dto.GameEvents;
 import com.game.dto.SessionSyncDTO;
+import com.game.dto.SessionSyncDeltaDTO;
 import com.game.model.GameSession;
+import com.game.model.SessionSnapshot;
 import com.game.model.User;
 import com.game.model.WaitingMessage;
 import com.game.repository.WaitingMessageRepository;
@@ -10,7 +13,6 @@ import com.game.service.ElImpostorService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -26,7 +28,7 @@ public class GameSessionController {
 
     private final GameSessionService gameSessionService;
     private final UserService userService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final TopicPublisher topicPublisher;
     private final PreguntasDirectasService preguntasDirectasService;
     private final YoNuncaNuncaService yoNuncaNuncaService;
     private final CulturaPendejaService culturaPendejaService;
@@ -34,21 +36,25 @@ public class GameSessionController {
     private final PreguntasIncomodasService preguntasIncomodasService;
     private final WaitingMessageRepository waitingMessageRepository;
     private final ElImpostorService elImpostorService;
+    private final SessionExecutor sessionExecutor;
+    private final UserListBroadcaster userListBroadcaster;
 
     @Autowired
     public GameSessionController(GameSessionService gameSessionService,
                                  UserService userService,
-                                 SimpMessagingTemplate messagingTemplate,
+                                 TopicPublisher topicPublisher,
                                  PreguntasDirectasService preguntasDirectasService,
                                  YoNuncaNuncaService yoNuncaNuncaService,
                                  CulturaPendejaService culturaPendejaService,
                                  QuienEsMasProbableService quienEsMasProbableService,
                                  PreguntasIncomodasService preguntasIncomodasService,
                                  WaitingMessageRepository waitingMessageRepository,
-                                 ElImpostorService elImpostorService) {
+                                 ElImpostorService elImpostorService,
+                                 SessionExecutor sessionExecutor,
+                                 UserListBroadcaster userListBroadcaster) {
         this.gameSessionService = gameSessionService;
         this.userService = userService;
-        this.messagingTemplate = messagingTemplate;
+        this.topicPublisher = topicPublisher;
         this.preguntasDirectasService = preguntasDirectasService;
         this.yoNuncaNuncaService = yoNuncaNuncaService;
         this.culturaPendejaService = culturaPendejaService;
@@ -56,6 +62,8 @@ public class GameSessionController {
         this.preguntasIncomodasService = preguntasIncomodasService;
         this.waitingMessageRepository = waitingMessageRepository;
         this.elImpostorService = elImpostorService;
+        this.sessionExecutor = sessionExecutor;
+        this.userListBroadcaster = userListBroadcaster;
     }
 
     // ─── Gestión de sesión ────────────────────────────────────────────────────
@@ -80,12 +88,11 @@ public class GameSessionController {
     @GetMapping("/{sessionCode}")
     public ResponseEntity<?> getGameSession(@PathVariable String sessionCode) {
         try {
-            GameSession session = gameSessionService.getGameSessionByCode(sessionCode);
-            List<User> users = gameSessionService.getUsersInSession(sessionCode);
+            SessionSnapshot session = gameSessionService.getSessionSnapshot(sessionCode);
             return ResponseEntity.ok(Map.of(
                     "creator", session.getCreatorName(),
                     "gameStarted", session.isGameStarted(),
-                    "users", users,
+                    "users", session.getUsers(),
                     "currentGame", session.getCurrentGame() != null ? session.getCurrentGame() : ""
             ));
         } catch (IllegalArgumentException e) {
@@ -106,13 +113,11 @@ public class GameSessionController {
         }
 
         try {
-            gameSessionService.getGameSessionByCode(sessionCode);
+            gameSessionService.ensureCurrentGeneration(sessionCode);
+            gameSessionService.getSessionSnapshot(sessionCode); // la sesión existe
             User user = userService.registerUser(username);
             gameSessionService.addUserToSession(sessionCode, user);
-
-            List<User> updatedUsers = gameSessionService.getUsersInSession(sessionCode);
-            messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                    Map.of("event", "userUpdate", "users", updatedUsers));
+            userListBroadcaster.usersChanged(sessionCode);
 
             return ResponseEntity.ok(Map.of("sessionToken", user.getSessionToken()));
         } catch (IllegalArgumentException e) {
@@ -124,14 +129,13 @@ public class GameSessionController {
     public ResponseEntity<?> kickUser(@PathVariable String sessionCode,
                                       @RequestParam String username) {
         try {
-            userService.kickUser(sessionCode, username);
-
-            messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                    Map.of("event", "kicked", "username", username));
+            // En el buzón de la sesión: no se cruza con votos ni desconexiones del mismo usuario
+            sessionExecutor.run(sessionCode, () -> {
+                userService.kickUser(sessionCode, username);
 
-            List<User> updatedUsers = gameSessionService.getUsersInSession(sessionCode);
-            messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                    Map.of("event", "userLeft", "username", username, "users", updatedUsers));
+                topicPublisher.publish(sessionCode, GameEvents.kicked(username));
+                userListBroadcaster.userLeft(sessionCode, username);
+            });
 
             return ResponseEntity.ok(Map.of("message", "Usuario expulsado"));
         } catch (IllegalArgumentException e) {
@@ -156,8 +160,18 @@ public class GameSessionController {
 
     @GetMapping("/{sessionCode}/sync")
     public ResponseEntity<?> getSessionSync(@PathVariable String sessionCode,
-                                            @RequestParam(required = false) String username) {
+                                            @RequestParam(required = false) String username,
+                                            @RequestParam(required = false) Long sinceVersion) {
         try {
+            if (sinceVersion != null) {
+                SessionSyncDeltaDTO delta = gameSessionService.getSessionSyncDelta(sessionCode, username, sinceVersion);
+                if (delta != null) {
+                    return delta.getVersion() == sinceVersion
+                            ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).build()
+                            : ResponseEntity.ok(delta);
+                }
+                // Versión desconocida (muy antigua o de antes de un reinicio): sync completo
+            }
             SessionSyncDTO syncData = gameSessionService.getSessionSync(sessionCode, username);
             return ResponseEntity.ok(syncData);
         } catch (IllegalArgumentException e) {
@@ -172,7 +186,7 @@ public class GameSessionController {
     @PostMapping("/{sessionCode}/start-game")
     public ResponseEntity<Map<String, String>> startGame(@PathVariable String sessionCode) {
         gameSessionService.startGame(sessionCode);
-        messagingTemplate.convertAndSend("/topic/" + sessionCode, "{\"event\":\"gameStarted\"}");
+        topicPublisher.publish(sessionCode, GameEvents.GAME_STARTED);
         return ResponseEntity.ok(Map.of("mensaje", "Juego iniciado"));
     }
 
@@ -203,8 +217,8 @@ public class GameSessionController {
     // Separado en POST porque tiene side effect (cambia estado de la ronda)
     @PostMapping("/{sessionCode}/check-all-ready")
     public ResponseEntity<Map<String, Object>> checkAllReady(@PathVariable String sessionCode) {
-        GameSession session = gameSessionService.getGameSessionByCode(sessionCode);
-        boolean allReady = !session.getUsers().isEmpty() && session.getUsers().stream().allMatch(User::isReady);
+        SessionSnapshot session = gameSessionService.getSessionSnapshot(sessionCode);
+        boolean allReady = session.isAllUsersReady();
 
         Map<String, Object> response = new HashMap<>();
         response.put("allReady", allReady);
@@ -222,7 +236,7 @@ public class GameSessionController {
                     return ResponseEntity.ok(response);
                 }
             }
-            messagingTemplate.convertAndSend("/topic/" + sessionCode, "{\"event\":\"allReady\"}");
+            topicPublisher.publish(sessionCode, GameEvents.ALL_READY);
             response.put("message", "Todos los usuarios están listos");
         } else {
             List<String> notReady = session.getUsers().stream()
@@ -249,7 +263,7 @@ public class GameSessionController {
     public ResponseEntity<Map<String, String>> resetUsersReady(@PathVariable String sessionCode) {
         try {
             gameSessionService.resetUsersReady(sessionCode);
-            messagingTemplate.convertAndSend("/topic/" + sessionCode, "{\"event\":\"usersReadyReset\"}");
+            topicPublisher.publish(sessionCode, GameEvents.USERS_READY_RESET);
             return ResponseEntity.ok(Map.of("message", "Usuarios reseteados exitosamente"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
@@ -263,7 +277,7 @@ public class GameSessionController {
     @PostMapping("/{sessionCode}/start-preguntas-directas")
     public ResponseEntity<Map<String, Object>> startPreguntasDirectas(@PathVariable String sessionCode) {
         preguntasDirectasService.start(sessionCode);
-        messagingTemplate.convertAndSend("/topic/" + sessionCode, "{\"event\":\"preguntasDirectasStarted\"}");
+        topicPublisher.publish(sessionCode, GameEvents.PREGUNTAS_DIRECTAS_STARTED);
         Map<String, Object> roundInfo = gameSessionService.getRoundInfo(sessionCode);
         return ResponseEntity.ok(Map.of(
                 "mensaje", "Preguntas Directas iniciado",
@@ -276,8 +290,7 @@ public class GameSessionController {
     public ResponseEntity<Map<String, Object>> startNewRound(@PathVariable String sessionCode) {
         try {
             Map<String, Object> response = preguntasDirectasService.startNewRound(sessionCode);
-            messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                    "{\"event\":\"newRoundStarted\",\"roundId\":\"" + response.get("roundId") + "\"}");
+            topicPublisher.publish(sessionCode, GameEvents.newRoundStarted(String.valueOf(response.get("roundId"))));
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
@@ -339,7 +352,7 @@ public class GameSessionController {
     public ResponseEntity<?> startYoNuncaNunca(@PathVariable String sessionCode) {
         try {
             yoNuncaNuncaService.start(sessionCode);
-            messagingTemplate.convertAndSend("/topic/" + sessionCode, "{\"event\":\"yoNuncaNuncaStarted\"}");
+            topicPublisher.publish(sessionCode, GameEvents.YO_NUNCA_NUNCA_STARTED);
             return ResponseEntity.ok(Map.of("message", "Yo Nunca Nunca iniciado correctamente."));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
@@ -363,7 +376,7 @@ public class GameSessionController {
     public ResponseEntity<?> startCulturaPendeja(@PathVariable String sessionCode) {
         try {
             culturaPendejaService.start(sessionCode);
-            messagingTemplate.convertAndSend("/topic/" + sessionCode, "{\"event\":\"culturaPendejaStarted\"}");
+            topicPublisher.publish(sessionCode, GameEvents.CULTURA_PENDEJA_STARTED);
             return ResponseEntity.ok(Map.of("message", "Cultura Pendeja iniciado correctamente."));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
@@ -387,7 +400,7 @@ public class GameSessionController {
     public ResponseEntity<?> startQuienEsMasProbable(@PathVariable String sessionCode) {
         try {
             quienEsMasProbableService.start(sessionCode);
-            messagingTemplate.convertAndSend("/topic/" + sessionCode, "{\"event\":\"quienEsMasProbableStarted\"}");
+            topicPublisher.publish(sessionCode, GameEvents.QUIEN_ES_MAS_PROBABLE_STARTED);
             return ResponseEntity.ok(Map.of("message", "Quien Es Más Probable iniciado correctamente."));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", e.getMessage()));
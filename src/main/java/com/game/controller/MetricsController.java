@@ -0,0 +1,30 @@
+package com.game.controller;
+
+import com.game.service.GameMetrics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    private final GameMetrics metrics;
+
+    public MetricsController(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gauges, contadores y timers del nodo: sesiones activas, sockets conectados, timers de
+     * desconexión pendientes, partidas de El Impostor, eventos publicados por tipo,
+     * duración de los métodos de servicio y consultas a BD por endpoint.
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        return ResponseEntity.ok(metrics.snapshot());
+    }
+}
@@ -100,7 +100,6 @@ public class UserController {
     @PostMapping("/{username}/ready")
     public ResponseEntity<Map<String, Object>> setUserReady(@PathVariable String username) {
         Map<String, Object> response = userService.setUserReadyWithRoundInfo(username);
-        System.out.println("Usuario marcado como listo: " + username);
         return ResponseEntity.ok(response);
     }
 }
@@ -0,0 +1,258 @@
+package com.game.dto;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.model.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catálogo de eventos que se publican en /topic/{sessionCode}.
+ * Cada evento se serializa a JSON una sola vez (con el generador de Jackson, sin mapas
+ * intermedios) y esos bytes se envían tal cual a todos los suscriptores.
+ * Los eventos sin datos son constantes: no deben modificarse.
+ */
+public final class GameEvents {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final byte[] EVENT_PREFIX = "{\"event\":\"".getBytes(StandardCharsets.US_ASCII);
+
+    public static final byte[] GAME_STARTED = constant("gameStarted");
+    public static final byte[] ALL_READY = constant("allReady");
+    public static final byte[] USERS_READY_RESET = constant("usersReadyReset");
+    public static final byte[] ALL_QUESTIONS_SHOWN = constant("allQuestionsShown");
+    public static final byte[] PREGUNTAS_DIRECTAS_STARTED = constant("preguntasDirectasStarted");
+    public static final byte[] YO_NUNCA_NUNCA_STARTED = constant("yoNuncaNuncaStarted");
+    public static final byte[] CULTURA_PENDEJA_STARTED = constant("culturaPendejaStarted");
+    public static final byte[] QUIEN_ES_MAS_PROBABLE_STARTED = constant("quienEsMasProbableStarted");
+    public static final byte[] PREGUNTAS_INCOMODAS_STARTED = constant("preguntasIncomodasStarted");
+    public static final byte[] IMPOSTOR_GAME_STARTED = constant("impostorGameStarted");
+
+    // La cuenta atrás del impostor siempre es 3, 2, 1
+    private static final byte[][] IMPOSTOR_COUNTDOWN = {
+            null, countdown(1), countdown(2), countdown(3)
+    };
+
+    private GameEvents() {
+    }
+
+    // ─── Lobby ───────────────────────────────────────────────────────────────
+
+    /** Solo username y ready: nunca se difunden ids ni sessionToken. */
+    public static byte[] userUpdate(Collection<User> users) {
+        return userUpdate(users, List.of());
+    }
+
+    /** Lista final tras varios cambios agrupados; {@code left} solo aparece si alguien salió. */
+    public static byte[] userUpdate(Collection<User> users, Collection<String> left) {
+        return write(g -> {
+            g.writeStringField("event", "userUpdate");
+            writeUsers(g, users);
+            if (!left.isEmpty()) writeStrings(g, "left", left);
+        });
+    }
+
+    public static byte[] userLeft(String username, Collection<User> users) {
+        return left("userLeft", username, users);
+    }
+
+    public static byte[] creatorLeft(String username, Collection<User> users) {
+        return left("creatorLeft", username, users);
+    }
+
+    public static byte[] kicked(String username) {
+        return write(g -> {
+            g.writeStringField("event", "kicked");
+            g.writeStringField("username", username);
+        });
+    }
+
+    public static byte[] userReconnecting(String username) {
+        return write(g -> {
+            g.writeStringField("event", "userReconnecting");
+            g.writeStringField("username", username);
+        });
+    }
+
+    /** Solo para quien se reconecta: se perdió más de lo que guarda el journal, toca /sync. */
+    public static byte[] resyncRequired(long seq) {
+        return write(g -> {
+            g.writeStringField("event", "resyncRequired");
+            g.writeNumberField("seq", seq);
+        });
+    }
+
+    // ─── Juegos de preguntas ─────────────────────────────────────────────────
+
+    public static byte[] newRoundStarted(String roundId) {
+        return write(g -> {
+            g.writeStringField("event", "newRoundStarted");
+            g.writeStringField("roundId", roundId);
+        });
+    }
+
+    public static byte[] nextQuestion(Object question, Object toUser) {
+        return write(g -> {
+            g.writeStringField("event", "nextQuestion");
+            g.writeObjectField("question", question);
+            g.writeObjectField("toUser", toUser);
+        });
+    }
+
+    public static byte[] voteCompleted(String results) {
+        return write(g -> {
+            g.writeStringField("event", "voteCompleted");
+            g.writeStringField("results", results);
+        });
+    }
+
+    // ─── El Impostor ─────────────────────────────────────────────────────────
+
+    public static byte[] impostorCountdown(int count) {
+        return count >= 1 && count <= 3 ? IMPOSTOR_COUNTDOWN[count] : countdown(count);
+    }
+
+    public static byte[] votingStarted(String calledBy, long votingDeadline, Collection<String> alivePlayers) {
+        return write(g -> {
+            g.writeStringField("event", "votingStarted");
+            g.writeStringField("calledBy", calledBy);
+            g.writeNumberField("votingDeadline", votingDeadline);
+            writeStrings(g, "alivePlayers", alivePlayers);
+        });
+    }
+
+    public static byte[] voteUpdate(int votedCount, int totalVoters, Collection<String> pendingVoters) {
+        return write(g -> {
+            g.writeStringField("event", "voteUpdate");
+            g.writeNumberField("votedCount", votedCount);
+            g.writeNumberField("totalVoters", totalVoters);
+            writeStrings(g, "pendingVoters", pendingVoters);
+        });
+    }
+
+    public static byte[] votingTimerExpired(Collection<String> pendingVoters) {
+        return write(g -> {
+            g.writeStringField("event", "votingTimerExpired");
+            writeStrings(g, "pendingVoters", pendingVoters);
+        });
+    }
+
+    public static byte[] votingResult(String eliminatedPlayer, Map<String, Long> votes, boolean tie,
+                                      Collection<String> alivePlayers, Collection<String> eliminatedPlayers) {
+        return write(g -> {
+            g.writeStringField("event", "votingResult");
+            g.writeStringField("eliminatedPlayer", eliminatedPlayer);
+            g.writeObjectFieldStart("votes");
+            for (Map.Entry<String, Long> e : votes.entrySet()) g.writeNumberField(e.getKey(), e.getValue());
+            g.writeEndObject();
+            g.writeBooleanField("tie", tie);
+            writeStrings(g, "alivePlayers", alivePlayers);
+            writeStrings(g, "eliminatedPlayers", eliminatedPlayers);
+        });
+    }
+
+    public static byte[] impostorPlayerEliminated(String eliminatedPlayer, String reason,
+                                                  Collection<String> alivePlayers) {
+        return write(g -> {
+            g.writeStringField("event", "impostorPlayerEliminated");
+            g.writeStringField("eliminatedPlayer", eliminatedPlayer);
+            g.writeStringField("reason", reason);
+            writeStrings(g, "alivePlayers", alivePlayers);
+        });
+    }
+
+    public static byte[] impostorRoundContinues(Collection<String> alivePlayers) {
+        return write(g -> {
+            g.writeStringField("event", "impostorRoundContinues");
+            writeStrings(g, "alivePlayers", alivePlayers);
+        });
+    }
+
+    public static byte[] impostorGameOver(String winner, Collection<String> impostors, String message) {
+        return write(g -> {
+            g.writeStringField("event", "impostorGameOver");
+            g.writeStringField("winner", winner);
+            writeStrings(g, "impostors", impostors);
+            g.writeStringField("message", message);
+        });
+    }
+
+    /**
+     * Nombre del evento sin parsear el JSON: todos empiezan por {@code {"event":"<nombre>"}}.
+     * Devuelve "unknown" si los bytes no tienen esa forma.
+     */
+    public static String eventName(byte[] event) {
+        int start = EVENT_PREFIX.length;
+        if (event.length <= start) return "unknown";
+        for (int i = 0; i < start; i++) {
+            if (event[i] != EVENT_PREFIX[i]) return "unknown";
+        }
+        for (int i = start; i < event.length; i++) {
+            if (event[i] == '"') return new String(event, start, i - start, StandardCharsets.US_ASCII);
+        }
+        return "unknown";
+    }
+
+    // ─── Serialización ───────────────────────────────────────────────────────
+
+    @FunctionalInterface
+    private interface Fields {
+        void write(JsonGenerator g) throws IOException;
+    }
+
+    private static byte[] write(Fields fields) {
+        try (ByteArrayBuilder out = new ByteArrayBuilder(256);
+             JsonGenerator g = MAPPER.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            g.writeStartObject();
+            fields.write(g);
+            g.writeEndObject();
+            g.flush();
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] constant(String event) {
+        return write(g -> g.writeStringField("event", event));
+    }
+
+    private static byte[] countdown(int count) {
+        return write(g -> {
+            g.writeStringField("event", "impostorCountdown");
+            g.writeNumberField("count", count);
+        });
+    }
+
+    private static byte[] left(String event, String username, Collection<User> users) {
+        return write(g -> {
+            g.writeStringField("event", event);
+            g.writeStringField("username", username);
+            writeUsers(g, users);
+        });
+    }
+
+    private static void writeUsers(JsonGenerator g, Collection<User> users) throws IOException {
+        g.writeArrayFieldStart("users");
+        for (User u : users) {
+            g.writeStartObject();
+            g.writeStringField("username", u.getUsername());
+            g.writeBooleanField("ready", u.isReady());
+            g.writeEndObject();
+        }
+        g.writeEndArray();
+    }
+
+    private static void writeStrings(JsonGenerator g, String field, Collection<String> values) throws IOException {
+        g.writeArrayFieldStart(field);
+        for (String value : values) g.writeString(value);
+        g.writeEndArray();
+    }
+}
@@ -0,0 +1,20 @@
+package com.game.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Estado de la ronda con los conteos calculados en SQL, en una sola consulta
+ * (ver GameSessionRepository.findRoundView). Lo usa round-info cuando la sesión no está en caché.
+ */
+@Data
+@AllArgsConstructor
+public class SessionRoundView {
+    private String roundId;
+    private String status;
+    private String currentGame;
+    private long totalQuestions; // de la ronda actual
+    private long shownQuestions;
+    private long usersReady;
+    private long totalUsers;
+}
@@ -16,5 +16,6 @@ public class SessionSyncDTO {
     private String currentGame;     // null si están en lobby, o nombre del juego actual
     private GameStateDTO gameState; // Estado del juego si hay uno activo
     private long timestamp;         // Marca de tiempo del servidor
+    private long version;           // Versión de la vista; se envía como sinceVersion en el siguiente sync
 }
 
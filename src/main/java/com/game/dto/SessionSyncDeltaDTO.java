@@ -0,0 +1,25 @@
+package com.game.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cambios de una sesión desde la versión que ya tiene el cliente ({@code sinceVersion}).
+ * Solo incluye los usuarios nuevos o modificados y los campos que cambiaron.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionSyncDeltaDTO {
+    private String sessionCode;
+    private long sinceVersion;
+    private long version;
+    private List<SyncUserDTO> changedUsers; // Usuarios nuevos o con cambios
+    private List<String> removedUsers;      // Usernames que ya no están en la sesión
+    private Map<String, Object> changed;    // creator, currentGame y/o gameState (solo sus campos modificados)
+    private long timestamp;
+}
@@ -0,0 +1,39 @@
+package com.game.listener;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Interceptor del clientInboundChannel que lanza la repetición de eventos perdidos
+ * ({@link WebSocketEventListener#replayMissed}) cuando el broker ya ha registrado la
+ * suscripción. SessionSubscribeEvent se publica al entregar el SUBSCRIBE al canal, antes de
+ * que el broker lo procese: un evento publicado entre medias no estaría aún en la lectura del
+ * journal ni llegaría en vivo. Leyendo el journal después del registro, todo evento sale por
+ * una de las dos vías (o por ambas; el cliente descarta los seq repetidos).
+ */
+@Component
+public class SubscriptionReplayInterceptor implements ExecutorChannelInterceptor {
+
+    // Perezoso: el listener depende del template que crea la misma configuración que registra esto
+    private final ObjectProvider<WebSocketEventListener> listener;
+
+    public SubscriptionReplayInterceptor(ObjectProvider<WebSocketEventListener> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void afterMessageHandled(@NonNull Message<?> message, @NonNull MessageChannel channel,
+                                    @NonNull MessageHandler handler, Exception ex) {
+        if (ex != null || !(handler instanceof SimpleBrokerMessageHandler)) return;
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.SUBSCRIBE) return;
+        listener.getObject().replayMissed(message);
+    }
+}
@@ -1,59 +1,87 @@
 package com.game.listener;
 
+import com.game.dto.GameEvents;
 import com.game.model.GameSession;
 import com.game.model.User;
 import com.game.repository.GameSessionRepository;
 import com.game.repository.UserRepository;
 import com.game.service.ElImpostorService;
+import com.game.service.GameSessionService;
+import com.game.service.GameTimerService;
+import com.game.service.GameSessionStore;
+import com.game.service.HashedWheelTimer;
+import com.game.service.SessionExecutor;
+import com.game.service.SessionReaper;
+import com.game.service.TopicPublisher;
+import com.game.service.UserListBroadcaster;
 import com.game.service.WebSocketSessionRegistry;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.Message;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
-import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.socket.messaging.SessionConnectEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
-import java.time.Instant;
-import java.util.List;
-import java.util.Map;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Component
 public class WebSocketEventListener {
 
     private static final int GRACE_PERIOD_SECONDS = 20;
+    public static final String TIMER_GROUP = "disconnect";
+    private static final String LAST_SEQ_HEADER = "lastSeq";
 
     // simpSessionId → username
     private final ConcurrentHashMap<String, String> sessionIdToUsername = new ConcurrentHashMap<>();
     // simpSessionId → sessionCode
     private final ConcurrentHashMap<String, String> sessionIdToSessionCode = new ConcurrentHashMap<>();
     // username → pending disconnect future
-    private final ConcurrentHashMap<String, ScheduledFuture<?>> pendingDisconnects = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, HashedWheelTimer.Timeout> pendingDisconnects = new ConcurrentHashMap<>();
+    // simpSessionId → lastSeq enviado en el CONNECT, pendiente de la suscripción a /topic
+    private final ConcurrentHashMap<String, Long> pendingReplays = new ConcurrentHashMap<>();
 
     private final UserRepository userRepository;
     private final GameSessionRepository gameSessionRepository;
-    private final SimpMessagingTemplate messagingTemplate;
-    private final TaskScheduler taskScheduler;
+    private final TopicPublisher topicPublisher;
+    private final GameTimerService gameTimers;
     private final WebSocketSessionRegistry sessionRegistry;
     private final ElImpostorService elImpostorService;
+    private final GameSessionStore sessionStore;
+    private final TransactionTemplate transactionTemplate;
+    private final UserListBroadcaster userListBroadcaster;
+    private final GameSessionService gameSessionService;
+    private final SessionReaper sessionReaper;
+    private final SessionExecutor sessionExecutor;
 
     public WebSocketEventListener(UserRepository userRepository,
                                    GameSessionRepository gameSessionRepository,
-                                   SimpMessagingTemplate messagingTemplate,
-                                   TaskScheduler taskScheduler,
+                                   TopicPublisher topicPublisher,
+                                   GameTimerService gameTimers,
                                    WebSocketSessionRegistry sessionRegistry,
-                                   ElImpostorService elImpostorService) {
+                                   ElImpostorService elImpostorService,
+                                   GameSessionStore sessionStore,
+                                   PlatformTransactionManager transactionManager,
+                                   UserListBroadcaster userListBroadcaster,
+                                   GameSessionService gameSessionService,
+                                   SessionReaper sessionReaper,
+                                   SessionExecutor sessionExecutor) {
         this.userRepository = userRepository;
         this.gameSessionRepository = gameSessionRepository;
-        this.messagingTemplate = messagingTemplate;
-        this.taskScheduler = taskScheduler;
+        this.topicPublisher = topicPublisher;
+        this.gameTimers = gameTimers;
         this.sessionRegistry = sessionRegistry;
         this.elImpostorService = elImpostorService;
+        this.sessionStore = sessionStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userListBroadcaster = userListBroadcaster;
+        this.gameSessionService = gameSessionService;
+        this.sessionReaper = sessionReaper;
+        this.sessionExecutor = sessionExecutor;
     }
 
     @EventListener
@@ -65,21 +93,48 @@ public class WebSocketEventListener {
 
         if (username == null || sessionCode == null || simpSessionId == null) return;
 
+        // Tras un reinicio, la reconexión del cliente adopta la sesión antes de que pida el estado
+        gameSessionService.ensureCurrentGeneration(sessionCode);
+        sessionReaper.touch(sessionCode);
         sessionIdToUsername.put(simpSessionId, username);
         sessionIdToSessionCode.put(simpSessionId, sessionCode);
         sessionRegistry.register(sessionCode, username);
 
+        Long lastSeq = parseSeq(sha.getFirstNativeHeader(LAST_SEQ_HEADER));
+        if (lastSeq != null) pendingReplays.put(simpSessionId, lastSeq);
+
         // Si había un timer pendiente de desconexión, cancelarlo (Bug 3)
-        ScheduledFuture<?> pending = pendingDisconnects.remove(username);
-        if (pending != null && pending.cancel(false)) {
-            broadcastUserUpdate(sessionCode);
+        HashedWheelTimer.Timeout pending = pendingDisconnects.remove(username);
+        if (pending != null && pending.cancel()) {
+            userListBroadcaster.usersChanged(sessionCode);
         }
     }
 
+    /**
+     * Al suscribirse a /topic/{sessionCode} con {@code lastSeq} (en el SUBSCRIBE o en el CONNECT),
+     * se le reenvían desde memoria los eventos que se perdió mientras estaba desconectado.
+     * Lo llama {@link SubscriptionReplayInterceptor} con la suscripción ya registrada en el broker.
+     */
+    public void replayMissed(Message<?> subscribe) {
+        StompHeaderAccessor sha = StompHeaderAccessor.wrap(subscribe);
+        String simpSessionId = sha.getSessionId();
+        String destination = sha.getDestination();
+        if (simpSessionId == null || destination == null || !destination.startsWith("/topic/")) return;
+
+        Long lastSeq = parseSeq(sha.getFirstNativeHeader(LAST_SEQ_HEADER));
+        Long fromConnect = pendingReplays.remove(simpSessionId);
+        if (lastSeq == null) lastSeq = fromConnect;
+        if (lastSeq == null) return;
+
+        topicPublisher.replay(destination.substring("/topic/".length()), simpSessionId,
+                sha.getSubscriptionId(), lastSeq);
+    }
+
     @EventListener
     public void handleDisconnect(SessionDisconnectEvent event) {
         StompHeaderAccessor sha = StompHeaderAccessor.wrap(event.getMessage());
         String simpSessionId = sha.getSessionId();
+        pendingReplays.remove(simpSessionId);
 
         String username = sessionIdToUsername.remove(simpSessionId);
         String sessionCode = sessionIdToSessionCode.remove(simpSessionId);
@@ -88,24 +143,42 @@ public class WebSocketEventListener {
 
         sessionRegistry.unregister(sessionCode, username);
 
-        messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                Map.of("event", "userReconnecting", "username", username));
+        topicPublisher.publish(sessionCode, GameEvents.userReconnecting(username));
+
+        // Al vencer, la baja corre en el buzón de la sesión, en orden con el resto de eventos
+        AtomicReference<HashedWheelTimer.Timeout> self = new AtomicReference<>();
+        HashedWheelTimer.Timeout timeout = gameTimers.schedule(sessionCode, TIMER_GROUP,
+                Duration.ofSeconds(GRACE_PERIOD_SECONDS),
+                () -> handleUserFinalDisconnect(username, sessionCode, self.get()));
+        self.set(timeout);
+        HashedWheelTimer.Timeout previous = pendingDisconnects.put(username, timeout);
+        if (previous != null) previous.cancel();
+    }
 
-        ScheduledFuture<?> future = taskScheduler.schedule(
-                () -> handleUserFinalDisconnect(username, sessionCode),
-                Instant.now().plusSeconds(GRACE_PERIOD_SECONDS)
-        );
-        pendingDisconnects.put(username, future);
+    void handleUserFinalDisconnect(String username, String sessionCode, HashedWheelTimer.Timeout timeout) {
+        // Solo si la entrada sigue siendo este timer: si una reconexión la quitó (aunque su
+        // cancel() llegara tarde) o una desconexión posterior la reemplazó, no se da de baja
+        if (timeout == null || !pendingDisconnects.remove(username, timeout)) return;
+        // Se llama desde el timer, fuera del proxy: la transacción se abre a mano, ya dentro del
+        // buzón (removeUser avisa a El Impostor, que también entra en él)
+        Boolean wasCreator = sessionExecutor.call(sessionCode,
+                () -> transactionTemplate.execute(status -> removeUser(username, sessionCode)));
+        if (wasCreator == null) return;
+        if (wasCreator) {
+            userListBroadcaster.creatorLeft(sessionCode, username);
+        } else {
+            userListBroadcaster.userLeft(sessionCode, username);
+        }
     }
 
-    @Transactional
-    public void handleUserFinalDisconnect(String username, String sessionCode) {
+    // Elimina al usuario de la sesión; devuelve si era el creador, o null si ya no estaba
+    private Boolean removeUser(String username, String sessionCode) {
         Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isEmpty()) return;
+        if (userOpt.isEmpty()) return null;
 
         User user = userOpt.get();
         Optional<GameSession> sessionOpt = gameSessionRepository.findBySessionCode(sessionCode);
-        if (sessionOpt.isEmpty()) return;
+        if (sessionOpt.isEmpty()) return null;
 
         GameSession session = sessionOpt.get();
         boolean wasCreator = username.equals(session.getCreatorName());
@@ -119,27 +192,17 @@ public class WebSocketEventListener {
         user.setGameSession(null);
         gameSessionRepository.save(session);
         userRepository.delete(user);
+        sessionStore.invalidate(sessionCode);
 
-        List<Map<String, Object>> updatedUsers = session.getUsers().stream()
-                .map(u -> Map.<String, Object>of("username", u.getUsername(), "ready", u.isReady()))
-                .collect(Collectors.toList());
-
-        if (wasCreator) {
-            messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                    Map.of("event", "creatorLeft", "username", username, "users", updatedUsers));
-        } else {
-            messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                    Map.of("event", "userLeft", "username", username, "users", updatedUsers));
-        }
+        return wasCreator;
     }
 
-    private void broadcastUserUpdate(String sessionCode) {
-        gameSessionRepository.findBySessionCode(sessionCode).ifPresent(session -> {
-            List<Map<String, Object>> users = session.getUsers().stream()
-                    .map(u -> Map.<String, Object>of("username", u.getUsername(), "ready", u.isReady()))
-                    .collect(Collectors.toList());
-            messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                    Map.of("event", "userUpdate", "users", users));
-        });
+    private static Long parseSeq(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 }
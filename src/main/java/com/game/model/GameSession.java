@@ -23,7 +23,8 @@ public class GameSession {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    private String sessionCode; // Código de 4 dígitos
+    @Column(name = "session_code", unique = true)
+    private String sessionCode; // Código de 4 dígitos (único entre sesiones vivas)
     private LocalDateTime createdAt = LocalDateTime.now();
 
     private String creatorName; // Nombre del creador de la sesión
@@ -32,12 +33,17 @@ public class GameSession {
     @Column(nullable = false, columnDefinition = "integer default 0")
     private int currentQuestionIndex = 0;
 
+    private Long currentQuestionId; // Última pregunta mostrada en Preguntas Directas
+
     private String currentGame; // Juego activo actual: null, "preguntas-directas", "yo-nunca-nunca", etc.
 
     private String currentRoundId; // ID de la ronda actual de preguntas directas
 
     private String roundStatus; // Estado de la ronda: WAITING_QUESTIONS, IN_PROGRESS, COMPLETED
 
+    @Column(length = 36)
+    private String generation; // ServerGeneration del proceso que tiene el estado en memoria de la sesión
+
     @OneToMany(mappedBy = "gameSession", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Question> questions = new ArrayList<>();
 
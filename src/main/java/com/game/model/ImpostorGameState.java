@@ -1,38 +1,329 @@
 package com.game.model;
 
+import com.game.service.HashedWheelTimer;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.util.*;
-import java.util.concurrent.ScheduledFuture;
+import java.util.function.IntSupplier;
 
-@Getter
-@Setter
+/**
+ * Estado de una partida de El Impostor. Los jugadores se fijan al empezar y el resto del
+ * estado se guarda por índice de jugador: bitsets de vivos, impostores y quién ha votado, y
+ * un recuento de votos recibidos que se actualiza con cada voto. Así pendientes, líder de la
+ * votación y condición de fin se leen de contadores, y votar no reserva memoria.
+ * <p>
+ * Solo se modifica desde el buzón de la sesión (SessionExecutor).
+ */
 public class ImpostorGameState {
 
+    public static final int NONE = -1;
+
+    @Getter @Setter
     private String phase = "description"; // description | voting | result | finished
 
+    @Getter @Setter
     private int impostorCount;
+    @Getter @Setter
     private String word;
 
-    private List<String> impostors = new ArrayList<>();
-    private List<String> alivePlayers = new ArrayList<>();
-    private List<String> eliminatedPlayers = new ArrayList<>();
+    @Getter
+    private final List<String> players;
+    private final Map<String, Integer> indexes;
+
+    private final BitSet alive;
+    private final BitSet impostors;
+    private final BitSet voted;
+    // votante → votado en la votación actual (NONE si no ha votado)
+    private final int[] votedFor;
+    // votos recibidos por cada jugador en la votación actual
+    private final int[] tally;
+    // cooldown personal: momento de su última llamada a votación (0 = nunca)
+    private final long[] lastCallTime;
+    private final List<String> eliminatedPlayers = new ArrayList<>();
+
+    @Getter
+    private int aliveCount;
+    @Getter
+    private int impostorsAlive;
+    @Getter
+    private int votedCount;
+    private int maxVotes;
+    private int leader = NONE;
+    private int leadersAtMax;
 
-    // votingUser → votedUser (raw votes, not exposed in sync)
-    private Map<String, String> votes = new LinkedHashMap<>();
+    // Vistas para los eventos y la sincronización, sin copiar
+    private final Collection<String> aliveView;
+    private final Collection<String> pendingView;
+    private final Collection<String> impostorView;
 
+    @Getter @Setter
     private Long votingDeadline;
+    @Getter @Setter
     private String lastVotingCalledBy;
+    @Getter @Setter
     private Long lastVotingCalledAt;
+    @Getter @Setter
     private Long lastVotingEndedAt;
 
-    // per-player cooldown: username → timestamp of last call-vote
-    private Map<String, Long> playerLastCallTime = new HashMap<>();
-
     // palabras ya usadas en esta sesión (persiste entre rondas del mismo juego)
+    @Getter @Setter
     private Set<String> usedWords = new LinkedHashSet<>();
 
     // no serializar: referencia al timer de votación activo
-    private transient ScheduledFuture<?> votingTimer;
+    @Getter @Setter
+    private transient HashedWheelTimer.Timeout votingTimer;
+
+    /** Partida nueva: todos vivos, sin votos. */
+    public ImpostorGameState(List<String> players, Collection<String> impostorNames) {
+        int size = players.size();
+        this.players = List.copyOf(players);
+        this.indexes = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) indexes.put(this.players.get(i), i);
+        this.alive = new BitSet(size);
+        this.impostors = new BitSet(size);
+        this.voted = new BitSet(size);
+        this.votedFor = new int[size];
+        this.tally = new int[size];
+        this.lastCallTime = new long[size];
+        Arrays.fill(votedFor, NONE);
+        alive.set(0, size);
+        aliveCount = size;
+        for (String name : impostorNames) impostors.set(indexOf(name));
+        impostorsAlive = impostors.cardinality();
+        aliveView = new Names(alive, null, () -> aliveCount);
+        pendingView = new Names(alive, voted, this::getPendingCount);
+        impostorView = new Names(impostors, null, impostors::cardinality);
+    }
+
+    /** Índice del jugador, o {@link #NONE} si no está en la partida. */
+    public int indexOf(String username) {
+        Integer index = indexes.get(username);
+        return index != null ? index : NONE;
+    }
+
+    public boolean isAlive(int player) {
+        return player >= 0 && alive.get(player);
+    }
+
+    public boolean isImpostor(String username) {
+        int player = indexOf(username);
+        return player >= 0 && impostors.get(player);
+    }
+
+    public boolean hasVoted(int player) {
+        return voted.get(player);
+    }
+
+    public int getPendingCount() {
+        return aliveCount - votedCount;
+    }
+
+    public int getVotes(int player) {
+        return tally[player];
+    }
+
+    public long getLastCallTime(int player) {
+        return lastCallTime[player];
+    }
+
+    public void setLastCallTime(int player, long timestamp) {
+        lastCallTime[player] = timestamp;
+    }
+
+    // ─── Votación ────────────────────────────────────────────────────────────
+
+    /** Empieza una votación sin votos. */
+    public void clearVotes() {
+        voted.clear();
+        Arrays.fill(votedFor, NONE);
+        Arrays.fill(tally, 0);
+        votedCount = 0;
+        maxVotes = 0;
+        leader = NONE;
+        leadersAtMax = 0;
+    }
+
+    /** El votante y el votado deben estar vivos y el votante no haber votado. */
+    public void castVote(int voter, int target) {
+        voted.set(voter);
+        votedFor[voter] = target;
+        votedCount++;
+        int votes = ++tally[target];
+        if (votes > maxVotes) {
+            maxVotes = votes;
+            leader = target;
+            leadersAtMax = 1;
+        } else if (votes == maxVotes) {
+            leadersAtMax++;
+        }
+    }
+
+    /** Jugador con más votos, o {@link #NONE} si hay empate o nadie ha recibido votos. */
+    public int getLeader() {
+        return leadersAtMax == 1 ? leader : NONE;
+    }
+
+    // ─── Eliminación ─────────────────────────────────────────────────────────
+
+    /**
+     * Saca al jugador de los vivos. Si ya había votado su voto se anula, y los votos que
+     * recibió dejan de contar para el líder.
+     */
+    public void eliminate(int player) {
+        if (!alive.get(player)) return;
+        alive.clear(player);
+        aliveCount--;
+        if (impostors.get(player)) impostorsAlive--;
+        eliminatedPlayers.add(players.get(player));
+
+        if (voted.get(player)) {
+            voted.clear(player);
+            if (alive.get(votedFor[player])) tally[votedFor[player]]--;
+            votedFor[player] = NONE;
+            votedCount--;
+        }
+        tally[player] = 0;
+        recomputeLeader();
+    }
+
+    // Solo al eliminar, cuando un recuento puede bajar: recorre los vivos
+    private void recomputeLeader() {
+        maxVotes = 0;
+        leader = NONE;
+        leadersAtMax = 0;
+        for (int p = alive.nextSetBit(0); p >= 0; p = alive.nextSetBit(p + 1)) {
+            if (tally[p] == 0) continue;
+            if (tally[p] > maxVotes) {
+                maxVotes = tally[p];
+                leader = p;
+                leadersAtMax = 1;
+            } else if (tally[p] == maxVotes) {
+                leadersAtMax++;
+            }
+        }
+    }
+
+    // ─── Vistas ──────────────────────────────────────────────────────────────
+
+    /** Jugadores vivos en orden de la partida. */
+    public Collection<String> getAlivePlayers() {
+        return aliveView;
+    }
+
+    /** Vivos que aún no han votado en la votación actual. */
+    public Collection<String> getPendingVoters() {
+        return pendingView;
+    }
+
+    public Collection<String> getImpostors() {
+        return impostorView;
+    }
+
+    /** En orden de eliminación. */
+    public List<String> getEliminatedPlayers() {
+        return Collections.unmodifiableList(eliminatedPlayers);
+    }
+
+    // ─── Snapshot ────────────────────────────────────────────────────────────
+
+    public int[] impostorIndexes() {
+        return impostors.stream().toArray();
+    }
+
+    /** Eliminados por índice, en orden de eliminación. */
+    public int[] eliminatedIndexes() {
+        return eliminatedPlayers.stream().mapToInt(this::indexOf).toArray();
+    }
+
+    public int[] votedForIndexes() {
+        return votedFor.clone();
+    }
+
+    public long[] lastCallTimes() {
+        return lastCallTime.clone();
+    }
+
+    /** Reconstruye contadores y recuento a partir de lo guardado con los métodos anteriores. */
+    public static ImpostorGameState restore(List<String> players, int[] impostorIndexes, int[] eliminatedIndexes,
+                                            int[] votedFor, long[] lastCallTime) {
+        List<String> impostorNames = new ArrayList<>(impostorIndexes.length);
+        for (int index : impostorIndexes) impostorNames.add(players.get(index));
+        ImpostorGameState state = new ImpostorGameState(players, impostorNames);
+        System.arraycopy(lastCallTime, 0, state.lastCallTime, 0, lastCallTime.length);
+        for (int player : eliminatedIndexes) state.eliminate(player);
+        for (int voter = 0; voter < votedFor.length; voter++) {
+            int target = votedFor[voter];
+            if (target == NONE || !state.isAlive(voter)) continue;
+            if (state.isAlive(target)) {
+                state.castVote(voter, target);
+            } else {
+                // Votó a alguien eliminado después: sigue contando como votado, sin recuento
+                state.voted.set(voter);
+                state.votedFor[voter] = target;
+                state.votedCount++;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Copia independiente del estado de la partida (sin el timer ni las palabras usadas), para
+     * leerla fuera del buzón. Tiene que hacerse dentro del buzón.
+     */
+    public ImpostorGameState copy() {
+        ImpostorGameState copy = restore(players, impostorIndexes(), eliminatedIndexes(), votedForIndexes(), lastCallTimes());
+        copy.phase = phase;
+        copy.impostorCount = impostorCount;
+        copy.word = word;
+        copy.votingDeadline = votingDeadline;
+        copy.lastVotingCalledBy = lastVotingCalledBy;
+        copy.lastVotingCalledAt = lastVotingCalledAt;
+        copy.lastVotingEndedAt = lastVotingEndedAt;
+        return copy;
+    }
+
+    /** Nombres de los índices de {@code include} que no están en {@code exclude}. */
+    private final class Names extends AbstractCollection<String> {
+        private final BitSet include;
+        private final BitSet exclude;
+        private final IntSupplier size;
+
+        Names(BitSet include, BitSet exclude, IntSupplier size) {
+            this.include = include;
+            this.exclude = exclude;
+            this.size = size;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<>() {
+                private int next = advance(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public String next() {
+                    if (next < 0) throw new NoSuchElementException();
+                    String name = players.get(next);
+                    next = advance(next + 1);
+                    return name;
+                }
+            };
+        }
+
+        private int advance(int from) {
+            int p = include.nextSetBit(from);
+            while (p >= 0 && exclude != null && exclude.get(p)) p = include.nextSetBit(p + 1);
+            return p;
+        }
+
+        @Override
+        public int size() {
+            return size.getAsInt();
+        }
+    }
 }
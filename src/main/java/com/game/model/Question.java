@@ -9,7 +9,8 @@ import lombok.Setter;
 import java.io.Serializable;
 
 @Entity
-@Table(name = "question")
+@Table(name = "question",
+        indexes = @Index(name = "idx_question_session_round", columnList = "game_session_id, round_id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,68 @@
+package com.game.model;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Catálogo inmutable de preguntas de un juego, particionado por tipo
+ * ("tranquilo", "picante"...). Se comparte entre todas las sesiones; cada sesión
+ * solo guarda su propio orden de índices en un {@link SessionDeck}.
+ */
+public class QuestionDeck<T> {
+
+    // tipo en minúsculas → preguntas de ese tipo
+    private final Map<String, List<T>> byTipo;
+    private final int size;
+
+    private QuestionDeck(Map<String, List<T>> byTipo, int size) {
+        this.byTipo = byTipo;
+        this.size = size;
+    }
+
+    public static <T> QuestionDeck<T> of(List<T> questions, Function<T, String> tipoOf) {
+        Map<String, List<T>> grouped = new HashMap<>();
+        for (T q : questions) {
+            grouped.computeIfAbsent(normalize(tipoOf.apply(q)), k -> new ArrayList<>()).add(q);
+        }
+        Map<String, List<T>> byTipo = new HashMap<>();
+        grouped.forEach((tipo, list) -> byTipo.put(tipo, List.copyOf(list)));
+        return new QuestionDeck<>(Map.copyOf(byTipo), questions.size());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Todas las preguntas, agrupadas por tipo y en el orden de cada tipo. */
+    public List<T> questions() {
+        List<T> all = new ArrayList<>(size);
+        byTipo.values().forEach(all::addAll);
+        return all;
+    }
+
+    List<T> get(String tipo) {
+        return byTipo.getOrDefault(normalize(tipo), List.of());
+    }
+
+    /** Crea el recorrido aleatorio de una sesión sobre este catálogo. */
+    public SessionDeck<T> newSessionDeck(Random random) {
+        return new SessionDeck<>(this, random);
+    }
+
+    /**
+     * Retoma un recorrido guardado con {@link SessionDeck#position()}. Si el catálogo ya no
+     * tiene el mismo tamaño, los índices no valen y se empieza un recorrido nuevo.
+     */
+    public SessionDeck<T> resume(SessionDeck.Position position, Random random) {
+        if (position == null || position.deckSize() != size) return newSessionDeck(random);
+        return new SessionDeck<>(this, random, position);
+    }
+
+    static String normalize(String tipo) {
+        return tipo == null ? "" : tipo.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,104 @@
+package com.game.model;
+
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Orden aleatorio precalculado de las preguntas de una ronda de Preguntas Directas.
+ * Al construirse se evita, siempre que es posible, que dos preguntas seguidas vayan
+ * al mismo toUser; después cada {@link #next(String)} solo avanza un cursor.
+ */
+public class RoundQuestionDeck {
+
+    @Getter
+    private final String roundId;
+    @Getter
+    private final int roundSize;
+    private final Question[] order;
+    private int cursor = 0;
+
+    private RoundQuestionDeck(String roundId, int roundSize, Question[] order) {
+        this.roundId = roundId;
+        this.roundSize = roundSize;
+        this.order = order;
+    }
+
+    /**
+     * @param questions    todas las preguntas de la ronda
+     * @param alreadyShown ids ya mostrados (por ejemplo tras un reinicio), quedan fuera del mazo
+     * @param lastToUser   destinatario de la última pregunta mostrada, puede ser null
+     */
+    public static RoundQuestionDeck shuffle(String roundId, List<Question> questions, Set<Long> alreadyShown,
+                                            String lastToUser, Random random) {
+        // toUser → preguntas pendientes, cada lista barajada
+        Map<String, List<Question>> byUser = new HashMap<>();
+        for (Question q : questions) {
+            if (!alreadyShown.contains(q.getId())) {
+                byUser.computeIfAbsent(q.getToUser(), k -> new ArrayList<>()).add(q);
+            }
+        }
+        byUser.values().forEach(list -> Collections.shuffle(list, random));
+
+        int remaining = byUser.values().stream().mapToInt(List::size).sum();
+        Question[] order = new Question[remaining];
+        String previous = lastToUser;
+        for (int i = 0; i < order.length; i++, remaining--) {
+            String toUser = pickUser(byUser, previous, remaining, random);
+            List<Question> list = byUser.get(toUser);
+            order[i] = list.remove(list.size() - 1);
+            if (list.isEmpty()) byUser.remove(toUser);
+            previous = toUser;
+        }
+        return new RoundQuestionDeck(roundId, questions.size(), order);
+    }
+
+    /**
+     * Devuelve la siguiente pregunta, o null si ya se mostraron todas.
+     * Si el cliente informa un lastToUser distinto del previsto, se intercambia con
+     * la siguiente pregunta dirigida a otra persona.
+     */
+    public synchronized Question next(String lastToUser) {
+        if (cursor == order.length) return null;
+        if (lastToUser != null && lastToUser.equals(order[cursor].getToUser())) {
+            for (int j = cursor + 1; j < order.length; j++) {
+                if (!lastToUser.equals(order[j].getToUser())) {
+                    Question tmp = order[cursor];
+                    order[cursor] = order[j];
+                    order[j] = tmp;
+                    break;
+                }
+            }
+        }
+        return order[cursor++];
+    }
+
+    /** Número de preguntas de la ronda ya mostradas (incluye las excluidas al construir). */
+    public synchronized int getShownCount() {
+        return roundSize - (order.length - cursor);
+    }
+
+    // Si un destinatario acapara más de la mitad de lo pendiente hay que elegirlo ya;
+    // si no, cualquier pregunta de otro destinatario sirve (elección proporcional).
+    private static String pickUser(Map<String, List<Question>> byUser, String previous, int remaining, Random random) {
+        String largest = null;
+        int largestSize = 0;
+        for (Map.Entry<String, List<Question>> e : byUser.entrySet()) {
+            if (!Objects.equals(e.getKey(), previous) && e.getValue().size() > largestSize) {
+                largest = e.getKey();
+                largestSize = e.getValue().size();
+            }
+        }
+        if (largest == null) return previous; // solo queda el mismo destinatario
+        if (largestSize * 2 > remaining) return largest;
+
+        int eligible = remaining - (byUser.containsKey(previous) ? byUser.get(previous).size() : 0);
+        int pick = random.nextInt(eligible);
+        for (Map.Entry<String, List<Question>> e : byUser.entrySet()) {
+            if (Objects.equals(e.getKey(), previous)) continue;
+            pick -= e.getValue().size();
+            if (pick < 0) return e.getKey();
+        }
+        return largest;
+    }
+}
@@ -0,0 +1,84 @@
+package com.game.model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Recorrido de una sesión sobre un {@link QuestionDeck} compartido: por cada tipo
+ * guarda una permutación de índices y un cursor, sin copiar las preguntas.
+ */
+public class SessionDeck<T> {
+
+    private final QuestionDeck<T> deck;
+    private final Random random;
+    // tipo en minúsculas → permutación barajada (se crea en la primera petición del tipo)
+    private final Map<String, int[]> orders = new HashMap<>();
+    private final Map<String, Integer> cursors = new HashMap<>();
+    private int served = 0;
+
+    /**
+     * Recorrido serializable de una sesión: permutaciones y cursores por tipo.
+     * Solo es válido sobre un catálogo con el mismo número de preguntas.
+     */
+    public record Position(int deckSize, Map<String, int[]> orders, Map<String, Integer> cursors) {
+    }
+
+    SessionDeck(QuestionDeck<T> deck, Random random) {
+        this.deck = deck;
+        this.random = random;
+    }
+
+    // Retoma un recorrido guardado; los tipos cuyo tamaño cambió se vuelven a barajar
+    SessionDeck(QuestionDeck<T> deck, Random random, Position position) {
+        this(deck, random);
+        position.orders().forEach((tipo, order) -> {
+            if (order.length != deck.get(tipo).size()) return;
+            orders.put(tipo, order.clone());
+            cursors.put(tipo, Math.min(position.cursors().getOrDefault(tipo, 0), order.length));
+        });
+        cursors.values().forEach(cursor -> served += cursor);
+    }
+
+    /** Siguiente pregunta del tipo, o null si ya no quedan de ese tipo. */
+    public synchronized T next(String tipo) {
+        String key = QuestionDeck.normalize(tipo);
+        List<T> questions = deck.get(key);
+        if (questions.isEmpty()) return null;
+
+        int[] order = orders.computeIfAbsent(key, k -> shuffledIndexes(questions.size()));
+        int cursor = cursors.getOrDefault(key, 0);
+        if (cursor == order.length) return null;
+        cursors.put(key, cursor + 1);
+        served++;
+        return questions.get(order[cursor]);
+    }
+
+    /** true si ya se mostraron todas las preguntas de todos los tipos. */
+    public synchronized boolean isExhausted() {
+        return served >= deck.size();
+    }
+
+    public synchronized Position position() {
+        Map<String, int[]> ordersCopy = new HashMap<>();
+        orders.forEach((tipo, order) -> ordersCopy.put(tipo, order.clone()));
+        return new Position(deck.size(), ordersCopy, new HashMap<>(cursors));
+    }
+
+    public QuestionDeck<T> getDeck() {
+        return deck;
+    }
+
+    private int[] shuffledIndexes(int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,102 @@
+package com.game.model;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Vista en memoria (solo lectura) de una sesión: datos de la sesión, usuarios,
+ * preguntas de la ronda actual y preguntas ya mostradas.
+ * Se construye dentro de una transacción y nunca se modifica después.
+ */
+@Getter
+public class SessionSnapshot {
+
+    private final Long id;
+    private final String sessionCode;
+    private final String creatorName;
+    private final boolean gameStarted;
+    private final String currentGame;
+    private final String currentRoundId;
+    private final String roundStatus;
+    private final int currentQuestionIndex;
+    private final Long currentQuestionId;
+
+    // Copias desacopladas de las entidades (sin referencia a GameSession)
+    private final List<User> users;
+    private final List<Question> roundQuestions; // ordenadas por id
+    private final Set<Long> shownQuestions;
+
+    private SessionSnapshot(GameSession session, List<User> users, List<Question> roundQuestions) {
+        this.id = session.getId();
+        this.sessionCode = session.getSessionCode();
+        this.creatorName = session.getCreatorName();
+        this.gameStarted = session.isGameStarted();
+        this.currentGame = session.getCurrentGame();
+        this.currentRoundId = session.getCurrentRoundId();
+        this.roundStatus = session.getRoundStatus();
+        this.currentQuestionIndex = session.getCurrentQuestionIndex();
+        this.currentQuestionId = session.getCurrentQuestionId();
+        this.users = users;
+        this.roundQuestions = roundQuestions;
+        this.shownQuestions = Set.copyOf(session.getShownQuestions());
+    }
+
+    /**
+     * Debe llamarse con la sesión de Hibernate abierta (colección lazy de usuarios).
+     *
+     * @param roundQuestions preguntas de la ronda actual, ordenadas por id
+     */
+    public static SessionSnapshot of(GameSession session, List<Question> roundQuestions) {
+        List<User> users = session.getUsers().stream()
+                .map(SessionSnapshot::copyOf)
+                .toList();
+        List<Question> questions = roundQuestions.stream()
+                .map(SessionSnapshot::copyOf)
+                .toList();
+        return new SessionSnapshot(session, users, questions);
+    }
+
+    /**
+     * Pregunta actual de Preguntas Directas: la última seleccionada o, si no hay,
+     * la que ocupa currentQuestionIndex en el orden por id. Null si no existe.
+     */
+    public Question getCurrentQuestion() {
+        if (currentQuestionId != null) {
+            for (Question q : roundQuestions) {
+                if (currentQuestionId.equals(q.getId())) return q;
+            }
+        }
+        int idx = currentQuestionIndex;
+        return idx >= 0 && idx < roundQuestions.size() ? roundQuestions.get(idx) : null;
+    }
+
+    public long getReadyCount() {
+        return users.stream().filter(User::isReady).count();
+    }
+
+    public boolean isAllUsersReady() {
+        return !users.isEmpty() && getReadyCount() == users.size();
+    }
+
+    private static User copyOf(User u) {
+        User copy = new User();
+        copy.setId(u.getId());
+        copy.setUsername(u.getUsername());
+        copy.setSessionToken(u.getSessionToken());
+        copy.setReady(u.isReady());
+        return copy;
+    }
+
+    private static Question copyOf(Question q) {
+        Question copy = new Question();
+        copy.setId(q.getId());
+        copy.setFromUser(q.getFromUser());
+        copy.setToUser(q.getToUser());
+        copy.setQuestion(q.getQuestion());
+        copy.setAnonymous(q.isAnonymous());
+        copy.setRoundId(q.getRoundId());
+        return copy;
+    }
+}
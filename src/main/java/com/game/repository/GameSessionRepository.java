@@ -1,10 +1,18 @@
 package com.game.repository;
 
+import com.game.dto.SessionRoundView;
 import com.game.model.GameSession;
 import com.game.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +20,102 @@ public interface GameSessionRepository extends JpaRepository<GameSession, Long>
     // Define el método personalizado para encontrar una sesión por su código
     Optional<GameSession> findBySessionCode(String sessionCode);
     Optional<GameSession> findByUsersContaining(User user);
+
+    // Sesión y usuarios en una consulta (SessionSnapshot, alta de jugadores). Las preguntas mostradas van
+    // aparte: unidas en el mismo join, la lista de usuarios tendría una copia por pregunta mostrada
+    @EntityGraph(attributePaths = {"users"})
+    @Query("select s from GameSession s where s.sessionCode = :sessionCode")
+    Optional<GameSession> findSnapshotBySessionCode(@Param("sessionCode") String sessionCode);
+
+    // round-info sin cargar entidades: los conteos se resuelven en SQL
+    @Query("select new com.game.dto.SessionRoundView(s.currentRoundId, s.roundStatus, s.currentGame, "
+            + "(select count(q) from Question q where q.gameSession = s and q.roundId = s.currentRoundId), "
+            + "(select count(sq) from GameSession s2 join s2.shownQuestions sq where s2 = s), "
+            + "(select count(u) from User u where u.gameSession = s and u.ready = true), "
+            + "(select count(u) from User u where u.gameSession = s)) "
+            + "from GameSession s where s.sessionCode = :sessionCode")
+    Optional<SessionRoundView> findRoundView(@Param("sessionCode") String sessionCode);
+
+    // Pasa la ronda a IN_PROGRESS solo si está esperando preguntas y tiene alguna; devuelve filas cambiadas
+    @Modifying
+    @Transactional
+    @Query("update GameSession s set s.roundStatus = 'IN_PROGRESS' "
+            + "where s.sessionCode = :sessionCode and s.roundStatus = 'WAITING_QUESTIONS' "
+            + "and exists (select q.id from Question q where q.gameSession = s and q.roundId = s.currentRoundId)")
+    int markRoundInProgress(@Param("sessionCode") String sessionCode);
+
+    // Restauración del snapshot de juegos: código y juego activo de cada sesión
+    @Query("select s.sessionCode, s.currentGame from GameSession s")
+    List<Object[]> findAllCurrentGames();
+
+    // Códigos en uso, para inicializar el SessionCodeAllocator
+    @Query("select s.sessionCode from GameSession s")
+    List<String> findAllSessionCodes();
+
+    // Avance de Preguntas Directas: una fila nueva en shown_questions, sin reescribir el conjunto
+    @Modifying
+    @Transactional
+    @Query(value = "insert into shown_questions (session_id, question_id) values (:sessionId, :questionId)",
+            nativeQuery = true)
+    void insertShownQuestion(@Param("sessionId") Long sessionId, @Param("questionId") Long questionId);
+
+    // Generación de la sesión ('' si es anterior a la columna); vacío si la sesión no existe
+    @Query("select coalesce(s.generation, '') from GameSession s where s.sessionCode = :sessionCode")
+    Optional<String> findGenerationBySessionCode(@Param("sessionCode") String sessionCode);
+
+    // Adopción: los juegos que viven en memoria no sobreviven al reinicio y se dan por terminados
+    @Modifying
+    @Transactional
+    @Query("update GameSession s set s.currentGame = null, s.currentRoundId = null, s.roundStatus = null "
+            + "where s.sessionCode = :sessionCode and s.currentGame not in :keptGames")
+    int endInMemoryGame(@Param("sessionCode") String sessionCode, @Param("keptGames") List<String> keptGames);
+
+    @Modifying
+    @Transactional
+    @Query("update GameSession s set s.generation = :generation where s.sessionCode in :sessionCodes")
+    int stampGeneration(@Param("sessionCodes") List<String> sessionCodes, @Param("generation") String generation);
+
+    // Purga de arranque: sesiones creadas antes del corte, con sus usuarios y preguntas mostradas.
+    // La colección no se borra con el delete masivo de las sesiones
+    @Modifying
+    @Transactional
+    @Query(value = "delete from shown_questions where session_id in "
+            + "(select id from game_session where created_at < :cutoff)", nativeQuery = true)
+    int deleteShownQuestionsCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Transactional
+    @Query("delete from User u where u.gameSession.id in "
+            + "(select s.id from GameSession s where s.createdAt < :cutoff)")
+    int deleteUsersOfSessionsCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Transactional
+    @Query("delete from GameSession s where s.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Sesiones inactivas (SessionReaper): mismas sentencias masivas, por código
+    @Modifying
+    @Transactional
+    @Query(value = "delete from shown_questions where session_id in "
+            + "(select id from game_session where session_code in (:sessionCodes))", nativeQuery = true)
+    int deleteShownQuestionsOfSessions(@Param("sessionCodes") List<String> sessionCodes);
+
+    @Modifying
+    @Transactional
+    @Query("delete from User u where u.gameSession.id in "
+            + "(select s.id from GameSession s where s.sessionCode in :sessionCodes)")
+    int deleteUsersOfSessions(@Param("sessionCodes") List<String> sessionCodes);
+
+    @Modifying
+    @Transactional
+    @Query("delete from GameSession s where s.sessionCode in :sessionCodes")
+    int deleteBySessionCodes(@Param("sessionCodes") List<String> sessionCodes);
+
+    @Modifying
+    @Transactional
+    @Query("update GameSession s set s.currentQuestionIndex = :index, s.currentQuestionId = :questionId where s.id = :sessionId")
+    void updateCurrentQuestion(@Param("sessionId") Long sessionId,
+                               @Param("index") int index,
+                               @Param("questionId") Long questionId);
 }
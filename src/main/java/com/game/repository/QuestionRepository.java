@@ -2,8 +2,30 @@ package com.game.repository;
 
 import com.game.model.Question;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Long> {
+    // Consultas acotadas a una ronda (índice idx_question_session_round)
+    List<Question> findByGameSessionIdAndRoundIdOrderByIdAsc(Long gameSessionId, String roundId);
+
+    // Purga de arranque: las preguntas se conservan sin sesión, en una sola sentencia
+    @Modifying
+    @Transactional
+    @Query("update Question q set q.gameSession = null where q.gameSession.id in "
+            + "(select s.id from GameSession s where s.createdAt < :cutoff)")
+    int detachFromSessionsCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Transactional
+    @Query("update Question q set q.gameSession = null where q.gameSession.id in "
+            + "(select s.id from GameSession s where s.sessionCode in :sessionCodes)")
+    int detachFromSessions(@Param("sessionCodes") List<String> sessionCodes);
 }
@@ -2,7 +2,11 @@ package com.game.repository;
 
 import com.game.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -13,4 +17,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     // Método para encontrar usuario por token de sesión
     Optional<User> findBySessionToken(String sessionToken);
+
+    // Inicio de ronda: todos los usuarios de la sesión a ready=false en una sola sentencia
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("update User u set u.ready = false where u.gameSession.id = :sessionId")
+    int resetReadyForSession(@Param("sessionId") Long sessionId);
 }
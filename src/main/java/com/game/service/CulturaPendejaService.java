@@ -2,60 +2,152 @@ package com.game.service;
 
 import com.game.model.CulturaPendeja;
 import com.game.model.GameSession;
+import com.game.model.QuestionDeck;
+import com.game.model.SessionDeck;
 import com.game.repository.CulturaPendejaRepository;
 import com.game.repository.GameSessionRepository;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
 
 @Service
-public class CulturaPendejaService {
+public class CulturaPendejaService implements GameStateParticipant<CulturaPendejaService.Snapshot> {
 
     private final GameSessionRepository gameSessionRepository;
-    private final CulturaPendejaRepository repository;
-    private final Map<String, List<CulturaPendeja>> sessionQuestions = new HashMap<>();
-    private final Map<String, CulturaPendeja> lastQuestion = new HashMap<>();
+    private final GameSessionStore sessionStore;
+    private final QuestionDeckCache<CulturaPendeja> deckCache;
+    private final SessionStateMap<SessionState> sessionStates;
+    private final SessionExecutor sessionExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Estado por sesión: recorrido del mazo y última pregunta mostrada. */
+    private static class SessionState {
+        private final SessionDeck<CulturaPendeja> deck;
+        private volatile CulturaPendeja lastQuestion;
+
+        SessionState(SessionDeck<CulturaPendeja> deck) {
+            this.deck = deck;
+        }
+    }
+
+    /** Estado de una sesión tal como se guarda en el snapshot. */
+    public record Snapshot(SessionDeck.Position deck, CulturaPendeja lastQuestion) {
+    }
 
     public CulturaPendejaService(GameSessionRepository gameSessionRepository,
-                                 CulturaPendejaRepository repository) {
+                                 CulturaPendejaRepository repository,
+                                 GameSessionStore sessionStore,
+                                 SessionExecutor sessionExecutor,
+                                 PlatformTransactionManager transactionManager) {
         this.gameSessionRepository = gameSessionRepository;
-        this.repository = repository;
+        this.deckCache = new QuestionDeckCache<>(repository, CulturaPendeja::getTipo);
+        this.sessionStore = sessionStore;
+        this.sessionStates = new SessionStateMap<>(
+                k -> new SessionState(deckCache.get().newSessionDeck(new Random())), sessionExecutor);
+        this.sessionExecutor = sessionExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
     public void start(String sessionCode) {
-        GameSession session = getSession(sessionCode);
-        List<CulturaPendeja> questions = repository.findAll();
-        if (questions.isEmpty()) {
-            throw new IllegalStateException("No hay preguntas disponibles para Cultura Pendeja.");
-        }
-        Collections.shuffle(questions);
-        sessionQuestions.put(sessionCode, new ArrayList<>(questions));
-        session.setCurrentGame("cultura-pendeja");
-        gameSessionRepository.save(session);
+        sessionExecutor.run(sessionCode, () -> transactionTemplate.executeWithoutResult(status -> {
+            GameSession session = getSession(sessionCode);
+            QuestionDeck<CulturaPendeja> deck = deckCache.refreshIfChanged();
+            if (deck.isEmpty()) {
+                throw new IllegalStateException("No hay preguntas disponibles para Cultura Pendeja.");
+            }
+            sessionStates.put(sessionCode, new SessionState(deck.newSessionDeck(new Random())));
+            session.setCurrentGame("cultura-pendeja");
+            gameSessionRepository.save(session);
+            sessionStore.invalidate(sessionCode);
+        }));
     }
 
     public CulturaPendeja getNext(String sessionCode, String tipo) {
-        sessionQuestions.putIfAbsent(sessionCode, new ArrayList<>(repository.findAll()));
-        List<CulturaPendeja> questions = sessionQuestions.get(sessionCode);
-
-        CulturaPendeja next = questions.stream()
-                .filter(q -> q.getTipo().equalsIgnoreCase(tipo))
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("No hay más preguntas disponibles."));
-        questions.remove(next);
-        lastQuestion.put(sessionCode, next);
-        return next;
+        return sessionStates.update(sessionCode, state -> {
+            CulturaPendeja next = state.deck.next(tipo);
+            if (next == null) throw new IllegalStateException("No hay más preguntas disponibles.");
+            state.lastQuestion = next;
+            return next;
+        });
     }
 
     public CulturaPendeja getLastQuestion(String sessionCode) {
-        return lastQuestion.get(sessionCode);
+        SessionState state = sessionStates.get(sessionCode);
+        return state != null ? state.lastQuestion : null;
     }
 
+    @Override
     public void cleanup(String sessionCode) {
-        sessionQuestions.remove(sessionCode);
-        lastQuestion.remove(sessionCode);
+        sessionStates.remove(sessionCode);
+    }
+
+    // ─── Snapshot ────────────────────────────────────────────────────────────
+
+    @Override
+    public String snapshotKey() {
+        return "cultura-pendeja";
+    }
+
+    @Override
+    public Map<String, Snapshot> exportStates() {
+        return sessionStates.exportAll(CulturaPendejaService::toSnapshot);
+    }
+
+    @Override
+    public Snapshot exportState(String sessionCode) {
+        return sessionStates.export(sessionCode, CulturaPendejaService::toSnapshot);
+    }
+
+    private static Snapshot toSnapshot(SessionState state) {
+        return new Snapshot(state.deck.position(), state.lastQuestion);
+    }
+
+    @Override
+    public void restoreStates(Map<String, Snapshot> states) {
+        if (states.isEmpty()) return;
+        QuestionDeck<CulturaPendeja> deck = deckCache.get(); // ya cargado por readShared
+        states.forEach((sessionCode, saved) -> {
+            SessionState state = new SessionState(deck.resume(saved.deck(), new Random()));
+            state.lastQuestion = saved.lastQuestion();
+            sessionStates.put(sessionCode, state);
+        });
+    }
+
+    @Override
+    public void writeState(Snapshot state, SnapshotWriter out) {
+        QuestionDeckCache.writePosition(out, state.deck());
+        out.writeBoolean(state.lastQuestion() != null);
+        if (state.lastQuestion() != null) writeQuestion(out, state.lastQuestion());
+    }
+
+    @Override
+    public Snapshot readState(SnapshotReader in) {
+        SessionDeck.Position deck = QuestionDeckCache.readPosition(in);
+        return new Snapshot(deck, in.readBoolean() ? readQuestion(in) : null);
+    }
+
+    @Override
+    public void writeShared(SnapshotWriter out) {
+        deckCache.writeCatalog(out, CulturaPendejaService::writeQuestion);
+    }
+
+    @Override
+    public void readShared(SnapshotReader in) {
+        deckCache.readCatalog(in, CulturaPendejaService::readQuestion);
+    }
+
+    private static void writeQuestion(SnapshotWriter out, CulturaPendeja question) {
+        out.writeNullableLong(question.getId()).writeString(question.getTexto()).writeString(question.getTipo());
+    }
+
+    private static CulturaPendeja readQuestion(SnapshotReader in) {
+        CulturaPendeja question = new CulturaPendeja();
+        question.setId(in.readNullableLong());
+        question.setTexto(in.readString());
+        question.setTipo(in.readString());
+        return question;
     }
 
     private GameSession getSession(String sessionCode) {
@@ -1,54 +1,72 @@
 package com.game.service;
 
+import com.game.dto.GameEvents;
 import com.game.model.ImpostorGameState;
 import com.game.model.ImpostorWord;
 import com.game.repository.GameSessionRepository;
 import com.game.repository.ImpostorWordRepository;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.Instant;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
 import java.util.stream.Collectors;
 
 @Service
-public class ElImpostorService {
+public class ElImpostorService implements GameStateParticipant<ElImpostorService.Snapshot> {
 
     private static final int VOTING_DURATION_SECONDS = 60;
     private static final int PERSONAL_COOLDOWN_SECONDS = 120;
     private static final int GLOBAL_COOLDOWN_SECONDS = 60;
+    private static final String TIMER_GROUP = "impostor";
 
     private final GameSessionRepository gameSessionRepository;
     private final ImpostorWordRepository wordRepository;
-    private final SimpMessagingTemplate messagingTemplate;
-    private final TaskScheduler taskScheduler;
+    private final TopicPublisher topicPublisher;
+    private final GameTimerService gameTimers;
     private final WebSocketSessionRegistry sessionRegistry;
+    private final GameSessionStore sessionStore;
+    private final SessionExecutor sessionExecutor;
+    private final TransactionTemplate transactionTemplate;
 
     // sessionCode → estado activo del juego
     private final ConcurrentHashMap<String, ImpostorGameState> sessionStates = new ConcurrentHashMap<>();
-    // sessionCode → palabras usadas (persiste entre rondas y cuando el juego termina)
+    // sessionCode → palabras usadas (persiste entre rondas y cuando el juego termina); como el
+    // estado, solo se lee y modifica en el buzón de la sesión
     private final ConcurrentHashMap<String, Set<String>> sessionUsedWords = new ConcurrentHashMap<>();
 
+    /** Estado de una sesión tal como se guarda en el snapshot; game es null entre partidas. */
+    public record Snapshot(ImpostorGameState game, Set<String> usedWords) {
+    }
+
     public ElImpostorService(GameSessionRepository gameSessionRepository,
                               ImpostorWordRepository wordRepository,
-                              SimpMessagingTemplate messagingTemplate,
-                              TaskScheduler taskScheduler,
-                              WebSocketSessionRegistry sessionRegistry) {
+                              TopicPublisher topicPublisher,
+                              GameTimerService gameTimers,
+                              WebSocketSessionRegistry sessionRegistry,
+                              GameSessionStore sessionStore,
+                              SessionExecutor sessionExecutor,
+                              PlatformTransactionManager transactionManager) {
         this.gameSessionRepository = gameSessionRepository;
         this.wordRepository = wordRepository;
-        this.messagingTemplate = messagingTemplate;
-        this.taskScheduler = taskScheduler;
+        this.topicPublisher = topicPublisher;
+        this.gameTimers = gameTimers;
         this.sessionRegistry = sessionRegistry;
+        this.sessionStore = sessionStore;
+        this.sessionExecutor = sessionExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     // ─── Inicio ──────────────────────────────────────────────────────────────
 
-    @Transactional
     public void start(String sessionCode, int impostorCount) {
+        sessionExecutor.run(sessionCode, () -> transactionTemplate.executeWithoutResult(
+                status -> startInMailbox(sessionCode, impostorCount)));
+    }
+
+    private void startInMailbox(String sessionCode, int impostorCount) {
         var session = gameSessionRepository.findBySessionCode(sessionCode)
                 .orElseThrow(() -> new IllegalArgumentException("Sesión no encontrada"));
 
@@ -62,8 +80,7 @@ public class ElImpostorService {
             throw new IllegalArgumentException("Debe haber al menos 1 civil");
 
         // Seleccionar palabra no usada
-        sessionUsedWords.putIfAbsent(sessionCode, new LinkedHashSet<>());
-        Set<String> usedWords = sessionUsedWords.get(sessionCode);
+        Set<String> usedWords = sessionUsedWords.computeIfAbsent(sessionCode, k -> new LinkedHashSet<>());
         List<ImpostorWord> allWords = wordRepository.findAll();
         List<ImpostorWord> available = allWords.stream()
                 .filter(w -> !usedWords.contains(w.getWord()))
@@ -79,14 +96,12 @@ public class ElImpostorService {
         // Asignar roles
         List<String> shuffled = new ArrayList<>(players);
         Collections.shuffle(shuffled);
-        List<String> impostors = new ArrayList<>(shuffled.subList(0, impostorCount));
+        List<String> impostors = shuffled.subList(0, impostorCount);
 
         // Inicializar estado
-        ImpostorGameState state = new ImpostorGameState();
+        ImpostorGameState state = new ImpostorGameState(players, impostors);
         state.setImpostorCount(impostorCount);
         state.setWord(chosen.getWord());
-        state.setImpostors(impostors);
-        state.setAlivePlayers(new ArrayList<>(players));
         state.setUsedWords(usedWords);
         state.setPhase("description");
         sessionStates.put(sessionCode, state);
@@ -94,19 +109,18 @@ public class ElImpostorService {
         // Persistir currentGame
         session.setCurrentGame("el-impostor");
         gameSessionRepository.save(session);
+        sessionStore.invalidate(sessionCode);
 
-        // Broadcast cuenta regresiva async (no bloquea el endpoint)
+        // Broadcast cuenta regresiva async (no bloquea el endpoint); una partida anterior
+        // pudo dejar su cuenta atrás o su votación pendiente
+        gameTimers.cancel(sessionCode, TIMER_GROUP);
         for (int i = 3; i >= 1; i--) {
             final int count = i;
-            taskScheduler.schedule(
-                    () -> messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                            Map.of("event", "impostorCountdown", "count", count)),
-                    Instant.now().plusSeconds(3 - count));
+            gameTimers.schedule(sessionCode, TIMER_GROUP, Duration.ofSeconds(3 - count),
+                    () -> topicPublisher.publish(sessionCode, GameEvents.impostorCountdown(count)));
         }
-        taskScheduler.schedule(
-                () -> messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                        Map.of("event", "impostorGameStarted")),
-                Instant.now().plusSeconds(3));
+        gameTimers.schedule(sessionCode, TIMER_GROUP, Duration.ofSeconds(3),
+                () -> topicPublisher.publish(sessionCode, GameEvents.IMPOSTOR_GAME_STARTED));
     }
 
     // ─── Rol privado ─────────────────────────────────────────────────────────
@@ -116,7 +130,7 @@ public class ElImpostorService {
         if (state == null) throw new IllegalArgumentException("No hay juego activo");
 
         Map<String, Object> result = new HashMap<>();
-        if (state.getImpostors().contains(username)) {
+        if (state.isImpostor(username)) {
             result.put("role", "impostor");
             result.put("word", null);
         } else {
@@ -129,10 +143,11 @@ public class ElImpostorService {
     // ─── Llamar a votación ────────────────────────────────────────────────────
 
     public void callVote(String sessionCode, String username) {
-        ImpostorGameState state = getActiveState(sessionCode);
+        sessionExecutor.run(sessionCode, () -> {
+            ImpostorGameState state = getActiveState(sessionCode);
 
-        synchronized (state) {
-            if (!state.getAlivePlayers().contains(username))
+            int caller = state.indexOf(username);
+            if (!state.isAlive(caller))
                 throw new IllegalArgumentException("El jugador no está entre los vivos");
 
             if (!"description".equals(state.getPhase()))
@@ -141,8 +156,8 @@ public class ElImpostorService {
             long now = System.currentTimeMillis();
 
             // Cooldown personal (150 s)
-            Long lastCall = state.getPlayerLastCallTime().get(username);
-            if (lastCall != null) {
+            long lastCall = state.getLastCallTime(caller);
+            if (lastCall != 0) {
                 long elapsed = now - lastCall;
                 if (elapsed < PERSONAL_COOLDOWN_SECONDS * 1000L) {
                     long remaining = (PERSONAL_COOLDOWN_SECONDS * 1000L - elapsed) / 1000;
@@ -165,61 +180,51 @@ public class ElImpostorService {
             state.setPhase("voting");
             state.setLastVotingCalledBy(username);
             state.setLastVotingCalledAt(now);
-            state.getPlayerLastCallTime().put(username, now);
-            state.getVotes().clear();
+            state.setLastCallTime(caller, now);
+            state.clearVotes();
 
             long deadline = now + VOTING_DURATION_SECONDS * 1000L;
             state.setVotingDeadline(deadline);
 
-            ScheduledFuture<?> timer = taskScheduler.schedule(
-                    () -> handleVotingTimerExpired(sessionCode),
-                    Instant.now().plusSeconds(VOTING_DURATION_SECONDS));
-            state.setVotingTimer(timer);
+            state.setVotingTimer(gameTimers.schedule(sessionCode, TIMER_GROUP,
+                    Duration.ofSeconds(VOTING_DURATION_SECONDS),
+                    () -> handleVotingTimerExpired(sessionCode)));
 
-            messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                    Map.of("event", "votingStarted",
-                            "calledBy", username,
-                            "votingDeadline", deadline,
-                            "alivePlayers", new ArrayList<>(state.getAlivePlayers())));
-        }
+            topicPublisher.publish(sessionCode,
+                    GameEvents.votingStarted(username, deadline, state.getAlivePlayers()));
+        });
     }
 
     // ─── Votar ───────────────────────────────────────────────────────────────
 
     public void vote(String sessionCode, String votingUser, String votedUser) {
-        ImpostorGameState state = getActiveState(sessionCode);
+        sessionExecutor.run(sessionCode, () -> {
+            ImpostorGameState state = getActiveState(sessionCode);
 
-        synchronized (state) {
             if (!"voting".equals(state.getPhase()))
                 throw new IllegalStateException("No hay votación activa");
 
-            if (!state.getAlivePlayers().contains(votingUser))
+            int voter = state.indexOf(votingUser);
+            if (!state.isAlive(voter))
                 throw new IllegalArgumentException("El jugador votante no está entre los vivos");
 
-            if (!state.getAlivePlayers().contains(votedUser))
+            int target = state.indexOf(votedUser);
+            if (!state.isAlive(target))
                 throw new IllegalArgumentException("El jugador votado no está entre los vivos");
 
-            if (state.getVotes().containsKey(votingUser))
+            if (state.hasVoted(voter))
                 throw new IllegalStateException("El jugador ya ha votado");
 
-            state.getVotes().put(votingUser, votedUser);
-
-            // Calcular quiénes faltan
-            List<String> pending = state.getAlivePlayers().stream()
-                    .filter(p -> !state.getVotes().containsKey(p))
-                    .collect(Collectors.toList());
+            state.castVote(voter, target);
 
-            messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                    Map.of("event", "voteUpdate",
-                            "votedCount", state.getVotes().size(),
-                            "totalVoters", state.getAlivePlayers().size(),
-                            "pendingVoters", pending));
+            topicPublisher.publish(sessionCode, GameEvents.voteUpdate(
+                    state.getVotedCount(), state.getAliveCount(), state.getPendingVoters()));
 
             // Si todos votaron → procesar resultado
-            if (pending.isEmpty()) {
+            if (state.getPendingCount() == 0) {
                 processVotingResult(state, sessionCode);
             }
-        }
+        });
     }
 
     // ─── Sincronización ──────────────────────────────────────────────────────
@@ -229,9 +234,7 @@ public class ElImpostorService {
         if (state == null) return null;
 
         List<String> pendingVoters = "voting".equals(state.getPhase())
-                ? state.getAlivePlayers().stream()
-                        .filter(p -> !state.getVotes().containsKey(p))
-                        .collect(Collectors.toList())
+                ? new ArrayList<>(state.getPendingVoters())
                 : Collections.emptyList();
 
         Map<String, Object> result = new HashMap<>();
@@ -252,139 +255,207 @@ public class ElImpostorService {
     // ─── Desconexión de jugador ───────────────────────────────────────────────
 
     public void handlePlayerDisconnect(String sessionCode, String username) {
-        ImpostorGameState state = sessionStates.get(sessionCode);
-        if (state == null || "finished".equals(state.getPhase())) return;
-
-        synchronized (state) {
-            if (!state.getAlivePlayers().contains(username)) return;
-
-            state.getAlivePlayers().remove(username);
-            state.getEliminatedPlayers().add(username);
-
-            messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                    Map.of("event", "impostorPlayerEliminated",
-                            "eliminatedPlayer", username,
-                            "reason", "disconnect",
-                            "alivePlayers", new ArrayList<>(state.getAlivePlayers())));
-
-            // Si estaba en votación, actualizar pending voters
-            if ("voting".equals(state.getPhase())) {
-                state.getVotes().remove(username); // invalidar su voto si lo tenía
-                List<String> pending = state.getAlivePlayers().stream()
-                        .filter(p -> !state.getVotes().containsKey(p))
-                        .collect(Collectors.toList());
-                if (pending.isEmpty()) {
-                    processVotingResult(state, sessionCode);
-                    return;
-                }
+        sessionExecutor.run(sessionCode, () -> {
+            ImpostorGameState state = sessionStates.get(sessionCode);
+            if (state == null || "finished".equals(state.getPhase())) return;
+            int player = state.indexOf(username);
+            if (!state.isAlive(player)) return;
+
+            // Si estaba en votación, su voto queda anulado
+            state.eliminate(player);
+
+            topicPublisher.publish(sessionCode,
+                    GameEvents.impostorPlayerEliminated(username, "disconnect", state.getAlivePlayers()));
+
+            if ("voting".equals(state.getPhase()) && state.getPendingCount() == 0) {
+                processVotingResult(state, sessionCode);
+                return;
             }
 
             checkEndCondition(state, sessionCode);
-        }
+        });
     }
 
     // ─── Limpieza ─────────────────────────────────────────────────────────────
 
+    @Override
     public void cleanup(String sessionCode) {
-        ImpostorGameState state = sessionStates.remove(sessionCode);
-        if (state != null && state.getVotingTimer() != null) {
-            state.getVotingTimer().cancel(false);
-        }
+        sessionExecutor.run(sessionCode, () -> {
+            sessionStates.remove(sessionCode);
+            gameTimers.cancel(sessionCode, TIMER_GROUP);
+        });
         // sessionUsedWords se mantiene intencionalmente para no repetir palabras
     }
 
+    /** La sesión ya no existe: también se olvidan sus palabras usadas. */
+    @Override
+    public void evict(String sessionCode) {
+        sessionExecutor.run(sessionCode, () -> {
+            cleanup(sessionCode);
+            sessionUsedWords.remove(sessionCode);
+        });
+    }
+
     public boolean hasActiveGame(String sessionCode) {
         ImpostorGameState state = sessionStates.get(sessionCode);
         return state != null && !"finished".equals(state.getPhase());
     }
 
+    /** Partidas de El Impostor sin terminar en este nodo. */
+    public int activeGames() {
+        int count = 0;
+        for (ImpostorGameState state : sessionStates.values()) {
+            if (!"finished".equals(state.getPhase())) count++;
+        }
+        return count;
+    }
+
+    // ─── Snapshot ────────────────────────────────────────────────────────────
+
+    @Override
+    public String snapshotKey() {
+        return "el-impostor";
+    }
+
+    @Override
+    public Map<String, Snapshot> exportStates() {
+        Set<String> sessionCodes = new HashSet<>(sessionStates.keySet());
+        sessionCodes.addAll(sessionUsedWords.keySet());
+        Map<String, Snapshot> exported = new HashMap<>();
+        for (String sessionCode : sessionCodes) {
+            Snapshot snapshot = exportState(sessionCode);
+            if (snapshot != null) exported.put(sessionCode, snapshot);
+        }
+        return exported;
+    }
+
+    @Override
+    public Snapshot exportState(String sessionCode) {
+        return sessionExecutor.call(sessionCode, () -> {
+            ImpostorGameState state = sessionStates.get(sessionCode);
+            Set<String> usedWords = sessionUsedWords.get(sessionCode);
+            if (state == null && usedWords == null) return null;
+            // Copia: writeState la codifica fuera del buzón mientras la partida sigue
+            return new Snapshot(state != null ? state.copy() : null,
+                    new LinkedHashSet<>(usedWords != null ? usedWords : Set.of()));
+        });
+    }
+
+    @Override
+    public void restoreStates(Map<String, Snapshot> states) {
+        states.forEach((sessionCode, saved) -> sessionExecutor.run(sessionCode, () -> {
+            sessionUsedWords.put(sessionCode, saved.usedWords());
+            ImpostorGameState state = saved.game();
+            if (state == null) return;
+            // La partida y el historial comparten el conjunto de palabras, como al iniciarla
+            state.setUsedWords(saved.usedWords());
+            sessionStates.put(sessionCode, state);
+            if ("voting".equals(state.getPhase()) && state.getVotingDeadline() != null) {
+                long remaining = Math.max(0, state.getVotingDeadline() - System.currentTimeMillis());
+                state.setVotingTimer(gameTimers.schedule(sessionCode, TIMER_GROUP, Duration.ofMillis(remaining),
+                        () -> handleVotingTimerExpired(sessionCode)));
+            }
+        }));
+    }
+
+    @Override
+    public void writeState(Snapshot snapshot, SnapshotWriter out) {
+        out.writeStrings(snapshot.usedWords());
+        ImpostorGameState state = snapshot.game();
+        out.writeBoolean(state != null);
+        if (state == null) return;
+        out.writeString(state.getPhase())
+                .writeInt(state.getImpostorCount())
+                .writeString(state.getWord())
+                .writeStrings(state.getPlayers())
+                .writeInts(state.impostorIndexes())
+                .writeInts(state.eliminatedIndexes())
+                .writeInts(state.votedForIndexes());
+        for (long lastCall : state.lastCallTimes()) out.writeLong(lastCall);
+        out.writeNullableLong(state.getVotingDeadline())
+                .writeString(state.getLastVotingCalledBy())
+                .writeNullableLong(state.getLastVotingCalledAt())
+                .writeNullableLong(state.getLastVotingEndedAt());
+    }
+
+    @Override
+    public Snapshot readState(SnapshotReader in) {
+        Set<String> usedWords = in.readStrings(LinkedHashSet::new);
+        if (!in.readBoolean()) return new Snapshot(null, usedWords);
+        String phase = in.readString();
+        int impostorCount = in.readInt();
+        String word = in.readString();
+        List<String> players = in.readStrings(ArrayList::new);
+        int[] impostors = in.readInts();
+        int[] eliminated = in.readInts();
+        int[] votedFor = in.readInts();
+        long[] lastCallTime = new long[players.size()];
+        for (int i = 0; i < lastCallTime.length; i++) lastCallTime[i] = in.readLong();
+
+        ImpostorGameState state = ImpostorGameState.restore(players, impostors, eliminated, votedFor, lastCallTime);
+        state.setPhase(phase);
+        state.setImpostorCount(impostorCount);
+        state.setWord(word);
+        state.setVotingDeadline(in.readNullableLong());
+        state.setLastVotingCalledBy(in.readString());
+        state.setLastVotingCalledAt(in.readNullableLong());
+        state.setLastVotingEndedAt(in.readNullableLong());
+        return new Snapshot(state, usedWords);
+    }
+
     // ─── Lógica interna ──────────────────────────────────────────────────────
 
+    /** Lo dispara {@link GameTimerService} ya dentro del buzón de la sesión. */
     private void handleVotingTimerExpired(String sessionCode) {
         ImpostorGameState state = sessionStates.get(sessionCode);
         if (state == null || !"voting".equals(state.getPhase())) return;
 
-        synchronized (state) {
-            if (!"voting".equals(state.getPhase())) return;
-
-            List<String> pending = state.getAlivePlayers().stream()
-                    .filter(p -> !state.getVotes().containsKey(p))
-                    .collect(Collectors.toList());
+        topicPublisher.publish(sessionCode, GameEvents.votingTimerExpired(state.getPendingVoters()));
 
-            messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                    Map.of("event", "votingTimerExpired", "pendingVoters", pending));
-
-            processVotingResult(state, sessionCode);
-        }
+        processVotingResult(state, sessionCode);
     }
 
-    /** Debe llamarse con el lock de state ya adquirido. */
+    /** Debe llamarse desde el buzón de la sesión (SessionExecutor). */
     private void processVotingResult(ImpostorGameState state, String sessionCode) {
         // Cancelar timer si aún no expiró
         if (state.getVotingTimer() != null) {
-            state.getVotingTimer().cancel(false);
+            state.getVotingTimer().cancel();
             state.setVotingTimer(null);
         }
 
         state.setPhase("result");
         state.setVotingDeadline(null);
 
-        // Contar votos recibidos por cada jugador
-        Map<String, Long> votesByReceived = state.getVotes().values().stream()
-                .collect(Collectors.groupingBy(v -> v, Collectors.counting()));
-
-        // Mapa completo con 0 para jugadores sin votos (para broadcast)
-        Map<String, Object> voteDisplay = new HashMap<>();
-        state.getAlivePlayers().forEach(p -> voteDisplay.put(p, votesByReceived.getOrDefault(p, 0L)));
-
-        // Determinar eliminado
-        boolean tie;
-        String eliminated;
-
-        if (votesByReceived.isEmpty()) {
-            tie = true;
-            eliminated = null;
-        } else {
-            long maxVotes = Collections.max(votesByReceived.values());
-            List<String> topVoted = votesByReceived.entrySet().stream()
-                    .filter(e -> e.getValue() == maxVotes)
-                    .map(Map.Entry::getKey)
-                    .collect(Collectors.toList());
-            tie = topVoted.size() > 1;
-            eliminated = tie ? null : topVoted.get(0);
+        // Votos recibidos por cada jugador vivo, con 0 para los que no tienen (para broadcast)
+        Map<String, Long> voteDisplay = new HashMap<>();
+        List<String> players = state.getPlayers();
+        for (int p = 0; p < players.size(); p++) {
+            if (state.isAlive(p)) voteDisplay.put(players.get(p), (long) state.getVotes(p));
         }
 
-        if (eliminated != null) {
-            state.getAlivePlayers().remove(eliminated);
-            state.getEliminatedPlayers().add(eliminated);
-        }
+        // Sin votos o con empate en cabeza no se elimina a nadie
+        int leader = state.getLeader();
+        boolean tie = leader == ImpostorGameState.NONE;
+        String eliminated = tie ? null : players.get(leader);
+        if (!tie) state.eliminate(leader);
 
-        state.getVotes().clear();
+        state.clearVotes();
 
-        Map<String, Object> resultMsg = new HashMap<>();
-        resultMsg.put("event", "votingResult");
-        resultMsg.put("eliminatedPlayer", eliminated);
-        resultMsg.put("votes", voteDisplay);
-        resultMsg.put("tie", tie);
-        resultMsg.put("alivePlayers", new ArrayList<>(state.getAlivePlayers()));
-        resultMsg.put("eliminatedPlayers", new ArrayList<>(state.getEliminatedPlayers()));
-        messagingTemplate.convertAndSend("/topic/" + sessionCode, resultMsg);
+        topicPublisher.publish(sessionCode, GameEvents.votingResult(
+                eliminated, voteDisplay, tie, state.getAlivePlayers(), state.getEliminatedPlayers()));
 
         checkEndCondition(state, sessionCode);
     }
 
-    /** Debe llamarse con el lock de state ya adquirido. */
+    /** Debe llamarse desde el buzón de la sesión (SessionExecutor). */
     private void checkEndCondition(ImpostorGameState state, String sessionCode) {
-        List<String> alive = state.getAlivePlayers();
-        List<String> impostors = state.getImpostors();
-
-        long impostorsAlive = alive.stream().filter(impostors::contains).count();
-        long civiliansAlive = alive.size() - impostorsAlive;
+        int impostorsAlive = state.getImpostorsAlive();
+        int civiliansAlive = state.getAliveCount() - impostorsAlive;
 
         boolean allImpostorsEliminated = impostorsAlive == 0;
         boolean impostorsMatchOrOutnumberCivilians = impostorsAlive >= civiliansAlive;
 
-        if (alive.isEmpty() || allImpostorsEliminated) {
+        if (state.getAliveCount() == 0 || allImpostorsEliminated) {
             endGame(state, sessionCode, "civilians");
         } else if (impostorsMatchOrOutnumberCivilians) {
             endGame(state, sessionCode, "impostors");
@@ -392,9 +463,7 @@ public class ElImpostorService {
             // El cooldown global empieza aquí, cuando la ronda continúa
             state.setLastVotingEndedAt(System.currentTimeMillis());
             state.setPhase("description");
-            messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                    Map.of("event", "impostorRoundContinues",
-                            "alivePlayers", new ArrayList<>(alive)));
+            topicPublisher.publish(sessionCode, GameEvents.impostorRoundContinues(state.getAlivePlayers()));
         }
     }
 
@@ -405,21 +474,19 @@ public class ElImpostorService {
         sessionUsedWords.put(sessionCode, new HashSet<>(state.getUsedWords()));
         sessionStates.remove(sessionCode);
 
-        // Limpiar currentGame en DB
-        gameSessionRepository.findBySessionCode(sessionCode).ifPresent(session -> {
-            session.setCurrentGame(null);
-            gameSessionRepository.save(session);
-        });
+        // Limpiar currentGame en DB (ya en el buzón: la transacción se abre aquí)
+        transactionTemplate.executeWithoutResult(status ->
+                gameSessionRepository.findBySessionCode(sessionCode).ifPresent(session -> {
+                    session.setCurrentGame(null);
+                    gameSessionRepository.save(session);
+                }));
+        sessionStore.invalidate(sessionCode);
 
         String message = "civilians".equals(winner)
                 ? "Todos los impostores fueron eliminados"
                 : "Los impostores igualaron en número — ¡ganaron!";
 
-        messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                Map.of("event", "impostorGameOver",
-                        "winner", winner,
-                        "impostors", new ArrayList<>(state.getImpostors()),
-                        "message", message));
+        topicPublisher.publish(sessionCode, GameEvents.impostorGameOver(winner, state.getImpostors(), message));
     }
 
     private ImpostorGameState getActiveState(String sessionCode) {
@@ -0,0 +1,145 @@
+package com.game.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Métricas en memoria del servidor: gauges que se leen al consultar, contadores y timers
+ * con una etiqueta (tipo de evento, endpoint, método de servicio). Se exponen en /api/metrics.
+ * <p>
+ * También guarda el endpoint REST que se está atendiendo en el hilo actual, para atribuirle
+ * las consultas a BD; {@link #propagateEndpoint} lo lleva a los buzones de {@link SessionExecutor}.
+ */
+@Component
+public class GameMetrics {
+
+    public static final String EVENTS_PUBLISHED = "game.events.published";
+    public static final String SERVICE_CALLS = "game.service.calls";
+    public static final String DB_QUERIES = "db.queries";
+    public static final String HTTP_REQUESTS = "http.requests";
+    public static final String SESSIONS_REAPED = "game.sessions.reaped";
+    public static final String REAPED_BYTES = "game.sessions.reaped-bytes";
+
+    // Consultas hechas fuera de una petición REST (timers, eventos WebSocket, arranque)
+    static final String NO_ENDPOINT = "background";
+
+    private static final ThreadLocal<String> ENDPOINT = new ThreadLocal<>();
+
+    private final ConcurrentHashMap<String, Supplier<? extends Number>> gauges = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, LongAdder>> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Timer>> timers = new ConcurrentHashMap<>();
+
+    public void gauge(String name, Supplier<? extends Number> value) {
+        gauges.put(name, value);
+    }
+
+    public void increment(String name, String tag) {
+        add(name, tag, 1);
+    }
+
+    public void add(String name, String tag, long amount) {
+        counters.computeIfAbsent(name, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(tag, k -> new LongAdder())
+                .add(amount);
+    }
+
+    public void record(String name, String tag, long nanos) {
+        timers.computeIfAbsent(name, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(tag, k -> new Timer())
+                .record(nanos);
+    }
+
+    public long count(String name, String tag) {
+        Map<String, LongAdder> byTag = counters.get(name);
+        LongAdder adder = byTag != null ? byTag.get(tag) : null;
+        return adder != null ? adder.sum() : 0;
+    }
+
+    // ─── Endpoint del hilo actual ────────────────────────────────────────────
+
+    public static void enterEndpoint(String endpoint) {
+        ENDPOINT.set(endpoint);
+    }
+
+    public static void exitEndpoint() {
+        ENDPOINT.remove();
+    }
+
+    public static String currentEndpoint() {
+        String endpoint = ENDPOINT.get();
+        return endpoint != null ? endpoint : NO_ENDPOINT;
+    }
+
+    /** Decorador de tareas: la tarea corre con el endpoint de quien la encoló. */
+    public Runnable propagateEndpoint(Runnable task) {
+        String endpoint = ENDPOINT.get();
+        if (endpoint == null) return task;
+        return () -> {
+            String previous = ENDPOINT.get();
+            ENDPOINT.set(endpoint);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) ENDPOINT.set(previous);
+                else ENDPOINT.remove();
+            }
+        };
+    }
+
+    // ─── Lectura ─────────────────────────────────────────────────────────────
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> gaugeValues = new TreeMap<>();
+        gauges.forEach((name, value) -> gaugeValues.put(name, value.get()));
+
+        Map<String, Object> counterValues = new TreeMap<>();
+        counters.forEach((name, byTag) -> {
+            Map<String, Long> values = new TreeMap<>();
+            byTag.forEach((tag, adder) -> values.put(tag, adder.sum()));
+            counterValues.put(name, values);
+        });
+
+        Map<String, Object> timerValues = new TreeMap<>();
+        timers.forEach((name, byTag) -> {
+            Map<String, Object> values = new TreeMap<>();
+            byTag.forEach((tag, timer) -> values.put(tag, timer.toMap()));
+            timerValues.put(name, values);
+        });
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("gauges", gaugeValues);
+        result.put("counters", counterValues);
+        result.put("timers", timerValues);
+        return result;
+    }
+
+    private static final class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Map<String, Object> toMap() {
+            long n = count.sum();
+            double totalMs = totalNanos.sum() / 1e6;
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", n);
+            values.put("totalMs", totalMs);
+            values.put("meanMs", n > 0 ? totalMs / n : 0.0);
+            values.put("maxMs", maxNanos.get() / 1e6);
+            return values;
+        }
+    }
+}
@@ -1,20 +1,23 @@
 package com.game.service;
 
 import com.game.dto.GameStateDTO;
+import com.game.dto.SessionRoundView;
 import com.game.dto.SessionSyncDTO;
+import com.game.dto.SessionSyncDeltaDTO;
 import com.game.dto.SyncUserDTO;
 import com.game.model.GameSession;
 import com.game.model.Question;
+import com.game.model.SessionSnapshot;
 import com.game.model.User;
 import com.game.repository.GameSessionRepository;
 import com.game.repository.QuestionRepository;
 import com.game.repository.UserRepository;
-import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -31,6 +34,15 @@ public class GameSessionService {
     private final QuienEsMasProbableService quienEsMasProbableService;
     private final PreguntasIncomodasService preguntasIncomodasService;
     private final ElImpostorService elImpostorService;
+    private final GameSessionStore sessionStore;
+    private final SessionCodeAllocator codeAllocator;
+    private final SessionSyncTracker syncTracker;
+    private final ReadyFlags readyFlags;
+    private final SessionExecutor sessionExecutor;
+    private final ServerGeneration serverGeneration;
+
+    // Juegos cuyo estado está entero en BD: siguen en curso tras adoptar la sesión
+    static final List<String> DB_BACKED_GAMES = List.of("preguntas-directas");
 
     @Autowired
     public GameSessionService(GameSessionRepository gameSessionRepository,
@@ -42,7 +54,13 @@ public class GameSessionService {
                               CulturaPendejaService culturaPendejaService,
                               QuienEsMasProbableService quienEsMasProbableService,
                               PreguntasIncomodasService preguntasIncomodasService,
-                              ElImpostorService elImpostorService) {
+                              ElImpostorService elImpostorService,
+                              GameSessionStore sessionStore,
+                              SessionCodeAllocator codeAllocator,
+                              SessionSyncTracker syncTracker,
+                              ReadyFlags readyFlags,
+                              SessionExecutor sessionExecutor,
+                              ServerGeneration serverGeneration) {
         this.gameSessionRepository = gameSessionRepository;
         this.userRepository = userRepository;
         this.questionRepository = questionRepository;
@@ -53,20 +71,63 @@ public class GameSessionService {
         this.quienEsMasProbableService = quienEsMasProbableService;
         this.preguntasIncomodasService = preguntasIncomodasService;
         this.elImpostorService = elImpostorService;
+        this.sessionStore = sessionStore;
+        this.codeAllocator = codeAllocator;
+        this.syncTracker = syncTracker;
+        this.readyFlags = readyFlags;
+        this.sessionExecutor = sessionExecutor;
+        this.serverGeneration = serverGeneration;
+    }
+
+    /**
+     * Borra las sesiones creadas antes del corte, con sus usuarios, conservando las preguntas.
+     * Las más recientes se mantienen y se adoptan al primer acceso ({@link #ensureCurrentGeneration}).
+     * Solo sentencias masivas, sin cargar filas: el coste no crece con el historial.
+     * Lo ejecuta {@link StartupPipeline} antes de aceptar peticiones.
+     *
+     * @return sesiones borradas
+     */
+    @Transactional
+    public int purgeSessionsCreatedBefore(LocalDateTime cutoff) {
+        questionRepository.detachFromSessionsCreatedBefore(cutoff);
+        gameSessionRepository.deleteShownQuestionsCreatedBefore(cutoff);
+        gameSessionRepository.deleteUsersOfSessionsCreatedBefore(cutoff);
+        return gameSessionRepository.deleteCreatedBefore(cutoff);
+    }
+
+    /** Borra de la BD las sesiones indicadas con sus usuarios, conservando las preguntas. */
+    @Transactional
+    public int deleteSessions(List<String> sessionCodes) {
+        questionRepository.detachFromSessions(sessionCodes);
+        gameSessionRepository.deleteShownQuestionsOfSessions(sessionCodes);
+        gameSessionRepository.deleteUsersOfSessions(sessionCodes);
+        return gameSessionRepository.deleteBySessionCodes(sessionCodes);
     }
 
-    @PostConstruct
-    public void clearOnStartup() {
-        List<Question> questions = questionRepository.findAll();
-        questions.forEach(q -> q.setGameSession(null));
-        questionRepository.saveAll(questions);
-        userRepository.deleteAll();
-        gameSessionRepository.deleteAll();
-        System.out.println("Sesiones y usuarios limpiados al iniciar. Preguntas preservadas: " + questions.size());
+    /**
+     * Adopta la sesión si su estado en memoria era de un proceso anterior: los juegos que
+     * viven en memoria se dan por terminados (el grupo vuelve a elegir juego) y la sesión pasa
+     * a esta generación. Jugadores, código y rondas de Preguntas Directas se conservan.
+     * Tras la primera comprobación no vuelve a tocar la BD. No hace nada si la sesión no existe.
+     */
+    public void ensureCurrentGeneration(String sessionCode) {
+        if (serverGeneration.isCurrent(sessionCode)) return;
+        sessionExecutor.run(sessionCode, () -> {
+            if (serverGeneration.isCurrent(sessionCode)) return;
+            Optional<String> generation = gameSessionRepository.findGenerationBySessionCode(sessionCode);
+            if (generation.isEmpty()) return;
+            if (!generation.get().equals(serverGeneration.id())) {
+                gameSessionRepository.endInMemoryGame(sessionCode, DB_BACKED_GAMES);
+                gameSessionRepository.stampGeneration(List.of(sessionCode), serverGeneration.id());
+                sessionStore.invalidate(sessionCode);
+            }
+            serverGeneration.markCurrent(sessionCode);
+        });
     }
 
     public void resetGameData(String sessionCode) {
         jdbcTemplate.update("CALL reset_game_data(?);", sessionCode);
+        sessionStore.invalidate(sessionCode);
     }
 
     @Transactional
@@ -76,23 +137,33 @@ public class GameSessionService {
         }
         GameSession session = new GameSession();
         session.setCreatorName(user.getUsername());
-        session.setSessionCode(generateSessionCode());
-        GameSession saved = gameSessionRepository.saveAndFlush(session);
+        String sessionCode = codeAllocator.allocate();
+        session.setSessionCode(sessionCode);
+        session.setGeneration(serverGeneration.id());
+        GameSession saved;
+        try {
+            saved = gameSessionRepository.saveAndFlush(session);
+        } catch (RuntimeException e) {
+            codeAllocator.release(sessionCode);
+            throw e;
+        }
         user.setGameSession(saved);
         userRepository.saveAndFlush(user);
+        serverGeneration.markCurrent(sessionCode);
         return saved;
     }
 
-    private String generateSessionCode() {
-        return String.valueOf(1000 + new Random().nextInt(9000));
-    }
-
     public void addUserToSession(String sessionCode, User user) {
         userService.joinSession(sessionCode, user.getUsername());
     }
 
     public List<User> getUsersInSession(String sessionCode) {
-        return getGameSessionByCode(sessionCode).getUsers();
+        return sessionStore.get(sessionCode).getUsers();
+    }
+
+    /** Vista en memoria de la sesión para endpoints de solo lectura. */
+    public SessionSnapshot getSessionSnapshot(String sessionCode) {
+        return sessionStore.get(sessionCode);
     }
 
     public GameSession getGameSessionByCode(String sessionCode) {
@@ -100,10 +171,12 @@ public class GameSessionService {
                 .orElseThrow(() -> new IllegalArgumentException("Invalid session code"));
     }
 
+    @Transactional
     public void startGame(String sessionCode) {
         GameSession session = getGameSessionByCode(sessionCode);
         session.setGameStarted(true);
         gameSessionRepository.save(session);
+        sessionStore.invalidate(sessionCode);
     }
 
     @Transactional
@@ -112,64 +185,123 @@ public class GameSessionService {
         session.setCurrentGame(null);
         session.setCurrentRoundId(null);
         session.setRoundStatus(null);
-        return gameSessionRepository.save(session);
+        GameSession saved = gameSessionRepository.save(session);
+        sessionStore.invalidate(sessionCode);
+        return saved;
     }
 
     public Map<String, Object> getRoundInfo(String sessionCode) {
-        GameSession session = getGameSessionByCode(sessionCode);
+        SessionSnapshot session = sessionStore.peek(sessionCode);
+        if (session == null) return roundInfoFromDatabase(sessionCode);
+
         Map<String, Object> info = new HashMap<>();
         info.put("roundId", session.getCurrentRoundId());
         info.put("status", session.getRoundStatus());
         info.put("currentGame", session.getCurrentGame());
 
         if (session.getCurrentRoundId() != null) {
-            long count = session.getQuestions().stream()
-                    .filter(q -> session.getCurrentRoundId().equals(q.getRoundId()))
-                    .count();
-            info.put("totalQuestions", count);
+            info.put("totalQuestions", (long) session.getRoundQuestions().size());
             info.put("shownQuestions", session.getShownQuestions().size());
         } else {
             info.put("totalQuestions", 0);
             info.put("shownQuestions", 0);
         }
 
-        List<User> users = session.getUsers();
-        long readyCount = users.stream().filter(User::isReady).count();
-        info.put("usersReady", readyCount);
-        info.put("totalUsers", users.size());
-        info.put("allUsersReady", !users.isEmpty() && readyCount == users.size());
+        info.put("usersReady", session.getReadyCount());
+        info.put("totalUsers", session.getUsers().size());
+        info.put("allUsersReady", session.isAllUsersReady());
         return info;
     }
 
-    @Transactional
+    // Sin la sesión en memoria basta una consulta de conteos, sin cargar usuarios ni preguntas
+    private Map<String, Object> roundInfoFromDatabase(String sessionCode) {
+        SessionRoundView round = gameSessionRepository.findRoundView(sessionCode)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid session code"));
+        Map<String, Object> info = new HashMap<>();
+        info.put("roundId", round.getRoundId());
+        info.put("status", round.getStatus());
+        info.put("currentGame", round.getCurrentGame());
+        info.put("totalQuestions", round.getTotalQuestions());
+        info.put("shownQuestions", round.getRoundId() != null ? round.getShownQuestions() : 0);
+        info.put("usersReady", round.getUsersReady());
+        info.put("totalUsers", round.getTotalUsers());
+        info.put("allUsersReady", round.getTotalUsers() > 0 && round.getUsersReady() == round.getTotalUsers());
+        return info;
+    }
+
+    // Sin transacción ni conexión aquí: resetSession espera al buzón de la sesión y abre la suya dentro
     public void resetUsersReady(String sessionCode) {
-        GameSession session = getGameSessionByCode(sessionCode);
-        session.getUsers().forEach(u -> {
-            u.setReady(false);
-            userRepository.save(u);
-        });
+        readyFlags.resetSession(sessionCode, sessionStore.get(sessionCode).getId());
     }
 
     @Transactional
     public void startRoundPlay(String sessionCode) {
-        GameSession session = getGameSessionByCode(sessionCode);
-        if (!"WAITING_QUESTIONS".equals(session.getRoundStatus())) {
-            throw new IllegalStateException("La ronda ya está en progreso o completada.");
-        }
-        long count = session.getQuestions().stream()
-                .filter(q -> session.getCurrentRoundId() != null && session.getCurrentRoundId().equals(q.getRoundId()))
-                .count();
-        if (count == 0) {
+        // Una sola sentencia comprueba y cambia el estado; la consulta extra solo explica el fallo
+        if (gameSessionRepository.markRoundInProgress(sessionCode) == 0) {
+            SessionRoundView round = gameSessionRepository.findRoundView(sessionCode)
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid session code"));
+            if (!"WAITING_QUESTIONS".equals(round.getStatus())) {
+                throw new IllegalStateException("La ronda ya está en progreso o completada.");
+            }
             throw new IllegalStateException("No hay preguntas para jugar en esta ronda.");
         }
-        session.setRoundStatus("IN_PROGRESS");
-        gameSessionRepository.save(session);
+        sessionStore.invalidate(sessionCode);
     }
 
-    @Transactional(readOnly = true)
     public SessionSyncDTO getSessionSync(String sessionCode, String username) {
-        GameSession session = gameSessionRepository.findBySessionCode(sessionCode)
-                .orElseThrow(() -> new IllegalArgumentException("Session not found: " + sessionCode));
+        SessionSyncTracker.Versioned current = currentSyncView(sessionCode);
+        SessionSyncDTO full = current.getView().getFull();
+        List<SyncUserDTO> users = full.getUsers().stream()
+                .map(u -> visibleTo(u, username))
+                .collect(Collectors.toList());
+        return new SessionSyncDTO(full.getSessionCode(), full.getCreator(), users,
+                full.getCurrentGame(), full.getGameState(), System.currentTimeMillis(), current.getVersion());
+    }
+
+    /**
+     * Cambios desde {@code sinceVersion}. Si no hubo cambios, la versión devuelta es la misma
+     * que {@code sinceVersion}. Devuelve null si esa versión ya no se conserva (el cliente
+     * debe pedir el sync completo).
+     */
+    public SessionSyncDeltaDTO getSessionSyncDelta(String sessionCode, String username, long sinceVersion) {
+        SessionSyncTracker.Versioned current = currentSyncView(sessionCode);
+        if (current.getVersion() == sinceVersion) {
+            return new SessionSyncDeltaDTO(sessionCode, sinceVersion, sinceVersion,
+                    List.of(), List.of(), Map.of(), System.currentTimeMillis());
+        }
+        SessionSyncTracker.SyncView before = syncTracker.at(sessionCode, sinceVersion);
+        if (before == null) return null;
+
+        SessionSyncTracker.SyncView after = current.getView();
+        List<SyncUserDTO> changedUsers = after.getUsers().values().stream()
+                .filter(u -> !u.equals(before.getUsers().get(u.getUsername())))
+                .map(u -> visibleTo(u, username))
+                .collect(Collectors.toList());
+        List<String> removedUsers = before.getUsers().keySet().stream()
+                .filter(name -> !after.getUsers().containsKey(name))
+                .collect(Collectors.toList());
+
+        return new SessionSyncDeltaDTO(sessionCode, sinceVersion, current.getVersion(), changedUsers, removedUsers,
+                SessionSyncTracker.diff(before.getFields(), after.getFields()), System.currentTimeMillis());
+    }
+
+    // El token de sesión solo se devuelve al propio usuario, en el sync completo y en el delta
+    private static SyncUserDTO visibleTo(SyncUserDTO user, String username) {
+        return user.getUsername().equals(username) ? user
+                : new SyncUserDTO(user.getUsername(), user.isReady(), user.isConnected(), null);
+    }
+
+    private SessionSyncTracker.Versioned currentSyncView(String sessionCode) {
+        return syncTracker.current(sessionCode, () -> buildSessionSync(sessionCode));
+    }
+
+    private SessionSyncDTO buildSessionSync(String sessionCode) {
+        SessionSnapshot session;
+        try {
+            session = sessionStore.get(sessionCode);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Session not found: " + sessionCode);
+        }
 
         List<SyncUserDTO> userDTOs = session.getUsers().stream()
                 .map(u -> new SyncUserDTO(u.getUsername(), u.isReady(), true, u.getSessionToken()))
@@ -187,53 +319,49 @@ public class GameSessionService {
         }
 
         return new SessionSyncDTO(session.getSessionCode(), session.getCreatorName(),
-                userDTOs, session.getCurrentGame(), gameState, System.currentTimeMillis());
+                userDTOs, session.getCurrentGame(), gameState, 0, 0);
     }
 
     /**
      * Construye los datos de la pregunta actual según el tipo de juego activo.
      * Permite que el frontend restaure el estado al reconectarse.
      */
-    private Map<String, Object> buildQuestionData(GameSession session) {
+    private Map<String, Object> buildQuestionData(SessionSnapshot session) {
         String game = session.getCurrentGame();
         String sessionCode = session.getSessionCode();
         return switch (game) {
             case "preguntas-directas" -> buildPreguntasDirectasData(session);
             case "yo-nunca-nunca" -> {
                 var q = yoNuncaNuncaService.getLastQuestion(sessionCode);
-                yield q != null ? Map.of("currentQuestion", Map.of("texto", q.getTexto())) : Map.of("currentQuestion", (Object) null);
+                yield q != null ? Map.of("currentQuestion", Map.of("texto", q.getTexto())) : Collections.singletonMap("currentQuestion", null);
             }
             case "cultura-pendeja" -> {
                 var q = culturaPendejaService.getLastQuestion(sessionCode);
                 yield q != null ? Map.of("currentQuestion", Map.<String, Object>of(
                         "id", q.getId(), "texto", q.getTexto(), "tipo", q.getTipo()
-                )) : Map.of("currentQuestion", (Object) null);
+                )) : Collections.singletonMap("currentQuestion", null);
             }
             case "quien-es-mas-probable" -> {
                 var q = quienEsMasProbableService.getLastQuestion(sessionCode);
-                yield Map.of("currentQuestion", q != null ? q : (Object) null);
+                yield Collections.singletonMap("currentQuestion", q);
             }
             case "preguntas-incomodas" -> {
                 var q = preguntasIncomodasService.getLastQuestion(sessionCode);
                 yield q != null ? Map.of("currentQuestion", Map.<String, Object>of(
                         "question", q.get("question"), "toUser", q.get("toUser")
-                )) : Map.of("currentQuestion", (Object) null);
+                )) : Collections.singletonMap("currentQuestion", null);
             }
             case "el-impostor" -> elImpostorService.getSyncState(sessionCode);
             default -> null;
         };
     }
 
-    private Map<String, Object> buildPreguntasDirectasData(GameSession session) {
+    private Map<String, Object> buildPreguntasDirectasData(SessionSnapshot session) {
         try {
             if (!"IN_PROGRESS".equals(session.getRoundStatus()) || session.getShownQuestions().isEmpty()) return null;
-            List<Question> ordered = session.getQuestions().stream()
-                    .filter(q -> session.getCurrentRoundId() != null && session.getCurrentRoundId().equals(q.getRoundId()))
-                    .sorted(Comparator.comparingLong(Question::getId))
-                    .collect(Collectors.toList());
+            Question q = session.getCurrentQuestion();
+            if (q == null) return null;
             int idx = session.getCurrentQuestionIndex();
-            if (ordered.isEmpty() || idx < 0 || idx >= ordered.size()) return null;
-            Question q = ordered.get(idx);
             Map<String, Object> data = new HashMap<>();
             data.put("currentQuestion", Map.of(
                     "question", q.getQuestion(),
@@ -248,7 +376,7 @@ public class GameSessionService {
         }
     }
 
-    private String determineGamePhase(GameSession session) {
+    private String determineGamePhase(SessionSnapshot session) {
         if (session.getRoundStatus() == null) return "SHOWING_QUESTIONS";
         return switch (session.getRoundStatus()) {
             case "WAITING_QUESTIONS" -> "WAITING_QUESTIONS";
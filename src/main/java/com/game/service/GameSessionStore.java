@@ -0,0 +1,116 @@
+package com.game.service;
+
+import com.game.model.GameSession;
+import com.game.model.Question;
+import com.game.model.SessionSnapshot;
+import com.game.repository.GameSessionRepository;
+import com.game.repository.QuestionRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Caché en memoria de sesiones, indexada por sessionCode.
+ * Las lecturas frecuentes del lobby (round-info, sync, current-question...) se sirven
+ * desde aquí; cada escritura en BD invalida la entrada tras el commit y la siguiente
+ * lectura la reconstruye con una sola carga.
+ */
+@Component
+public class GameSessionStore {
+
+    private final GameSessionRepository gameSessionRepository;
+    private final QuestionRepository questionRepository;
+    private final TransactionTemplate readOnlyTx;
+
+    // sessionCode → vista en memoria de la sesión
+    private final ConcurrentHashMap<String, SessionSnapshot> sessions = new ConcurrentHashMap<>();
+    // sessionCode → número de invalidaciones (evita cachear una carga que quedó obsoleta)
+    private final ConcurrentHashMap<String, Long> versions = new ConcurrentHashMap<>();
+    // Avisados en cada invalidación (por ejemplo, la versión de sync)
+    private final List<Consumer<String>> evictionListeners = new CopyOnWriteArrayList<>();
+
+    public GameSessionStore(GameSessionRepository gameSessionRepository,
+                            QuestionRepository questionRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.gameSessionRepository = gameSessionRepository;
+        this.questionRepository = questionRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * Devuelve la vista de la sesión, cargándola de BD si no está en memoria.
+     *
+     * @throws IllegalArgumentException si la sesión no existe
+     */
+    public SessionSnapshot get(String sessionCode) {
+        SessionSnapshot cached = sessions.get(sessionCode);
+        if (cached != null) return cached;
+
+        long version = versions.getOrDefault(sessionCode, 0L);
+        SessionSnapshot loaded = readOnlyTx.execute(status ->
+                gameSessionRepository.findSnapshotBySessionCode(sessionCode)
+                        .map(session -> SessionSnapshot.of(session, loadRoundQuestions(session)))
+                        .orElse(null));
+        if (loaded == null) throw new IllegalArgumentException("Invalid session code");
+
+        // Solo se guarda si nadie invalidó la sesión mientras se cargaba
+        sessions.compute(sessionCode, (k, current) -> {
+            if (current != null) return current;
+            return versions.getOrDefault(k, 0L) == version ? loaded : null;
+        });
+        return loaded;
+    }
+
+    /** La vista en memoria si ya está cargada, o null (no consulta la BD). */
+    public SessionSnapshot peek(String sessionCode) {
+        return sessions.get(sessionCode);
+    }
+
+    /**
+     * Marca la sesión como modificada. Si hay una transacción activa, la entrada se
+     * descarta después del commit para no volver a cachear datos previos.
+     */
+    public void invalidate(String sessionCode) {
+        if (sessionCode == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(sessionCode);
+                }
+            });
+        } else {
+            evict(sessionCode);
+        }
+    }
+
+    public void onEvict(Consumer<String> listener) {
+        evictionListeners.add(listener);
+    }
+
+    public void remove(String sessionCode) {
+        sessions.remove(sessionCode);
+        versions.remove(sessionCode);
+    }
+
+    // Solo la ronda actual: el coste no depende del historial de la sesión
+    private List<Question> loadRoundQuestions(GameSession session) {
+        if (session.getCurrentRoundId() == null) return List.of();
+        return questionRepository.findByGameSessionIdAndRoundIdOrderByIdAsc(
+                session.getId(), session.getCurrentRoundId());
+    }
+
+    private void evict(String sessionCode) {
+        versions.merge(sessionCode, 1L, Long::sum);
+        sessions.remove(sessionCode);
+        evictionListeners.forEach(listener -> listener.accept(sessionCode));
+    }
+}
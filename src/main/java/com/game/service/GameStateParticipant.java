@@ -0,0 +1,49 @@
+package com.game.service;
+
+import java.util.Map;
+
+/**
+ * Servicio con estado de juego en memoria que {@link GameStateSnapshotter} guarda (cada cierto
+ * tiempo y al apagar) y restaura al arrancar, para que las partidas en curso sobrevivan a un reinicio.
+ * <p>
+ * Cada participante escribe su sección del fichero: primero los datos compartidos por todas
+ * sus sesiones ({@link #writeShared}, p. ej. el catálogo de preguntas) y luego el estado de cada sesión.
+ *
+ * @param <D> estado de una sesión, tal como se codifica
+ */
+public interface GameStateParticipant<D> {
+
+    /** Nombre de la sección en el fichero; coincide con GameSession.currentGame del juego. */
+    String snapshotKey();
+
+    /**
+     * sessionCode → estado, leído en el buzón de cada sesión. Son copias: {@link #writeState}
+     * se llama fuera del buzón, con la partida en marcha.
+     */
+    Map<String, D> exportStates();
+
+    /** Estado de una sesión, o null si no tiene. */
+    D exportState(String sessionCode);
+
+    /** Carga estados guardados. Se llama al arrancar, antes de aceptar peticiones. */
+    void restoreStates(Map<String, D> states);
+
+    void writeState(D state, SnapshotWriter out);
+
+    D readState(SnapshotReader in);
+
+    /** Termina el juego de la sesión (fin de juego normal). */
+    void cleanup(String sessionCode);
+
+    /** Descarta todo lo que el servicio guarda de una sesión que ya no existe. */
+    default void evict(String sessionCode) {
+        cleanup(sessionCode);
+    }
+
+    default void writeShared(SnapshotWriter out) {
+    }
+
+    /** Se llama antes de {@link #readState}, con lo escrito por {@link #writeShared}. */
+    default void readShared(SnapshotReader in) {
+    }
+}
@@ -0,0 +1,226 @@
+package com.game.service;
+
+import com.game.repository.GameSessionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Guarda el estado en memoria de los juegos en un fichero local binario y lo restaura al
+ * arrancar (game.state.snapshot-file; vacío = desactivado). Se escribe cada
+ * game.state.snapshot-interval-ms y al apagar. Las sesiones restauradas pasan a la generación
+ * actual y no se adoptan: las partidas siguen donde estaban, sin recargar los mazos de la BD.
+ * <p>
+ * Formato: cabecera (magic "GSNP", versión, longitud y CRC32 del cuerpo) y un cuerpo con la
+ * generación, las sesiones y una sección por {@link GameStateParticipant}. Se escribe y se lee
+ * mapeando el fichero en memoria. Un fichero de otra versión, truncado o corrupto se ignora.
+ * <p>
+ * El fichero se borra tras restaurarlo; si el proceso cae antes del siguiente guardado, las
+ * sesiones se adoptan al primer acceso como sin snapshot.
+ */
+@Component
+public class GameStateSnapshotter {
+
+    private static final Logger log = LoggerFactory.getLogger(GameStateSnapshotter.class);
+
+    static final int MAGIC = 0x47534E50; // "GSNP"
+    // Subir al cambiar la codificación de cualquier sección
+    static final short VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 2 + 4 + 4;
+
+    private final Map<String, GameStateParticipant<?>> participants = new HashMap<>();
+    private final ServerGeneration serverGeneration;
+    private final GameSessionRepository gameSessionRepository;
+    private final Path file;
+
+    public GameStateSnapshotter(List<GameStateParticipant<?>> participants,
+                                ServerGeneration serverGeneration,
+                                GameSessionRepository gameSessionRepository,
+                                @Value("${game.state.snapshot-file:}") String file) {
+        participants.forEach(p -> this.participants.put(p.snapshotKey(), p));
+        this.serverGeneration = serverGeneration;
+        this.gameSessionRepository = gameSessionRepository;
+        this.file = file.isBlank() ? null : Path.of(file);
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    @Scheduled(initialDelayString = "${game.state.snapshot-interval-ms:30000}",
+            fixedDelayString = "${game.state.snapshot-interval-ms:30000}")
+    public void savePeriodically() {
+        if (file != null) save();
+    }
+
+    /** Escribe el estado de las sesiones de esta generación. */
+    @PreDestroy
+    public synchronized void save() {
+        if (file == null) return;
+        long start = System.nanoTime();
+        Set<String> sessions = serverGeneration.currentSessions();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            SnapshotWriter body = encode(sessions);
+            CRC32 crc = new CRC32();
+            crc.update(body.array(), 0, body.size());
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + body.size());
+                mapped.putInt(MAGIC).putShort(VERSION).putInt(body.size()).putInt((int) crc.getValue());
+                mapped.put(body.array(), 0, body.size());
+                mapped.force();
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Estado de {} sesiones guardado en {} ({} bytes, {} ms)", sessions.size(), file,
+                    HEADER_BYTES + body.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException e) {
+            // El fichero anterior se conserva; se reintenta en el siguiente guardado
+            log.error("No se pudo guardar el estado de los juegos en {}", file, e);
+        }
+    }
+
+    /**
+     * Restaura el fichero si existe. Solo se cargan las sesiones que siguen en BD.
+     *
+     * @return sesiones restauradas
+     */
+    public int restore() {
+        if (file == null || !Files.exists(file)) return 0;
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            ByteBuffer body = checkedBody(mapped);
+            if (body == null) return 0;
+            int restored = decode(new SnapshotReader(body));
+            log.info("Restauradas {} sesiones desde {} en {} ms", restored, file,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return restored;
+        } catch (IOException | RuntimeException e) {
+            log.error("Snapshot de juegos ilegible en {}; las sesiones se adoptarán al acceder", file, e);
+            return 0;
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("No se pudo borrar {}", file, e);
+            }
+        }
+    }
+
+    // ─── Codificación ────────────────────────────────────────────────────────
+
+    private SnapshotWriter encode(Set<String> sessions) {
+        SnapshotWriter body = new SnapshotWriter();
+        body.writeString(serverGeneration.id())
+                .writeLong(System.currentTimeMillis())
+                .writeStrings(sessions)
+                .writeInt(participants.size());
+        for (GameStateParticipant<?> participant : participants.values()) {
+            SnapshotWriter section = new SnapshotWriter();
+            writeSection(participant, section, sessions);
+            body.writeString(participant.snapshotKey());
+            body.writeBytes(section.array(), section.size());
+        }
+        return body;
+    }
+
+    private static <D> void writeSection(GameStateParticipant<D> participant, SnapshotWriter out,
+                                         Set<String> sessions) {
+        participant.writeShared(out);
+        Map<String, D> states = new HashMap<>(participant.exportStates());
+        states.keySet().retainAll(sessions);
+        out.writeMap(states, (w, state) -> participant.writeState(state, w));
+    }
+
+    private ByteBuffer checkedBody(MappedByteBuffer mapped) {
+        if (mapped.remaining() < HEADER_BYTES || mapped.getInt() != MAGIC) {
+            log.warn("{} no es un snapshot de juegos; se ignora", file);
+            return null;
+        }
+        short version = mapped.getShort();
+        if (version != VERSION) {
+            log.info("Snapshot de juegos en versión {} (se espera {}); se ignora", version, VERSION);
+            return null;
+        }
+        int length = mapped.getInt();
+        int checksum = mapped.getInt();
+        if (length != mapped.remaining()) {
+            log.warn("Snapshot de juegos truncado en {}; se ignora", file);
+            return null;
+        }
+        ByteBuffer body = mapped.slice();
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            log.warn("Snapshot de juegos corrupto en {}; se ignora", file);
+            return null;
+        }
+        return body;
+    }
+
+    private int decode(SnapshotReader in) {
+        in.readString(); // generación que lo escribió
+        in.readLong(); // momento del guardado
+        Set<String> sessions = in.readStrings(HashSet::new);
+
+        // Una sola consulta: qué sesiones siguen en BD y qué juego tienen activo
+        Map<String, String> currentGames = new HashMap<>();
+        for (Object[] row : gameSessionRepository.findAllCurrentGames()) {
+            currentGames.put((String) row[0], (String) row[1]);
+        }
+        sessions.retainAll(currentGames.keySet());
+
+        Map<String, Set<String>> restoredByGame = new HashMap<>();
+        int sections = in.readInt();
+        for (int i = 0; i < sections; i++) {
+            String key = in.readString();
+            SnapshotReader section = in.readBlock();
+            GameStateParticipant<?> participant = participants.get(key);
+            if (participant == null) continue; // juego que ya no existe
+            restoredByGame.put(key, readSection(participant, section, sessions));
+        }
+
+        for (String sessionCode : sessions) {
+            // Guardado periódico anterior al inicio del juego: su estado no está en el fichero
+            String game = currentGames.get(sessionCode);
+            if (participants.containsKey(game)
+                    && !restoredByGame.getOrDefault(game, Set.of()).contains(sessionCode)) {
+                gameSessionRepository.endInMemoryGame(sessionCode, GameSessionService.DB_BACKED_GAMES);
+            }
+        }
+        if (!sessions.isEmpty()) {
+            gameSessionRepository.stampGeneration(List.copyOf(sessions), serverGeneration.id());
+        }
+        sessions.forEach(serverGeneration::markCurrent);
+        return sessions.size();
+    }
+
+    private static <D> Set<String> readSection(GameStateParticipant<D> participant, SnapshotReader in,
+                                               Set<String> sessions) {
+        participant.readShared(in);
+        Map<String, D> states = in.readMap(participant::readState);
+        states.keySet().retainAll(sessions);
+        participant.restoreStates(states);
+        return states.keySet();
+    }
+}
@@ -0,0 +1,99 @@
+package com.game.service;
+
+import com.game.service.HashedWheelTimer.Timeout;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Timers de juego y de desconexión sobre una única {@link HashedWheelTimer}.
+ * Al vencer, la tarea se encola en el buzón de su sesión ({@link SessionExecutor}),
+ * así que corre en orden con votos, expulsiones y demás eventos de esa sesión.
+ * <p>
+ * Cada timer pertenece a un grupo dentro de su sesión ("impostor", "disconnect"...),
+ * para poder cancelar un grupo entero o todos los timers de la sesión de una vez.
+ */
+@Component
+public class GameTimerService {
+
+    private final HashedWheelTimer wheel;
+    private final SessionExecutor sessionExecutor;
+
+    // sessionCode → timers pendientes de la sesión y su grupo
+    private final ConcurrentHashMap<String, Map<Timeout, String>> sessions = new ConcurrentHashMap<>();
+
+    public GameTimerService(SessionExecutor sessionExecutor,
+                            @Value("${game.timers.tick-ms:100}") long tickMs,
+                            @Value("${game.timers.wheel-size:512}") int wheelSize) {
+        this.sessionExecutor = sessionExecutor;
+        this.wheel = new HashedWheelTimer("game-timer-wheel", Duration.ofMillis(tickMs), wheelSize);
+    }
+
+    /** Programa la tarea en el buzón de la sesión dentro de {@code delay}. */
+    public Timeout schedule(String sessionCode, String group, Duration delay, Runnable task) {
+        Timeout timeout = wheel.schedule(delay, t -> {
+            forget(sessionCode, t);
+            sessionExecutor.execute(sessionCode, task);
+        });
+        sessions.compute(sessionCode, (k, timers) -> {
+            Map<Timeout, String> map = timers != null ? timers : new HashMap<>();
+            map.put(timeout, group);
+            return map;
+        });
+        // Con un delay ~0 pudo vencer antes de registrarse
+        if (timeout.isExpired()) forget(sessionCode, timeout);
+        return timeout;
+    }
+
+    /** Cancela los timers pendientes de un grupo de la sesión. */
+    public void cancel(String sessionCode, String group) {
+        sessions.computeIfPresent(sessionCode, (k, timers) -> {
+            timers.entrySet().removeIf(e -> {
+                if (!group.equals(e.getValue())) return false;
+                e.getKey().cancel();
+                return true;
+            });
+            return timers.isEmpty() ? null : timers;
+        });
+    }
+
+    /** Cancela todos los timers pendientes de la sesión. */
+    public void cancelAll(String sessionCode) {
+        Map<Timeout, String> timers = sessions.remove(sessionCode);
+        if (timers != null) timers.keySet().forEach(Timeout::cancel);
+    }
+
+    public int pending() {
+        return wheel.pendingTimeouts();
+    }
+
+    /** Timers pendientes de un grupo en todas las sesiones. */
+    public int pending(String group) {
+        int[] count = {0};
+        // Cada mapa se lee bajo el lock de su entrada, como lo modifican schedule y cancel
+        for (String sessionCode : sessions.keySet()) {
+            sessions.computeIfPresent(sessionCode, (k, timers) -> {
+                for (String g : timers.values()) if (group.equals(g)) count[0]++;
+                return timers;
+            });
+        }
+        return count[0];
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+    }
+
+    private void forget(String sessionCode, Timeout timeout) {
+        sessions.computeIfPresent(sessionCode, (k, timers) -> {
+            timers.remove(timeout);
+            return timers.isEmpty() ? null : timers;
+        });
+    }
+}
@@ -0,0 +1,213 @@
+package com.game.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rueda de tiempo (hashed timing wheel): un único hilo avanza un tick cada {@code tickDuration}
+ * y dispara los timeouts del bucket actual. Programar y cancelar son O(1) y cada timer
+ * pendiente ocupa un nodo de lista, sin importar cuántos haya.
+ * <p>
+ * Las tareas corren en el hilo de la rueda, así que deben ser cortas (por ejemplo, encolar
+ * en el buzón de la sesión). La precisión es de un tick.
+ */
+public class HashedWheelTimer {
+
+    private static final Logger log = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    // Altas procesadas por tick, para que una ráfaga no retrase los disparos
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    @FunctionalInterface
+    public interface TimerTask {
+        void run(Timeout timeout);
+    }
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> pendingAdds = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> pendingCancels = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread worker;
+    private final long startTime;
+    private volatile boolean running = true;
+    private long tick; // solo lo toca el hilo de la rueda
+
+    /**
+     * @param tickDuration resolución de la rueda
+     * @param wheelSize    número de buckets, se redondea a potencia de 2
+     */
+    public HashedWheelTimer(String threadName, Duration tickDuration, int wheelSize) {
+        this.tickNanos = Math.max(1, tickDuration.toNanos());
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) wheel[i] = new Bucket();
+        this.mask = size - 1;
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::work, threadName);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /** Programa la tarea para dentro de {@code delay}. */
+    public Timeout schedule(Duration delay, TimerTask task) {
+        if (!running) throw new IllegalStateException("El timer está detenido");
+        long deadline = System.nanoTime() - startTime + Math.max(0, delay.toNanos());
+        Timeout timeout = new Timeout(task, deadline);
+        pending.incrementAndGet();
+        pendingAdds.add(timeout);
+        return timeout;
+    }
+
+    /** Número de timers programados que aún no se han disparado ni cancelado. */
+    public int pendingTimeouts() {
+        return pending.get();
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void work() {
+        while (running) {
+            if (!waitForNextTick()) continue;
+            processCancels();
+            transferAdds();
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    // Espera al final del tick actual; false si la rueda se detuvo mientras tanto
+    private boolean waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long sleepNanos = deadline - (System.nanoTime() - startTime);
+            if (sleepNanos <= 0) return true;
+            try {
+                Thread.sleep(Duration.ofNanos(sleepNanos));
+            } catch (InterruptedException e) {
+                if (!running) return false;
+            }
+        }
+    }
+
+    private void transferAdds() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = pendingAdds.poll();
+            if (timeout == null) return;
+            if (timeout.state.get() != Timeout.INIT) continue;
+
+            long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            // Si ya venció, al bucket actual para no esperar una vuelta entera
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void processCancels() {
+        Timeout timeout;
+        while ((timeout = pendingCancels.poll()) != null) {
+            if (timeout.bucket != null) timeout.bucket.remove(timeout);
+        }
+    }
+
+    /** Timer programado. Solo {@link #cancel()} es seguro desde cualquier hilo. */
+    public final class Timeout {
+        private static final int INIT = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final TimerTask task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(INIT);
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout prev;
+
+        private Timeout(TimerTask task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /** @return false si ya se había disparado o cancelado */
+        public boolean cancel() {
+            if (!state.compareAndSet(INIT, CANCELLED)) return false;
+            pending.decrementAndGet();
+            pendingCancels.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(INIT, EXPIRED)) return;
+            pending.decrementAndGet();
+            try {
+                task.run(this);
+            } catch (Throwable t) {
+                log.warn("Tarea del timer falló", t);
+            }
+        }
+    }
+
+    // Lista doblemente enlazada: alta y baja O(1) sin asignaciones extra
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    // Por cómo se colocó, su deadline cae dentro de este tick
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) return;
+            if (timeout.prev != null) timeout.prev.next = timeout.next;
+            if (timeout.next != null) timeout.next.prev = timeout.prev;
+            if (timeout == head) head = timeout.next;
+            if (timeout == tail) tail = timeout.prev;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.game.service;
 
 import com.game.model.ImpostorWord;
 import com.game.repository.ImpostorWordRepository;
-import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -17,7 +16,7 @@ public class ImpostorWordSeeder {
         this.repository = repository;
     }
 
-    @PostConstruct
+    // Corre en segundo plano desde StartupPipeline; las peticiones esperan a que termine
     public void seed() {
         if (repository.count() > 0) return;
 
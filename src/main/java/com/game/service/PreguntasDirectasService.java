@@ -1,71 +1,87 @@
 package com.game.service;
 
+import com.game.dto.GameEvents;
 import com.game.model.GameSession;
 import com.game.model.Question;
-import com.game.model.User;
+import com.game.model.RoundQuestionDeck;
+import com.game.model.SessionSnapshot;
 import com.game.repository.GameSessionRepository;
 import com.game.repository.QuestionRepository;
-import com.game.repository.UserRepository;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class PreguntasDirectasService {
 
     private final GameSessionRepository gameSessionRepository;
-    private final UserRepository userRepository;
+    private final ReadyFlags readyFlags;
     private final QuestionRepository questionRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final TopicPublisher topicPublisher;
+    private final GameSessionStore sessionStore;
+    private final SessionExecutor sessionExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    // sessionCode → mazo barajado de la ronda actual
+    private final ConcurrentHashMap<String, RoundQuestionDeck> roundDecks = new ConcurrentHashMap<>();
 
     public PreguntasDirectasService(GameSessionRepository gameSessionRepository,
-                                    UserRepository userRepository,
+                                    ReadyFlags readyFlags,
                                     QuestionRepository questionRepository,
-                                    SimpMessagingTemplate messagingTemplate) {
+                                    TopicPublisher topicPublisher,
+                                    GameSessionStore sessionStore,
+                                    SessionExecutor sessionExecutor,
+                                    PlatformTransactionManager transactionManager) {
         this.gameSessionRepository = gameSessionRepository;
-        this.userRepository = userRepository;
+        this.readyFlags = readyFlags;
         this.questionRepository = questionRepository;
-        this.messagingTemplate = messagingTemplate;
+        this.topicPublisher = topicPublisher;
+        this.sessionStore = sessionStore;
+        this.sessionExecutor = sessionExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
     public void start(String sessionCode) {
-        GameSession session = getSession(sessionCode);
-        session.setGameStarted(true);
-        session.setCurrentGame("preguntas-directas");
-        session.setCurrentRoundId(UUID.randomUUID().toString());
-        session.setRoundStatus("WAITING_QUESTIONS");
-        session.getUsers().forEach(u -> {
-            u.setReady(false);
-            userRepository.save(u);
-        });
-        session.setShownQuestions(new HashSet<>());
-        gameSessionRepository.save(session);
+        sessionExecutor.run(sessionCode, () -> transactionTemplate.executeWithoutResult(status -> {
+            GameSession session = getSession(sessionCode);
+            session.setGameStarted(true);
+            session.setCurrentGame("preguntas-directas");
+            session.setCurrentRoundId(UUID.randomUUID().toString());
+            session.setRoundStatus("WAITING_QUESTIONS");
+            readyFlags.resetSession(sessionCode, session.getId());
+            session.setShownQuestions(new HashSet<>());
+            session.setCurrentQuestionIndex(0);
+            session.setCurrentQuestionId(null);
+            gameSessionRepository.save(session);
+            roundDecks.remove(sessionCode);
+            sessionStore.invalidate(sessionCode);
+        }));
     }
 
-    @Transactional
     public Map<String, Object> startNewRound(String sessionCode) {
-        GameSession session = getSession(sessionCode);
-        String newRoundId = UUID.randomUUID().toString();
-        session.setCurrentRoundId(newRoundId);
-        session.setRoundStatus("WAITING_QUESTIONS");
-        session.setCurrentGame("preguntas-directas");
-        session.getUsers().forEach(u -> {
-            u.setReady(false);
-            userRepository.save(u);
-        });
-        session.setShownQuestions(new HashSet<>());
-        session.setCurrentQuestionIndex(0);
-        gameSessionRepository.save(session);
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("roundId", newRoundId);
-        response.put("status", "WAITING_QUESTIONS");
-        response.put("message", "Nueva ronda iniciada. Los usuarios pueden enviar preguntas.");
-        return response;
+        return sessionExecutor.call(sessionCode, () -> transactionTemplate.execute(status -> {
+            GameSession session = getSession(sessionCode);
+            String newRoundId = UUID.randomUUID().toString();
+            session.setCurrentRoundId(newRoundId);
+            session.setRoundStatus("WAITING_QUESTIONS");
+            session.setCurrentGame("preguntas-directas");
+            readyFlags.resetSession(sessionCode, session.getId());
+            session.setShownQuestions(new HashSet<>());
+            session.setCurrentQuestionIndex(0);
+            session.setCurrentQuestionId(null);
+            gameSessionRepository.save(session);
+            roundDecks.remove(sessionCode);
+            sessionStore.invalidate(sessionCode);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("roundId", newRoundId);
+            response.put("status", "WAITING_QUESTIONS");
+            response.put("message", "Nueva ronda iniciada. Los usuarios pueden enviar preguntas.");
+            return response;
+        }));
     }
 
     public void saveQuestion(String sessionCode, String fromUser, String toUser, String questionText, boolean anonymous) {
@@ -84,88 +100,105 @@ public class PreguntasDirectasService {
         question.setGameSession(session);
         question.setRoundId(session.getCurrentRoundId());
         questionRepository.save(question);
+        sessionStore.invalidate(sessionCode);
     }
 
+    // Se ejecuta en el buzón de la sesión: dos "siguiente" simultáneos no avanzan el mazo a la vez
     public Question selectAndSetNextQuestion(String sessionCode, String lastToUser) {
-        GameSession session = getSession(sessionCode);
-        String roundId = session.getCurrentRoundId();
-
-        List<Question> roundQuestions = session.getQuestions().stream()
-                .filter(q -> roundId != null && roundId.equals(q.getRoundId()))
-                .toList();
+        return sessionExecutor.call(sessionCode, () -> advanceDeck(sessionCode, lastToUser));
+    }
 
-        if (roundQuestions.isEmpty()) {
+    private Question advanceDeck(String sessionCode, String lastToUser) {
+        SessionSnapshot snapshot = sessionStore.get(sessionCode);
+        if (snapshot.getRoundQuestions().isEmpty()) {
             throw new IllegalArgumentException("No hay preguntas en la ronda actual.");
         }
 
-        List<Question> candidates = roundQuestions.stream()
-                .filter(q -> !session.getShownQuestions().contains(q.getId()) && !q.getToUser().equals(lastToUser))
-                .collect(Collectors.toList());
-
-        if (candidates.isEmpty()) {
-            candidates = roundQuestions.stream()
-                    .filter(q -> !session.getShownQuestions().contains(q.getId()))
-                    .collect(Collectors.toList());
-        }
-
-        if (candidates.isEmpty()) {
-            messagingTemplate.convertAndSend("/topic/" + sessionCode, "{\"event\":\"allQuestionsShown\"}");
+        RoundQuestionDeck deck = getRoundDeck(sessionCode, snapshot, lastToUser);
+        Question next = deck.next(lastToUser);
+        if (next == null) {
+            topicPublisher.publish(sessionCode, GameEvents.ALL_QUESTIONS_SHOWN);
             throw new IllegalStateException("All questions have been shown");
         }
 
-        Question next = candidates.get(new Random().nextInt(candidates.size()));
-        Set<Long> shown = new HashSet<>(session.getShownQuestions());
-        shown.add(next.getId());
-        session.setShownQuestions(shown);
-        session.setCurrentQuestionIndex(shown.size() - 1);
-        gameSessionRepository.save(session);
+        // Solo se escribe la pregunta nueva y el cursor, no todo el conjunto de mostradas; ambos
+        // en una transacción para que shown_questions no quede por delante de currentQuestionId
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                gameSessionRepository.insertShownQuestion(snapshot.getId(), next.getId());
+                gameSessionRepository.updateCurrentQuestion(snapshot.getId(), deck.getShownCount() - 1, next.getId());
+            });
+        } catch (RuntimeException e) {
+            // El mazo ya avanzó en memoria: se reconstruye desde la BD en el siguiente "siguiente"
+            roundDecks.remove(sessionCode);
+            throw e;
+        }
+        sessionStore.invalidate(sessionCode);
         return next;
     }
 
+    // Mazo barajado de la ronda actual; se reconstruye si cambió la ronda o sus preguntas
+    private RoundQuestionDeck getRoundDeck(String sessionCode, SessionSnapshot snapshot, String lastToUser) {
+        return roundDecks.compute(sessionCode, (k, deck) -> {
+            if (deck != null && deck.getRoundId().equals(snapshot.getCurrentRoundId())
+                    && deck.getRoundSize() == snapshot.getRoundQuestions().size()) {
+                return deck;
+            }
+            return RoundQuestionDeck.shuffle(snapshot.getCurrentRoundId(), snapshot.getRoundQuestions(),
+                    snapshot.getShownQuestions(), lastToUser, new Random());
+        });
+    }
+
     public Question getCurrentQuestion(String sessionCode) {
-        GameSession session = getSession(sessionCode);
-        List<Question> ordered = getOrderedRoundQuestions(session);
-        int idx = session.getCurrentQuestionIndex();
-        if (idx < 0 || idx >= ordered.size()) {
+        SessionSnapshot snapshot = sessionStore.get(sessionCode);
+        Question q = snapshot.getCurrentQuestion();
+        if (q == null) {
             throw new IllegalArgumentException("Index fuera de rango para la pregunta actual.");
         }
-        Question q = ordered.get(idx);
-        synchronized (this) {
-            if (!session.getShownQuestions().contains(q.getId())) {
-                session.getShownQuestions().add(q.getId());
-                gameSessionRepository.save(session);
-            }
+        if (!snapshot.getShownQuestions().contains(q.getId())) {
+            // Se vuelve a comprobar en el buzón, con la vista que dejó la última escritura
+            sessionExecutor.run(sessionCode, () -> {
+                SessionSnapshot current = sessionStore.get(sessionCode);
+                if (!current.getShownQuestions().contains(q.getId())) {
+                    gameSessionRepository.insertShownQuestion(current.getId(), q.getId());
+                    sessionStore.invalidate(sessionCode);
+                }
+            });
         }
         return q;
     }
 
     public int getCurrentQuestionNumber(String sessionCode) {
-        return getSession(sessionCode).getCurrentQuestionIndex() + 1;
+        return sessionStore.get(sessionCode).getCurrentQuestionIndex() + 1;
     }
 
     public int getTotalQuestions(String sessionCode) {
-        GameSession session = getSession(sessionCode);
-        String roundId = session.getCurrentRoundId();
-        return (int) session.getQuestions().stream()
-                .filter(q -> roundId != null && roundId.equals(q.getRoundId()))
-                .count();
+        return sessionStore.get(sessionCode).getRoundQuestions().size();
     }
 
     public Map<String, Object> generateQuestionResponse(Question question, int number, int total, String message) {
         Map<String, Object> response = new HashMap<>();
-        if (question.isAnonymous()) question.setFromUser("Anónimo");
-        response.put("question", question);
+        response.put("question", question.isAnonymous() ? anonymize(question) : question);
         response.put("questionNumber", number + "/" + total);
         if (message != null && !message.isEmpty()) response.put("message", message);
         return response;
     }
 
-    private List<Question> getOrderedRoundQuestions(GameSession session) {
-        String roundId = session.getCurrentRoundId();
-        return session.getQuestions().stream()
-                .filter(q -> roundId != null && roundId.equals(q.getRoundId()))
-                .sorted(Comparator.comparingLong(Question::getId))
-                .collect(Collectors.toList());
+    // Copia para no modificar la pregunta compartida del snapshot en memoria
+    private Question anonymize(Question question) {
+        Question copy = new Question();
+        copy.setId(question.getId());
+        copy.setFromUser("Anónimo");
+        copy.setToUser(question.getToUser());
+        copy.setQuestion(question.getQuestion());
+        copy.setAnonymous(true);
+        copy.setRoundId(question.getRoundId());
+        return copy;
+    }
+
+    /** Descarta el mazo de la ronda (la sesión ya no existe). */
+    public void cleanup(String sessionCode) {
+        roundDecks.remove(sessionCode);
     }
 
     private GameSession getSession(String sessionCode) {
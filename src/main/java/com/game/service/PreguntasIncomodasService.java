@@ -1,98 +1,191 @@
 package com.game.service;
 
+import com.game.dto.GameEvents;
 import com.game.model.GameSession;
+import com.game.model.QuestionDeck;
+import com.game.model.SessionDeck;
 import com.game.model.PreguntasIncomodas;
 import com.game.model.User;
 import com.game.repository.GameSessionRepository;
 import com.game.repository.PreguntasIncomodasRepository;
-import com.game.repository.UserRepository;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
 
 @Service
-public class PreguntasIncomodasService {
+public class PreguntasIncomodasService implements GameStateParticipant<PreguntasIncomodasService.Snapshot> {
 
     private final GameSessionRepository gameSessionRepository;
-    private final UserRepository userRepository;
-    private final PreguntasIncomodasRepository repository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ReadyFlags readyFlags;
+    private final TopicPublisher topicPublisher;
+    private final GameSessionStore sessionStore;
+    private final QuestionDeckCache<PreguntasIncomodas> deckCache;
+
+    private final SessionStateMap<SessionState> sessionStates;
+    private final SessionExecutor sessionExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Estado por sesión: mazo, rotación de jugadores y última pregunta mostrada. */
+    private static class SessionState {
+        private SessionDeck<PreguntasIncomodas> deck;
+        private final List<String> remainingUsers = new ArrayList<>();
+        private volatile Map<String, String> lastQuestion;
+    }
 
-    private final Map<String, Queue<PreguntasIncomodas>> sessionQuestions = new HashMap<>();
-    private final Map<String, List<User>> remainingUsers = new HashMap<>();
-    private final Map<String, Map<String, String>> lastQuestion = new HashMap<>();
+    /** Estado de una sesión tal como se guarda en el snapshot. */
+    public record Snapshot(SessionDeck.Position deck, List<String> remainingUsers, Map<String, String> lastQuestion) {
+    }
 
     public PreguntasIncomodasService(GameSessionRepository gameSessionRepository,
-                                     UserRepository userRepository,
+                                     ReadyFlags readyFlags,
                                      PreguntasIncomodasRepository repository,
-                                     SimpMessagingTemplate messagingTemplate) {
+                                     TopicPublisher topicPublisher,
+                                     GameSessionStore sessionStore,
+                                     SessionExecutor sessionExecutor,
+                                     PlatformTransactionManager transactionManager) {
         this.gameSessionRepository = gameSessionRepository;
-        this.userRepository = userRepository;
-        this.repository = repository;
-        this.messagingTemplate = messagingTemplate;
+        this.readyFlags = readyFlags;
+        this.deckCache = new QuestionDeckCache<>(repository, PreguntasIncomodas::getTipo);
+        this.topicPublisher = topicPublisher;
+        this.sessionStore = sessionStore;
+        this.sessionStates = new SessionStateMap<>(k -> new SessionState(), sessionExecutor);
+        this.sessionExecutor = sessionExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
     public void start(String sessionCode) {
-        GameSession session = getSession(sessionCode);
-        List<PreguntasIncomodas> preguntas = repository.findAll();
-        if (preguntas.isEmpty()) {
-            throw new IllegalStateException("No hay preguntas disponibles para Preguntas Incómodas.");
-        }
-        Collections.shuffle(preguntas);
-        sessionQuestions.put(sessionCode, new LinkedList<>(preguntas));
-
-        session.setCurrentGame("preguntas-incomodas");
-        session.setCurrentRoundId(UUID.randomUUID().toString());
-        session.setRoundStatus("IN_PROGRESS");
-        session.getUsers().forEach(u -> {
-            u.setReady(false);
-            userRepository.save(u);
-        });
-        gameSessionRepository.save(session);
-        messagingTemplate.convertAndSend("/topic/" + sessionCode, "{\"event\":\"preguntasIncomodasStarted\"}");
+        sessionExecutor.run(sessionCode, () -> transactionTemplate.executeWithoutResult(status -> {
+            GameSession session = getSession(sessionCode);
+            QuestionDeck<PreguntasIncomodas> deck = deckCache.refreshIfChanged();
+            if (deck.isEmpty()) {
+                throw new IllegalStateException("No hay preguntas disponibles para Preguntas Incómodas.");
+            }
+            SessionDeck<PreguntasIncomodas> sessionDeck = deck.newSessionDeck(new Random());
+            sessionStates.update(sessionCode, state -> state.deck = sessionDeck);
+
+            session.setCurrentGame("preguntas-incomodas");
+            session.setCurrentRoundId(UUID.randomUUID().toString());
+            session.setRoundStatus("IN_PROGRESS");
+            readyFlags.resetSession(sessionCode, session.getId());
+            gameSessionRepository.save(session);
+            sessionStore.invalidate(sessionCode);
+            topicPublisher.publish(sessionCode, GameEvents.PREGUNTAS_INCOMODAS_STARTED);
+        }));
     }
 
     public Map<String, Object> getNext(String sessionCode, String tipo) {
-        Queue<PreguntasIncomodas> questions = sessionQuestions.get(sessionCode);
-        if (questions == null || questions.isEmpty()) {
-            messagingTemplate.convertAndSend("/topic/" + sessionCode, "{\"event\":\"allQuestionsShown\"}");
-            throw new IllegalStateException("No hay más preguntas disponibles.");
-        }
+        List<User> users = sessionStore.get(sessionCode).getUsers();
+        Map<String, String> next = sessionStates.updateIfPresent(sessionCode, state -> {
+            if (state.deck == null || state.deck.isExhausted()) return null;
+
+            PreguntasIncomodas question = state.deck.next(tipo);
+            if (question == null) throw new IllegalStateException("No hay preguntas del tipo especificado.");
 
-        PreguntasIncomodas question = questions.stream()
-                .filter(q -> q.getTipo().equalsIgnoreCase(tipo))
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("No hay preguntas del tipo especificado."));
-        questions.remove(question);
+            String randomUser = pickRandomUser(state, users);
+            String text = question.getTexto().replace("{player}", randomUser);
+            state.lastQuestion = Map.of("question", text, "toUser", randomUser);
+            return state.lastQuestion;
+        }, null);
 
-        User randomUser = getRandomUser(sessionCode);
-        String text = question.getTexto().replace("{player}", randomUser.getUsername());
-        lastQuestion.put(sessionCode, Map.of("question", text, "toUser", randomUser.getUsername()));
-        messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                Map.of("event", "nextQuestion", "question", text, "toUser", randomUser.getUsername()));
+        if (next == null) {
+            topicPublisher.publish(sessionCode, GameEvents.ALL_QUESTIONS_SHOWN);
+            throw new IllegalStateException("No hay más preguntas disponibles.");
+        }
+        topicPublisher.publish(sessionCode, GameEvents.nextQuestion(next.get("question"), next.get("toUser")));
 
-        return Map.of("question", text, "toUser", randomUser.getUsername());
+        return Map.of("question", next.get("question"), "toUser", next.get("toUser"));
     }
 
     public Map<String, String> getLastQuestion(String sessionCode) {
-        return lastQuestion.get(sessionCode);
+        SessionState state = sessionStates.get(sessionCode);
+        return state != null ? state.lastQuestion : null;
     }
 
+    @Override
     public void cleanup(String sessionCode) {
-        sessionQuestions.remove(sessionCode);
-        remainingUsers.remove(sessionCode);
-        lastQuestion.remove(sessionCode);
+        sessionStates.remove(sessionCode);
+    }
+
+    // ─── Snapshot ────────────────────────────────────────────────────────────
+
+    @Override
+    public String snapshotKey() {
+        return "preguntas-incomodas";
+    }
+
+    @Override
+    public Map<String, Snapshot> exportStates() {
+        return sessionStates.exportAll(PreguntasIncomodasService::toSnapshot);
+    }
+
+    @Override
+    public Snapshot exportState(String sessionCode) {
+        return sessionStates.export(sessionCode, PreguntasIncomodasService::toSnapshot);
+    }
+
+    private static Snapshot toSnapshot(SessionState state) {
+        return new Snapshot(
+                state.deck != null ? state.deck.position() : null,
+                new ArrayList<>(state.remainingUsers), state.lastQuestion);
+    }
+
+    @Override
+    public void restoreStates(Map<String, Snapshot> states) {
+        if (states.isEmpty()) return;
+        QuestionDeck<PreguntasIncomodas> deck = deckCache.get(); // ya cargado por readShared
+        states.forEach((sessionCode, saved) -> {
+            SessionState state = new SessionState();
+            if (saved.deck() != null) state.deck = deck.resume(saved.deck(), new Random());
+            state.remainingUsers.addAll(saved.remainingUsers());
+            state.lastQuestion = saved.lastQuestion();
+            sessionStates.put(sessionCode, state);
+        });
+    }
+
+    @Override
+    public void writeState(Snapshot state, SnapshotWriter out) {
+        QuestionDeckCache.writePosition(out, state.deck());
+        out.writeStrings(state.remainingUsers());
+        out.writeBoolean(state.lastQuestion() != null);
+        if (state.lastQuestion() != null) out.writeMap(state.lastQuestion(), SnapshotWriter::writeString);
+    }
+
+    @Override
+    public Snapshot readState(SnapshotReader in) {
+        SessionDeck.Position deck = QuestionDeckCache.readPosition(in);
+        List<String> remainingUsers = in.readStrings(ArrayList::new);
+        Map<String, String> lastQuestion = in.readBoolean() ? in.readMap(SnapshotReader::readString) : null;
+        return new Snapshot(deck, remainingUsers, lastQuestion);
+    }
+
+    @Override
+    public void writeShared(SnapshotWriter out) {
+        deckCache.writeCatalog(out, PreguntasIncomodasService::writeQuestion);
+    }
+
+    @Override
+    public void readShared(SnapshotReader in) {
+        deckCache.readCatalog(in, PreguntasIncomodasService::readQuestion);
+    }
+
+    private static void writeQuestion(SnapshotWriter out, PreguntasIncomodas question) {
+        out.writeNullableLong(question.getId()).writeString(question.getTexto()).writeString(question.getTipo());
+    }
+
+    private static PreguntasIncomodas readQuestion(SnapshotReader in) {
+        PreguntasIncomodas question = new PreguntasIncomodas();
+        question.setId(in.readNullableLong());
+        question.setTexto(in.readString());
+        question.setTipo(in.readString());
+        return question;
     }
 
-    private User getRandomUser(String sessionCode) {
-        GameSession session = getSession(sessionCode);
-        List<User> users = session.getUsers();
-        List<User> remaining = remainingUsers.computeIfAbsent(sessionCode, k -> new ArrayList<>(users));
-        if (remaining.isEmpty()) remaining.addAll(users);
-        return remaining.remove(new Random().nextInt(remaining.size()));
+    /** Debe llamarse desde el buzón de la sesión (SessionStateMap). */
+    private static String pickRandomUser(SessionState state, List<User> users) {
+        if (state.remainingUsers.isEmpty()) users.forEach(u -> state.remainingUsers.add(u.getUsername()));
+        return state.remainingUsers.remove(new Random().nextInt(state.remainingUsers.size()));
     }
 
     private GameSession getSession(String sessionCode) {
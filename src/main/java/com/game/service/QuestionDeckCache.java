@@ -0,0 +1,74 @@
+package com.game.service;
+
+import com.game.model.QuestionDeck;
+import com.game.model.SessionDeck;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Mantiene en memoria el {@link QuestionDeck} de un juego, cargado una sola vez desde
+ * su repositorio. Al iniciar un juego se comprueba con un count si la tabla cambió
+ * y solo en ese caso se vuelve a cargar.
+ * <p>
+ * El catálogo y los recorridos de las sesiones se guardan en el snapshot de juegos
+ * ({@link GameStateSnapshotter}) para no recargarlos de la BD tras un reinicio.
+ */
+public class QuestionDeckCache<T> {
+
+    private final JpaRepository<T, Long> repository;
+    private final Function<T, String> tipoOf;
+    private volatile QuestionDeck<T> deck;
+
+    public QuestionDeckCache(JpaRepository<T, Long> repository, Function<T, String> tipoOf) {
+        this.repository = repository;
+        this.tipoOf = tipoOf;
+    }
+
+    public QuestionDeck<T> get() {
+        QuestionDeck<T> current = deck;
+        return current != null ? current : reload();
+    }
+
+    /** Recarga el catálogo si el número de preguntas en BD ya no coincide. */
+    public QuestionDeck<T> refreshIfChanged() {
+        QuestionDeck<T> current = deck;
+        if (current == null || current.size() != repository.count()) return reload();
+        return current;
+    }
+
+    // ─── Snapshot ────────────────────────────────────────────────────────────
+
+    public void writeCatalog(SnapshotWriter out, BiConsumer<SnapshotWriter, T> question) {
+        QuestionDeck<T> current = deck;
+        out.writeBoolean(current != null);
+        if (current != null) out.writeList(current.questions(), question);
+    }
+
+    /** Carga el catálogo guardado sin consultar la BD. */
+    public void readCatalog(SnapshotReader in, Function<SnapshotReader, T> question) {
+        if (in.readBoolean()) deck = QuestionDeck.of(in.readList(question), tipoOf);
+    }
+
+    public static void writePosition(SnapshotWriter out, SessionDeck.Position position) {
+        out.writeBoolean(position != null);
+        if (position == null) return;
+        out.writeInt(position.deckSize())
+                .writeMap(position.orders(), SnapshotWriter::writeInts)
+                .writeMap(position.cursors(), SnapshotWriter::writeInt);
+    }
+
+    public static SessionDeck.Position readPosition(SnapshotReader in) {
+        if (!in.readBoolean()) return null;
+        return new SessionDeck.Position(in.readInt(), in.readMap(SnapshotReader::readInts),
+                in.readMap(SnapshotReader::readInt));
+    }
+
+    private synchronized QuestionDeck<T> reload() {
+        // Orden por id: los índices de un recorrido guardado siguen valiendo tras reiniciar
+        deck = QuestionDeck.of(repository.findAll(Sort.by("id")), tipoOf);
+        return deck;
+    }
+}
@@ -1,128 +1,234 @@
 package com.game.service;
 
+import com.game.dto.GameEvents;
 import com.game.model.GameSession;
+import com.game.model.QuestionDeck;
+import com.game.model.SessionDeck;
 import com.game.model.QuienEsMasProbable;
 import com.game.model.User;
 import com.game.repository.GameSessionRepository;
 import com.game.repository.QuienEsMasProbableRepository;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
 
 @Service
-public class QuienEsMasProbableService {
+public class QuienEsMasProbableService implements GameStateParticipant<QuienEsMasProbableService.Snapshot> {
 
     private final GameSessionRepository gameSessionRepository;
-    private final QuienEsMasProbableRepository repository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final TopicPublisher topicPublisher;
+    private final GameSessionStore sessionStore;
+    private final QuestionDeckCache<QuienEsMasProbable> deckCache;
+
+    private final SessionStateMap<SessionState> sessionStates;
+    private final SessionExecutor sessionExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Estado por sesión: mazo, votos de la pregunta actual y rotación de jugadores. */
+    private static class SessionState {
+        private SessionDeck<QuienEsMasProbable> deck;
+        private final Map<String, Integer> votes = new HashMap<>();
+        private final Set<String> usersVoted = new HashSet<>();
+        private final List<String> remainingUsers = new ArrayList<>();
+        private volatile String lastQuestion;
+    }
 
-    private final Map<String, List<QuienEsMasProbable>> sessionQuestions = new HashMap<>();
-    private final Map<String, Map<String, Integer>> sessionVotes = new HashMap<>();
-    private final Map<String, Set<String>> sessionUsersVoted = new HashMap<>();
-    private final Map<String, List<User>> remainingUsers = new HashMap<>();
-    private final Map<String, String> lastQuestion = new HashMap<>();
+    /** Estado de una sesión tal como se guarda en el snapshot. */
+    public record Snapshot(SessionDeck.Position deck, Map<String, Integer> votes, Set<String> usersVoted,
+                           List<String> remainingUsers, String lastQuestion) {
+    }
 
     public QuienEsMasProbableService(GameSessionRepository gameSessionRepository,
                                      QuienEsMasProbableRepository repository,
-                                     SimpMessagingTemplate messagingTemplate) {
+                                     TopicPublisher topicPublisher,
+                                     GameSessionStore sessionStore,
+                                     SessionExecutor sessionExecutor,
+                                     PlatformTransactionManager transactionManager) {
         this.gameSessionRepository = gameSessionRepository;
-        this.repository = repository;
-        this.messagingTemplate = messagingTemplate;
+        this.deckCache = new QuestionDeckCache<>(repository, QuienEsMasProbable::getTipo);
+        this.topicPublisher = topicPublisher;
+        this.sessionStore = sessionStore;
+        this.sessionStates = new SessionStateMap<>(k -> new SessionState(), sessionExecutor);
+        this.sessionExecutor = sessionExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
     public void start(String sessionCode) {
-        GameSession session = getSession(sessionCode);
-        List<QuienEsMasProbable> questions = repository.findAll();
-        if (questions.isEmpty()) {
-            throw new IllegalStateException("No hay preguntas disponibles.");
-        }
-        Collections.shuffle(questions);
-        sessionQuestions.put(sessionCode, new ArrayList<>(questions));
-        session.setCurrentGame("quien-es-mas-probable");
-        gameSessionRepository.save(session);
+        sessionExecutor.run(sessionCode, () -> transactionTemplate.executeWithoutResult(status -> {
+            GameSession session = getSession(sessionCode);
+            QuestionDeck<QuienEsMasProbable> deck = deckCache.refreshIfChanged();
+            if (deck.isEmpty()) {
+                throw new IllegalStateException("No hay preguntas disponibles.");
+            }
+            SessionDeck<QuienEsMasProbable> sessionDeck = deck.newSessionDeck(new Random());
+            sessionStates.update(sessionCode, state -> state.deck = sessionDeck);
+            session.setCurrentGame("quien-es-mas-probable");
+            gameSessionRepository.save(session);
+            sessionStore.invalidate(sessionCode);
+        }));
     }
 
     public String getNext(String sessionCode, String tipo) {
-        clearVotes(sessionCode);
-        sessionQuestions.putIfAbsent(sessionCode, new ArrayList<>(repository.findAll()));
-        List<QuienEsMasProbable> questions = sessionQuestions.get(sessionCode);
-
-        QuienEsMasProbable question = questions.stream()
-                .filter(q -> q.getTipo().equalsIgnoreCase(tipo))
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("No hay más preguntas disponibles."));
-        questions.remove(question);
-
-        String text = question.getTexto();
-        if (text.contains("{player}")) {
-            text = text.replace("{player}", getRandomUser(sessionCode).getUsername());
-        }
-        lastQuestion.put(sessionCode, text);
-        return text;
+        List<User> users = sessionStore.get(sessionCode).getUsers();
+        return sessionStates.update(sessionCode, state -> {
+            state.votes.clear();
+            state.usersVoted.clear();
+            if (state.deck == null) state.deck = deckCache.get().newSessionDeck(new Random());
+
+            QuienEsMasProbable question = state.deck.next(tipo);
+            if (question == null) throw new IllegalStateException("No hay más preguntas disponibles.");
+
+            String text = question.getTexto();
+            if (text.contains("{player}")) {
+                text = text.replace("{player}", pickRandomUser(state, users));
+            }
+            state.lastQuestion = text;
+            return text;
+        });
     }
 
     public String getLastQuestion(String sessionCode) {
-        return lastQuestion.get(sessionCode);
+        SessionState state = sessionStates.get(sessionCode);
+        return state != null ? state.lastQuestion : null;
     }
 
     public void registerVote(String sessionCode, String votingUser, String votedUser) {
-        sessionVotes.putIfAbsent(sessionCode, new HashMap<>());
-        sessionUsersVoted.putIfAbsent(sessionCode, new HashSet<>());
-
-        Map<String, Integer> votes = sessionVotes.get(sessionCode);
-        Set<String> usersVoted = sessionUsersVoted.get(sessionCode);
-
-        if (usersVoted.contains(votingUser)) {
-            throw new IllegalStateException("El usuario ya ha votado.");
-        }
-        votes.put(votedUser, votes.getOrDefault(votedUser, 0) + 1);
-        usersVoted.add(votingUser);
-
-        if (checkAllVoted(sessionCode)) {
-            messagingTemplate.convertAndSend("/topic/" + sessionCode,
-                    Map.of("event", "voteCompleted", "results", getVoteResults(sessionCode)));
+        List<User> users = sessionStore.get(sessionCode).getUsers();
+        String results = sessionStates.update(sessionCode, state -> {
+            if (state.usersVoted.contains(votingUser)) {
+                throw new IllegalStateException("El usuario ya ha votado.");
+            }
+            state.votes.merge(votedUser, 1, Integer::sum);
+            state.usersVoted.add(votingUser);
+            return allVoted(state, users) ? winner(state) : null;
+        });
+
+        // El broadcast se hace fuera del buzón de la sesión
+        if (results != null) {
+            topicPublisher.publish(sessionCode, GameEvents.voteCompleted(results));
         }
     }
 
     public String getVoteResults(String sessionCode) {
-        Map<String, Integer> votes = sessionVotes.get(sessionCode);
-        if (votes == null || votes.isEmpty()) {
+        String winner = sessionStates.updateIfPresent(sessionCode, QuienEsMasProbableService::winner, null);
+        if (winner == null) {
             throw new IllegalStateException("No hay votos registrados.");
         }
-        return votes.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .orElseThrow()
-                .getKey();
+        return winner;
     }
 
     public boolean checkAllVoted(String sessionCode) {
-        GameSession session = getSession(sessionCode);
-        Set<String> usersVoted = sessionUsersVoted.get(sessionCode);
-        if (usersVoted == null) return false;
-        return session.getUsers().stream().allMatch(u -> usersVoted.contains(u.getUsername()));
+        List<User> users = sessionStore.get(sessionCode).getUsers();
+        return sessionStates.updateIfPresent(sessionCode, state -> allVoted(state, users), false);
     }
 
     public void clearVotes(String sessionCode) {
-        sessionVotes.remove(sessionCode);
-        sessionUsersVoted.remove(sessionCode);
+        sessionStates.updateIfPresent(sessionCode, state -> {
+            state.votes.clear();
+            state.usersVoted.clear();
+            return null;
+        }, null);
     }
 
+    @Override
     public void cleanup(String sessionCode) {
-        sessionQuestions.remove(sessionCode);
-        clearVotes(sessionCode);
-        remainingUsers.remove(sessionCode);
-        lastQuestion.remove(sessionCode);
-    }
-
-    private User getRandomUser(String sessionCode) {
-        GameSession session = getSession(sessionCode);
-        List<User> users = session.getUsers();
-        List<User> remaining = remainingUsers.computeIfAbsent(sessionCode, k -> new ArrayList<>(users));
-        if (remaining.isEmpty()) remaining.addAll(users);
-        return remaining.remove(new Random().nextInt(remaining.size()));
+        sessionStates.remove(sessionCode);
+    }
+
+    // ─── Snapshot ────────────────────────────────────────────────────────────
+
+    @Override
+    public String snapshotKey() {
+        return "quien-es-mas-probable";
+    }
+
+    @Override
+    public Map<String, Snapshot> exportStates() {
+        return sessionStates.exportAll(QuienEsMasProbableService::toSnapshot);
+    }
+
+    @Override
+    public Snapshot exportState(String sessionCode) {
+        return sessionStates.export(sessionCode, QuienEsMasProbableService::toSnapshot);
+    }
+
+    private static Snapshot toSnapshot(SessionState state) {
+        return new Snapshot(
+                state.deck != null ? state.deck.position() : null, new HashMap<>(state.votes),
+                new HashSet<>(state.usersVoted), new ArrayList<>(state.remainingUsers), state.lastQuestion);
+    }
+
+    @Override
+    public void restoreStates(Map<String, Snapshot> states) {
+        if (states.isEmpty()) return;
+        QuestionDeck<QuienEsMasProbable> deck = deckCache.get(); // ya cargado por readShared
+        states.forEach((sessionCode, saved) -> {
+            SessionState state = new SessionState();
+            if (saved.deck() != null) state.deck = deck.resume(saved.deck(), new Random());
+            state.votes.putAll(saved.votes());
+            state.usersVoted.addAll(saved.usersVoted());
+            state.remainingUsers.addAll(saved.remainingUsers());
+            state.lastQuestion = saved.lastQuestion();
+            sessionStates.put(sessionCode, state);
+        });
+    }
+
+    @Override
+    public void writeState(Snapshot state, SnapshotWriter out) {
+        QuestionDeckCache.writePosition(out, state.deck());
+        out.writeMap(state.votes(), SnapshotWriter::writeInt)
+                .writeStrings(state.usersVoted())
+                .writeStrings(state.remainingUsers())
+                .writeString(state.lastQuestion());
+    }
+
+    @Override
+    public Snapshot readState(SnapshotReader in) {
+        return new Snapshot(QuestionDeckCache.readPosition(in), in.readMap(SnapshotReader::readInt),
+                in.readStrings(HashSet::new), in.readStrings(ArrayList::new), in.readString());
+    }
+
+    @Override
+    public void writeShared(SnapshotWriter out) {
+        deckCache.writeCatalog(out, QuienEsMasProbableService::writeQuestion);
+    }
+
+    @Override
+    public void readShared(SnapshotReader in) {
+        deckCache.readCatalog(in, QuienEsMasProbableService::readQuestion);
+    }
+
+    private static void writeQuestion(SnapshotWriter out, QuienEsMasProbable question) {
+        out.writeNullableLong(question.getId()).writeString(question.getTexto()).writeString(question.getTipo());
+    }
+
+    private static QuienEsMasProbable readQuestion(SnapshotReader in) {
+        QuienEsMasProbable question = new QuienEsMasProbable();
+        question.setId(in.readNullableLong());
+        question.setTexto(in.readString());
+        question.setTipo(in.readString());
+        return question;
+    }
+
+    // Los siguientes helpers deben llamarse desde el buzón de la sesión (SessionStateMap)
+
+    private static boolean allVoted(SessionState state, List<User> users) {
+        if (state.usersVoted.isEmpty()) return false;
+        return users.stream().allMatch(u -> state.usersVoted.contains(u.getUsername()));
+    }
+
+    private static String winner(SessionState state) {
+        return state.votes.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(null);
+    }
+
+    private static String pickRandomUser(SessionState state, List<User> users) {
+        if (state.remainingUsers.isEmpty()) users.forEach(u -> state.remainingUsers.add(u.getUsername()));
+        return state.remainingUsers.remove(new Random().nextInt(state.remainingUsers.size()));
     }
 
     private GameSession getSession(String sessionCode) {
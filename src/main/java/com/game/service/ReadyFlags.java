@@ -0,0 +1,105 @@
+package com.game.service;
+
+import com.game.repository.UserRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Escrituras del flag ready agrupadas por sesión.
+ * <ul>
+ *   <li>Los clics de "listo" se acumulan en memoria y los vuelca el buzón de la sesión en un
+ *       único batch JDBC. Mientras un volcado está en curso, los clics que llegan esperan al
+ *       siguiente: con 20 jugadores pulsando a la vez salen uno o dos batches, no 20 UPDATE.
+ *       Cada llamada espera a que su batch esté escrito, así que la respuesta ya es coherente con la BD.</li>
+ *   <li>Los reinicios de ronda ponen ready=false a toda la sesión con una sola sentencia
+ *       y descartan los clics aún no volcados.</li>
+ * </ul>
+ */
+@Component
+public class ReadyFlags {
+
+    private static final String MARK_READY_SQL = "UPDATE users SET ready = TRUE WHERE username = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final SessionExecutor sessionExecutor;
+    private final GameSessionStore sessionStore;
+
+    // sessionCode → clics pendientes de volcar
+    private final ConcurrentHashMap<String, Batch> pending = new ConcurrentHashMap<>();
+
+    public ReadyFlags(JdbcTemplate jdbcTemplate,
+                      UserRepository userRepository,
+                      SessionExecutor sessionExecutor,
+                      GameSessionStore sessionStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.sessionExecutor = sessionExecutor;
+        this.sessionStore = sessionStore;
+    }
+
+    /**
+     * Marca al usuario como listo y espera a que quede escrito. No llamar desde el buzón de la
+     * sesión ni con una conexión tomada: el volcado necesita la suya.
+     */
+    public void markReady(String sessionCode, String username) {
+        boolean[] first = {false};
+        Batch batch = pending.compute(sessionCode, (k, b) -> {
+            if (b == null) {
+                first[0] = true;
+                b = new Batch();
+            }
+            b.usernames.add(username);
+            return b;
+        });
+        if (first[0]) sessionExecutor.execute(sessionCode, () -> flush(sessionCode));
+        try {
+            batch.done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    /**
+     * Pone ready=false a todos los usuarios de la sesión con una sentencia, en el buzón de la
+     * sesión: si hay un volcado en curso, se espera a que termine antes del reinicio. Dentro del
+     * buzón (p. ej. en la transacción que reinicia la ronda) se une a esa transacción; fuera de
+     * él no debe llamarse con una conexión tomada, porque esperaría al buzón reteniéndola.
+     */
+    public void resetSession(String sessionCode, Long sessionId) {
+        sessionExecutor.run(sessionCode, () -> {
+            Batch dropped = pending.remove(sessionCode);
+            if (dropped != null) dropped.done.complete(null);
+            userRepository.resetReadyForSession(sessionId);
+            sessionStore.invalidate(sessionCode);
+        });
+    }
+
+    private void flush(String sessionCode) {
+        Batch batch = pending.remove(sessionCode);
+        if (batch == null) return;
+        try {
+            List<Object[]> args = new ArrayList<>(batch.usernames.size());
+            for (String username : batch.usernames) args.add(new Object[]{username});
+            jdbcTemplate.batchUpdate(MARK_READY_SQL, args);
+            sessionStore.invalidate(sessionCode);
+            batch.done.complete(null);
+        } catch (RuntimeException e) {
+            batch.done.completeExceptionally(e);
+        }
+    }
+
+    private static final class Batch {
+        private final Set<String> usernames = new LinkedHashSet<>();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+    }
+}
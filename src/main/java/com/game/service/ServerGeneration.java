@@ -0,0 +1,43 @@
+package com.game.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Identificador de esta ejecución del servidor. Cada sesión guarda en BD la generación que
+ * tiene su estado en memoria; si no coincide con la actual, la sesión viene de un proceso
+ * anterior y se adopta la primera vez que se accede a ella
+ * ({@link GameSessionService#ensureCurrentGeneration}).
+ * <p>
+ * Los códigos ya comprobados se recuerdan aquí para que el resto de accesos no consulten la BD.
+ */
+@Component
+public class ServerGeneration {
+
+    private final String id = UUID.randomUUID().toString();
+    private final Set<String> current = ConcurrentHashMap.newKeySet();
+
+    public String id() {
+        return id;
+    }
+
+    public boolean isCurrent(String sessionCode) {
+        return current.contains(sessionCode);
+    }
+
+    /** La sesión ya tiene esta generación en BD (recién creada, adoptada o restaurada). */
+    public void markCurrent(String sessionCode) {
+        current.add(sessionCode);
+    }
+
+    public void forget(String sessionCode) {
+        current.remove(sessionCode);
+    }
+
+    public Set<String> currentSessions() {
+        return Set.copyOf(current);
+    }
+}
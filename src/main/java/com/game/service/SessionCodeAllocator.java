@@ -0,0 +1,104 @@
+package com.game.service;
+
+import com.game.repository.GameSessionRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Asigna códigos de sesión de 4 dígitos (1000-9999) sin colisiones.
+ * Mantiene una lista de códigos libres: tomar uno al azar y liberarlo son O(1),
+ * por lo que nunca hace falta reintentar contra la base de datos.
+ */
+@Component
+public class SessionCodeAllocator {
+
+    static final int MIN_CODE = 1000;
+    static final int CAPACITY = 9000;
+
+    private final GameSessionRepository gameSessionRepository;
+
+    // free[0..freeCount) son los códigos libres (como offset desde MIN_CODE)
+    private final int[] free = new int[CAPACITY];
+    // position[offset] → índice en free, o -1 si el código está en uso
+    private final int[] position = new int[CAPACITY];
+    private int freeCount;
+    private boolean initialized = false;
+
+    public SessionCodeAllocator(GameSessionRepository gameSessionRepository) {
+        this.gameSessionRepository = gameSessionRepository;
+        for (int i = 0; i < CAPACITY; i++) {
+            free[i] = i;
+            position[i] = i;
+        }
+        freeCount = CAPACITY;
+    }
+
+    /**
+     * Reserva un código libre al azar.
+     *
+     * @throws IllegalStateException si los 9000 códigos están en uso
+     */
+    public synchronized String allocate() {
+        ensureInitialized();
+        if (freeCount == 0) {
+            throw new IllegalStateException("No hay códigos de sesión disponibles.");
+        }
+        int offset = free[ThreadLocalRandom.current().nextInt(freeCount)];
+        take(offset);
+        return String.valueOf(MIN_CODE + offset);
+    }
+
+    /** Devuelve un código al conjunto de libres (la sesión fue eliminada). */
+    public synchronized void release(String sessionCode) {
+        int offset = toOffset(sessionCode);
+        if (offset < 0 || position[offset] >= 0) return;
+        free[freeCount] = offset;
+        position[offset] = freeCount;
+        freeCount++;
+    }
+
+    /** Marca como usado un código existente (por ejemplo, sesiones ya guardadas en BD). */
+    public synchronized void reserve(String sessionCode) {
+        int offset = toOffset(sessionCode);
+        if (offset >= 0 && position[offset] >= 0) take(offset);
+    }
+
+    public synchronized int available() {
+        ensureInitialized();
+        return freeCount;
+    }
+
+    /** Sesiones con código asignado (0 hasta la primera asignación). */
+    public synchronized int inUse() {
+        return initialized ? CAPACITY - freeCount : 0;
+    }
+
+    // Carga perezosa: se ejecuta en la primera asignación, después de la limpieza de arranque.
+    // Solo se da por hecha si la consulta a BD funcionó; si falla, la siguiente llamada reintenta
+    // en lugar de repartir códigos que ya están en uso.
+    private void ensureInitialized() {
+        if (initialized) return;
+        gameSessionRepository.findAllSessionCodes().forEach(this::reserve);
+        initialized = true;
+    }
+
+    private void take(int offset) {
+        int idx = position[offset];
+        int last = free[freeCount - 1];
+        free[idx] = last;
+        position[last] = idx;
+        position[offset] = -1;
+        freeCount--;
+    }
+
+    private static int toOffset(String sessionCode) {
+        if (sessionCode == null) return -1;
+        try {
+            int offset = Integer.parseInt(sessionCode) - MIN_CODE;
+            return offset >= 0 && offset < CAPACITY ? offset : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
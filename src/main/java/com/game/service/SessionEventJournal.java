@@ -0,0 +1,140 @@
+package com.game.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Últimos eventos publicados en /topic/{sessionCode}, numerados por sesión.
+ * Un cliente que se reconecta indica el último número que recibió y se le reenvían
+ * los siguientes desde memoria, sin pasar por /sync ni por la base de datos.
+ * <p>
+ * La numeración de cada sesión arranca en una época tomada de la hora en que se crea su anillo
+ * (milisegundos × {@value #SEQS_PER_MILLI}), no en 1: tras un reinicio, o si la sesión se borra
+ * y se vuelve a crear, los números nuevos son mayores que cualquiera anterior. Un {@code lastSeq}
+ * de antes cae así por debajo del anillo y se contesta con resync, en lugar de repetir una parte
+ * de los eventos nuevos; y el cliente, que descarta los seq que ya aplicó, no descarta los nuevos.
+ */
+@Component
+public class SessionEventJournal {
+
+    static final long SEQS_PER_MILLI = 1000;
+
+    private final int capacity;
+    // Último número asignado o reservado al crear/borrar anillos; entre procesos basta con que
+    // una sesión no publique más de SEQS_PER_MILLI eventos por milisegundo de vida
+    private final AtomicLong epochs = new AtomicLong();
+    // sessionCode → anillo con los últimos eventos
+    private final ConcurrentHashMap<String, Ring> rings = new ConcurrentHashMap<>();
+
+    public SessionEventJournal(@Value("${game.events.journal-size:256}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Numera y guarda el evento; {@code send} se ejecuta con el número asignado antes de
+     * soltar el anillo, así el orden de envío coincide con el de numeración.
+     */
+    public long append(String sessionCode, byte[] event, LongConsumer send) {
+        Ring ring = rings.computeIfAbsent(sessionCode, k -> new Ring(capacity, nextEpoch()));
+        synchronized (ring) {
+            long seq = ring.add(event);
+            send.accept(seq);
+            return seq;
+        }
+    }
+
+    private long nextEpoch() {
+        long now = System.currentTimeMillis() * SEQS_PER_MILLI;
+        return epochs.updateAndGet(prev -> Math.max(prev + 1, now));
+    }
+
+    /**
+     * Eventos posteriores a {@code lastSeq}, en orden ({@code 0}: desde el primero). Devuelve
+     * null si alguno ya salió del anillo o el número es de otra época (antes de un reinicio o de
+     * que la sesión se volviera a crear): el cliente debe pedir /sync.
+     */
+    public List<Entry> since(String sessionCode, long lastSeq) {
+        Ring ring = rings.get(sessionCode);
+        if (ring == null) return lastSeq == 0 ? List.of() : null;
+        synchronized (ring) {
+            return ring.since(lastSeq);
+        }
+    }
+
+    /** Último número asignado en la sesión (0 si aún no hubo eventos). */
+    public long lastSeq(String sessionCode) {
+        Ring ring = rings.get(sessionCode);
+        if (ring == null) return 0;
+        synchronized (ring) {
+            return ring.nextSeq == ring.epoch ? 0 : ring.nextSeq - 1;
+        }
+    }
+
+    public void remove(String sessionCode) {
+        Ring ring = rings.remove(sessionCode);
+        if (ring == null) return;
+        // Si la sesión se vuelve a crear, su época queda por encima de lo ya publicado
+        synchronized (ring) {
+            long last = ring.nextSeq - 1;
+            epochs.accumulateAndGet(last, Math::max);
+        }
+    }
+
+    /** Bytes de eventos retenidos para la sesión. */
+    public long retainedBytes(String sessionCode) {
+        Ring ring = rings.get(sessionCode);
+        if (ring == null) return 0;
+        long bytes = 0;
+        synchronized (ring) {
+            for (byte[] event : ring.events) {
+                if (event != null) bytes += event.length;
+            }
+        }
+        return bytes;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Entry {
+        private final long seq;
+        private final byte[] event;
+    }
+
+    private static final class Ring {
+        private final byte[][] events;
+        private final long epoch; // primer número de la sesión
+        private long nextSeq;
+
+        Ring(int capacity, long epoch) {
+            this.events = new byte[capacity][];
+            this.epoch = epoch;
+            this.nextSeq = epoch;
+        }
+
+        long add(byte[] event) {
+            long seq = nextSeq++;
+            events[(int) (seq % events.length)] = event;
+            return seq;
+        }
+
+        List<Entry> since(long lastSeq) {
+            if (lastSeq == 0) lastSeq = epoch - 1;
+            long last = nextSeq - 1;
+            long oldest = Math.max(epoch, nextSeq - events.length);
+            if (lastSeq > last || lastSeq < oldest - 1) return null;
+            List<Entry> result = new ArrayList<>((int) (last - lastSeq));
+            for (long seq = lastSeq + 1; seq <= last; seq++) {
+                result.add(new Entry(seq, events[(int) (seq % events.length)]));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.game.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta las mutaciones de cada sesión de juego de una en una, en orden de llegada
+ * (un buzón por sessionCode drenado por un hilo virtual). Votos, siguiente pregunta,
+ * expulsiones, desconexiones y timers de una misma sesión nunca corren en paralelo,
+ * mientras que sesiones distintas avanzan de forma independiente y sin locks.
+ * <p>
+ * No se debe esperar a un buzón ({@link #call}, {@link #run}) con una conexión tomada, sea por
+ * una transacción abierta o por un EntityManager que la retiene (por eso open-in-view está
+ * desactivado): la tarea puede necesitar otra conexión del pool y, con varias peticiones así a
+ * la vez, el pool se agota. Los métodos que escriben en BD y en el estado de la sesión abren la
+ * transacción dentro de la tarea del buzón (TransactionTemplate) en lugar de usar @Transactional.
+ */
+@Component
+public class SessionExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionExecutor.class);
+
+    // sessionCode que se está procesando en el hilo actual (permite llamadas reentrantes)
+    private static final ThreadLocal<String> CURRENT_SESSION = new ThreadLocal<>();
+
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentHashMap<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    // Avisados tras cada tarea del buzón (la sesión pudo cambiar)
+    private final List<Consumer<String>> taskListeners = new CopyOnWriteArrayList<>();
+    // Se aplica al encolar, en el hilo de quien encola (p. ej. para propagar contexto de métricas)
+    private volatile TaskDecorator taskDecorator;
+
+    /**
+     * Ejecuta la tarea en el buzón de la sesión y espera su resultado.
+     * Las excepciones de la tarea se relanzan tal cual al llamador.
+     */
+    public <T> T call(String sessionCode, Supplier<T> task) {
+        if (sessionCode.equals(CURRENT_SESSION.get())) return task.get();
+        try {
+            return submit(sessionCode, task).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    public void run(String sessionCode, Runnable task) {
+        call(sessionCode, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /** Encola la tarea sin esperar (timers, eventos de WebSocket). Los errores se registran. */
+    public void execute(String sessionCode, Runnable task) {
+        submit(sessionCode, () -> {
+            task.run();
+            return null;
+        }).exceptionally(e -> {
+            log.warn("Tarea de la sesión {} falló", sessionCode, e);
+            return null;
+        });
+    }
+
+    public <T> CompletableFuture<T> submit(String sessionCode, Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable wrapped = () -> {
+            // Los listeners se avisan antes de completar: quien espera ya ve el cambio
+            try {
+                T value = task.get();
+                notifyListeners(sessionCode);
+                result.complete(value);
+            } catch (Throwable t) {
+                notifyListeners(sessionCode);
+                result.completeExceptionally(t);
+            }
+        };
+        TaskDecorator decorator = taskDecorator;
+        Runnable queued = decorator != null ? decorator.decorate(wrapped) : wrapped;
+        // Encolar dentro de compute para no competir con remove()
+        Mailbox mailbox = mailboxes.compute(sessionCode, (k, current) -> {
+            Mailbox box = current != null ? current : new Mailbox(k);
+            box.queue.add(queued);
+            return box;
+        });
+        mailbox.schedule();
+        return result;
+    }
+
+    public void afterEachTask(Consumer<String> listener) {
+        taskListeners.add(listener);
+    }
+
+    public void setTaskDecorator(TaskDecorator taskDecorator) {
+        this.taskDecorator = taskDecorator;
+    }
+
+    /** Descarta el buzón de la sesión si está vacío e inactivo. */
+    public void remove(String sessionCode) {
+        mailboxes.computeIfPresent(sessionCode, (k, mailbox) -> mailbox.isIdle() ? null : mailbox);
+    }
+
+    public int size() {
+        return mailboxes.size();
+    }
+
+    private void notifyListeners(String sessionCode) {
+        for (Consumer<String> listener : taskListeners) listener.accept(sessionCode);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private final class Mailbox {
+        private final String sessionCode;
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean running = new AtomicBoolean(false);
+
+        Mailbox(String sessionCode) {
+            this.sessionCode = sessionCode;
+        }
+
+        void schedule() {
+            if (running.compareAndSet(false, true)) {
+                workers.execute(this::drain);
+            }
+        }
+
+        boolean isIdle() {
+            return !running.get() && queue.isEmpty();
+        }
+
+        private void drain() {
+            CURRENT_SESSION.set(sessionCode);
+            try {
+                Runnable task;
+                while ((task = queue.poll()) != null) task.run();
+            } finally {
+                CURRENT_SESSION.remove();
+                running.set(false);
+            }
+            // Una tarea pudo llegar entre el último poll y liberar el flag
+            if (!queue.isEmpty()) schedule();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.game.service;
+
+import com.game.repository.GameSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Elimina las sesiones abandonadas: sin actividad durante game.sessions.idle-ttl-minutes y
+ * sin nadie conectado por WebSocket (el grupo cerró el navegador sin pulsar "terminar juego").
+ * Se borran sus filas en BD y todo lo que guardan de ella los componentes en memoria, y el
+ * código vuelve a quedar libre. Así el heap no crece con las sesiones ya jugadas.
+ * <p>
+ * Cuenta como actividad cada petición a la sesión, cada conexión WebSocket y cada tarea de su
+ * buzón. Las sesiones que siguen en BD de un proceso anterior cuentan desde el arranque.
+ * <p>
+ * En /api/metrics: sesiones eliminadas ({@link GameMetrics#SESSIONS_REAPED}) y bytes liberados
+ * ({@link GameMetrics#REAPED_BYTES}, estimados como el estado de juego codificado más los
+ * eventos del journal).
+ */
+@Component
+public class SessionReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionReaper.class);
+    private static final String REASON = "idle";
+
+    private final GameSessionService gameSessionService;
+    private final GameSessionRepository gameSessionRepository;
+    private final List<GameStateParticipant<?>> participants;
+    private final PreguntasDirectasService preguntasDirectasService;
+    private final GameSessionStore sessionStore;
+    private final SessionSyncTracker syncTracker;
+    private final SessionEventJournal journal;
+    private final GameTimerService gameTimers;
+    private final WebSocketSessionRegistry sessionRegistry;
+    private final SessionCodeAllocator codeAllocator;
+    private final SessionExecutor sessionExecutor;
+    private final ServerGeneration serverGeneration;
+    private final GameMetrics metrics;
+    private final long idleTtlNanos;
+
+    // sessionCode → System.nanoTime() de la última actividad
+    private final ConcurrentHashMap<String, AtomicLong> lastActivity = new ConcurrentHashMap<>();
+    private final long startedAt = System.nanoTime();
+    private volatile boolean seeded = false;
+
+    public SessionReaper(GameSessionService gameSessionService,
+                         GameSessionRepository gameSessionRepository,
+                         List<GameStateParticipant<?>> participants,
+                         PreguntasDirectasService preguntasDirectasService,
+                         GameSessionStore sessionStore,
+                         SessionSyncTracker syncTracker,
+                         SessionEventJournal journal,
+                         GameTimerService gameTimers,
+                         WebSocketSessionRegistry sessionRegistry,
+                         SessionCodeAllocator codeAllocator,
+                         SessionExecutor sessionExecutor,
+                         ServerGeneration serverGeneration,
+                         GameMetrics metrics,
+                         @Value("${game.sessions.idle-ttl-minutes:30}") long idleTtlMinutes) {
+        this.gameSessionService = gameSessionService;
+        this.gameSessionRepository = gameSessionRepository;
+        this.participants = participants;
+        this.preguntasDirectasService = preguntasDirectasService;
+        this.sessionStore = sessionStore;
+        this.syncTracker = syncTracker;
+        this.journal = journal;
+        this.gameTimers = gameTimers;
+        this.sessionRegistry = sessionRegistry;
+        this.codeAllocator = codeAllocator;
+        this.sessionExecutor = sessionExecutor;
+        this.serverGeneration = serverGeneration;
+        this.metrics = metrics;
+        this.idleTtlNanos = Duration.ofMinutes(idleTtlMinutes).toNanos();
+        sessionExecutor.afterEachTask(this::touch);
+    }
+
+    /** Registra actividad en una sesión viva de este proceso. */
+    public void touch(String sessionCode) {
+        if (!serverGeneration.isCurrent(sessionCode)) return;
+        lastActivity.computeIfAbsent(sessionCode, k -> new AtomicLong()).set(System.nanoTime());
+    }
+
+    /** Sesiones con actividad registrada o pendientes de caducar. */
+    public int trackedSessions() {
+        return lastActivity.size();
+    }
+
+    /** @return sesiones eliminadas */
+    @Scheduled(initialDelayString = "${game.sessions.reaper-interval-ms:60000}",
+            fixedDelayString = "${game.sessions.reaper-interval-ms:60000}")
+    public int reap() {
+        seedFromDatabase();
+        long now = System.nanoTime();
+        // Sesiones creadas o restauradas sin actividad todavía: su plazo empieza ahora
+        for (String sessionCode : serverGeneration.currentSessions()) {
+            lastActivity.putIfAbsent(sessionCode, new AtomicLong(now));
+        }
+        List<String> idle = new ArrayList<>();
+        lastActivity.forEach((sessionCode, last) -> {
+            if (isIdle(sessionCode, last, now)) idle.add(sessionCode);
+        });
+        if (idle.isEmpty()) return 0;
+
+        // Todo en el buzón de cada sesión: se vuelve a comprobar, se borra de BD y se libera.
+        // Una petición que llegue después ya no encuentra la sesión y no la vuelve a adoptar.
+        int reaped = 0;
+        long bytes = 0;
+        for (String sessionCode : idle) {
+            long freed;
+            try {
+                freed = sessionExecutor.call(sessionCode, () -> reapInMailbox(sessionCode, now));
+            } catch (RuntimeException e) {
+                log.warn("No se pudo eliminar la sesión inactiva {}", sessionCode, e);
+                continue;
+            }
+            if (freed < 0) continue;
+            sessionExecutor.remove(sessionCode);
+            reaped++;
+            bytes += freed;
+        }
+        if (reaped == 0) return 0;
+
+        metrics.add(GameMetrics.SESSIONS_REAPED, REASON, reaped);
+        metrics.add(GameMetrics.REAPED_BYTES, REASON, bytes);
+        log.info("Eliminadas {} sesiones inactivas (~{} bytes en memoria)", reaped, bytes);
+        return reaped;
+    }
+
+    /** @return bytes liberados, o -1 si la sesión ha vuelto a tener actividad */
+    private long reapInMailbox(String sessionCode, long now) {
+        AtomicLong last = lastActivity.get(sessionCode);
+        if (last == null || !isIdle(sessionCode, last, now)) return -1;
+        long bytes = retainedBytes(sessionCode);
+        gameSessionService.deleteSessions(List.of(sessionCode));
+        lastActivity.remove(sessionCode);
+        serverGeneration.forget(sessionCode);
+        release(sessionCode);
+        return bytes;
+    }
+
+    private boolean isIdle(String sessionCode, AtomicLong last, long now) {
+        return now - last.get() >= idleTtlNanos && sessionRegistry.getConnected(sessionCode).isEmpty();
+    }
+
+    // Sesiones que siguen en BD sin que nadie las haya tocado desde el arranque (una vez)
+    private void seedFromDatabase() {
+        if (seeded) return;
+        for (String sessionCode : gameSessionRepository.findAllSessionCodes()) {
+            lastActivity.putIfAbsent(sessionCode, new AtomicLong(startedAt));
+        }
+        seeded = true;
+    }
+
+    private long retainedBytes(String sessionCode) {
+        long bytes = journal.retainedBytes(sessionCode);
+        for (GameStateParticipant<?> participant : participants) {
+            bytes += encodedSize(participant, sessionCode);
+        }
+        return bytes;
+    }
+
+    private static <D> int encodedSize(GameStateParticipant<D> participant, String sessionCode) {
+        D state = participant.exportState(sessionCode);
+        if (state == null) return 0;
+        SnapshotWriter out = new SnapshotWriter();
+        participant.writeState(state, out);
+        return out.size();
+    }
+
+    // Todo lo que se guarda en memoria por sessionCode; el código se libera al final.
+    // El buzón se quita después, cuando ya no está ejecutando esta tarea.
+    private void release(String sessionCode) {
+        participants.forEach(participant -> participant.evict(sessionCode));
+        preguntasDirectasService.cleanup(sessionCode);
+        gameTimers.cancelAll(sessionCode);
+        sessionStore.remove(sessionCode);
+        syncTracker.remove(sessionCode);
+        journal.remove(sessionCode);
+        sessionRegistry.remove(sessionCode);
+        codeAllocator.release(sessionCode);
+    }
+}
@@ -0,0 +1,83 @@
+package com.game.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Estado en memoria de un juego por sessionCode, seguro entre hilos.
+ * Las modificaciones se ejecutan en el buzón de la sesión ({@link SessionExecutor}),
+ * así que cada estado tiene un único escritor y sesiones distintas no comparten locks.
+ *
+ * @param <S> clase de estado del juego (mutable, solo se toca dentro de {@link #update})
+ */
+public class SessionStateMap<S> {
+
+    private final ConcurrentHashMap<String, S> states = new ConcurrentHashMap<>();
+    private final Function<String, S> factory;
+    private final SessionExecutor executor;
+
+    /** @param factory crea el estado inicial cuando una sesión aún no tiene uno */
+    public SessionStateMap(Function<String, S> factory, SessionExecutor executor) {
+        this.factory = factory;
+        this.executor = executor;
+    }
+
+    /** Estado actual de la sesión, o null si no existe. No espera al buzón. */
+    public S get(String sessionCode) {
+        return states.get(sessionCode);
+    }
+
+    /** Reemplaza el estado de la sesión (por ejemplo, al iniciar un juego). */
+    public void put(String sessionCode, S state) {
+        executor.run(sessionCode, () -> states.put(sessionCode, state));
+    }
+
+    /**
+     * Ejecuta la acción como único escritor del estado de la sesión, creándolo si no existe.
+     * La acción no debe hacer E/S bloqueante ni enviar mensajes.
+     */
+    public <R> R update(String sessionCode, Function<S, R> action) {
+        return executor.call(sessionCode, () -> action.apply(states.computeIfAbsent(sessionCode, factory)));
+    }
+
+    /** Como {@link #update}, pero no crea el estado: devuelve {@code ifAbsent} si no existe. */
+    public <R> R updateIfPresent(String sessionCode, Function<S, R> action, R ifAbsent) {
+        return executor.call(sessionCode, () -> {
+            S state = states.get(sessionCode);
+            return state != null ? action.apply(state) : ifAbsent;
+        });
+    }
+
+    public S remove(String sessionCode) {
+        return executor.call(sessionCode, () -> states.remove(sessionCode));
+    }
+
+    /** Convierte el estado de la sesión, leído en su buzón; null si no tiene. */
+    public <D> D export(String sessionCode, Function<S, D> exporter) {
+        return executor.call(sessionCode, () -> {
+            S state = states.get(sessionCode);
+            return state != null ? exporter.apply(state) : null;
+        });
+    }
+
+    /** Convierte el estado de cada sesión, cada una leída en su buzón (para snapshots). */
+    public <D> Map<String, D> exportAll(Function<S, D> exporter) {
+        Map<String, D> exported = new HashMap<>();
+        for (String sessionCode : states.keySet()) {
+            D value = export(sessionCode, exporter);
+            if (value != null) exported.put(sessionCode, value);
+        }
+        return exported;
+    }
+
+    public Set<String> sessionCodes() {
+        return states.keySet();
+    }
+
+    public int size() {
+        return states.size();
+    }
+}
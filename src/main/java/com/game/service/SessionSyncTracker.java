@@ -0,0 +1,172 @@
+package com.game.service;
+
+import com.game.dto.GameStateDTO;
+import com.game.dto.SessionSyncDTO;
+import com.game.dto.SyncUserDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Versión por sesión de la vista de sincronización (usuarios + estado del juego).
+ * <p>
+ * Cada escritura en BD o tarea del buzón de la sesión marca la sesión como "posiblemente
+ * cambiada" (un contador barato). La vista solo se reconstruye cuando hay una marca nueva,
+ * y la versión solo sube si el contenido cambió de verdad. Se guardan las últimas
+ * {@value #HISTORY} versiones para calcular deltas contra lo que tiene el cliente.
+ * <p>
+ * Las versiones salen de un único contador del proceso que arranca en la hora de inicio
+ * (milisegundos × {@value #VERSIONS_PER_MILLI}): no se repiten entre sesiones, ni cuando una
+ * sesión se borra y se vuelve a crear, ni tras un reinicio. Así la versión que guardaba un
+ * cliente antes de reiniciar el servidor nunca coincide con una de ahora y se le responde con
+ * la vista completa, en lugar de un 304 o un delta contra otra base.
+ */
+@Component
+public class SessionSyncTracker {
+
+    static final int HISTORY = 32;
+    static final long VERSIONS_PER_MILLI = 1000;
+
+    // Siguiente versión; basta con que el proceso anterior no generase más de
+    // VERSIONS_PER_MILLI versiones por milisegundo de vida
+    private final AtomicLong versions = new AtomicLong(System.currentTimeMillis() * VERSIONS_PER_MILLI);
+
+    // sessionCode → marca de cambios (sube en cada posible modificación)
+    private final ConcurrentHashMap<String, AtomicLong> stamps = new ConcurrentHashMap<>();
+    // sessionCode → última vista calculada y sus versiones anteriores
+    private final ConcurrentHashMap<String, Tracked> tracked = new ConcurrentHashMap<>();
+
+    public SessionSyncTracker(GameSessionStore sessionStore, SessionExecutor sessionExecutor) {
+        sessionStore.onEvict(this::markChanged);
+        sessionExecutor.afterEachTask(this::markChanged);
+    }
+
+    public void markChanged(String sessionCode) {
+        AtomicLong stamp = stamps.get(sessionCode);
+        if (stamp != null) stamp.incrementAndGet();
+    }
+
+    /**
+     * Vista actual de la sesión; {@code builder} solo se llama si hubo cambios desde
+     * la última vez.
+     */
+    public Versioned current(String sessionCode, Supplier<SessionSyncDTO> builder) {
+        long stamp = stamps.computeIfAbsent(sessionCode, k -> new AtomicLong()).get();
+        Tracked known = tracked.get(sessionCode);
+        if (known != null && known.stamp == stamp) return known.current();
+
+        SyncView view = SyncView.of(builder.get());
+        return tracked.compute(sessionCode, (k, prev) -> {
+            if (prev == null) return new Tracked(stamp, List.of(new Versioned(versions.incrementAndGet(), view)));
+            if (prev.stamp > stamp) return prev; // otro hilo guardó una vista más reciente
+            Versioned last = prev.current();
+            if (last.view.equals(view)) return new Tracked(stamp, prev.history);
+
+            List<Versioned> history = new ArrayList<>(prev.history.size() + 1);
+            history.addAll(prev.history.size() < HISTORY ? prev.history
+                    : prev.history.subList(1, prev.history.size()));
+            history.add(new Versioned(versions.incrementAndGet(), view));
+            return new Tracked(stamp, List.copyOf(history));
+        }).current();
+    }
+
+    /** Vista que tenía la sesión en esa versión, o null si ya no se conserva. */
+    public SyncView at(String sessionCode, long version) {
+        Tracked known = tracked.get(sessionCode);
+        if (known == null) return null;
+        for (Versioned v : known.history) {
+            if (v.version == version) return v.view;
+        }
+        return null;
+    }
+
+    public void remove(String sessionCode) {
+        stamps.remove(sessionCode);
+        tracked.remove(sessionCode);
+    }
+
+    @AllArgsConstructor
+    private static final class Tracked {
+        private final long stamp;
+        private final List<Versioned> history; // la última es la actual
+
+        Versioned current() {
+            return history.get(history.size() - 1);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Versioned {
+        private final long version;
+        private final SyncView view;
+    }
+
+    /**
+     * Vista inmutable de una sesión, preparada para comparar: usuarios por nombre y el
+     * resto de campos como mapa anidado.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class SyncView {
+        private final SessionSyncDTO full;
+        private final Map<String, SyncUserDTO> users;
+        private final Map<String, Object> fields;
+
+        static SyncView of(SessionSyncDTO dto) {
+            Map<String, SyncUserDTO> users = new LinkedHashMap<>();
+            dto.getUsers().forEach(u -> users.put(u.getUsername(), u));
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("creator", dto.getCreator());
+            fields.put("currentGame", dto.getCurrentGame());
+            fields.put("gameState", dto.getGameState() == null ? null : toMap(dto.getGameState()));
+            return new SyncView(dto, Collections.unmodifiableMap(users), Collections.unmodifiableMap(fields));
+        }
+
+        private static Map<String, Object> toMap(GameStateDTO state) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("status", state.getStatus());
+            map.put("roundId", state.getRoundId());
+            map.put("phase", state.getPhase());
+            map.put("currentQuestionData", state.getCurrentQuestionData());
+            return map;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SyncView other && users.equals(other.users) && fields.equals(other.fields);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(users, fields);
+        }
+    }
+
+    /**
+     * Campos de {@code after} que difieren de {@code before}. Los mapas anidados se comparan
+     * campo a campo; un campo que desaparece se devuelve con valor null.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> diff(Map<String, Object> before, Map<String, Object> after) {
+        Map<String, Object> changed = new LinkedHashMap<>();
+        after.forEach((key, value) -> {
+            Object old = before.get(key);
+            if (Objects.equals(old, value) && before.containsKey(key)) return;
+            if (old instanceof Map && value instanceof Map) {
+                changed.put(key, diff((Map<String, Object>) old, (Map<String, Object>) value));
+            } else {
+                changed.put(key, value);
+            }
+        });
+        before.keySet().forEach(key -> {
+            if (!after.containsKey(key)) changed.put(key, null);
+        });
+        return changed;
+    }
+}
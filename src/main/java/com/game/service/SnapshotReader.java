@@ -0,0 +1,87 @@
+package com.game.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Lectura de lo escrito con {@link SnapshotWriter}, directamente sobre el buffer
+ * (normalmente el fichero mapeado en memoria, sin copiarlo antes).
+ */
+public final class SnapshotReader {
+
+    private final ByteBuffer buffer;
+
+    public SnapshotReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public int readInt() {
+        return buffer.getInt();
+    }
+
+    public long readLong() {
+        return buffer.getLong();
+    }
+
+    public boolean readBoolean() {
+        return buffer.get() != 0;
+    }
+
+    public Long readNullableLong() {
+        return readBoolean() ? readLong() : null;
+    }
+
+    public String readString() {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Bloque escrito con {@link SnapshotWriter#writeBytes}, como lector independiente. */
+    public SnapshotReader readBlock() {
+        int length = buffer.getInt();
+        ByteBuffer block = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return new SnapshotReader(block);
+    }
+
+    public int[] readInts() {
+        int[] values = new int[buffer.getInt()];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * 4);
+        return values;
+    }
+
+    public <C extends Collection<String>> C readStrings(Supplier<C> collection) {
+        C values = collection.get();
+        int size = buffer.getInt();
+        for (int i = 0; i < size; i++) values.add(readString());
+        return values;
+    }
+
+    public <T> List<T> readList(Function<SnapshotReader, T> element) {
+        int size = buffer.getInt();
+        List<T> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) values.add(element.apply(this));
+        return values;
+    }
+
+    public <V> Map<String, V> readMap(Function<SnapshotReader, V> value) {
+        int size = buffer.getInt();
+        Map<String, V> values = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            String key = readString();
+            values.put(key, value.apply(this));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,96 @@
+package com.game.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Codificación binaria compacta del snapshot de juegos ({@link GameStateSnapshotter}).
+ * Big-endian; cadenas en UTF-8 con su longitud delante; -1 como longitud marca null.
+ * Se lee con {@link SnapshotReader} en el mismo orden.
+ */
+public final class SnapshotWriter {
+
+    private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+    public SnapshotWriter writeInt(int value) {
+        ensure(4).putInt(value);
+        return this;
+    }
+
+    public SnapshotWriter writeLong(long value) {
+        ensure(8).putLong(value);
+        return this;
+    }
+
+    public SnapshotWriter writeBoolean(boolean value) {
+        ensure(1).put((byte) (value ? 1 : 0));
+        return this;
+    }
+
+    public SnapshotWriter writeNullableLong(Long value) {
+        writeBoolean(value != null);
+        if (value != null) writeLong(value);
+        return this;
+    }
+
+    public SnapshotWriter writeString(String value) {
+        if (value == null) return writeInt(-1);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        ensure(bytes.length).put(bytes);
+        return this;
+    }
+
+    public SnapshotWriter writeBytes(byte[] bytes, int length) {
+        writeInt(length);
+        ensure(length).put(bytes, 0, length);
+        return this;
+    }
+
+    public SnapshotWriter writeInts(int[] values) {
+        writeInt(values.length);
+        ensure(values.length * 4).asIntBuffer().put(values);
+        buffer.position(buffer.position() + values.length * 4);
+        return this;
+    }
+
+    public SnapshotWriter writeStrings(Collection<String> values) {
+        return writeList(values, SnapshotWriter::writeString);
+    }
+
+    public <T> SnapshotWriter writeList(Collection<T> values, BiConsumer<SnapshotWriter, T> element) {
+        writeInt(values.size());
+        for (T value : values) element.accept(this, value);
+        return this;
+    }
+
+    public <V> SnapshotWriter writeMap(Map<String, V> values, BiConsumer<SnapshotWriter, V> value) {
+        writeInt(values.size());
+        values.forEach((k, v) -> {
+            writeString(k);
+            value.accept(this, v);
+        });
+        return this;
+    }
+
+    /** Bytes escritos; válidos hasta la siguiente escritura. */
+    public byte[] array() {
+        return buffer.array();
+    }
+
+    public int size() {
+        return buffer.position();
+    }
+
+    private ByteBuffer ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            grown.put(buffer.flip());
+            buffer = grown;
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,113 @@
+package com.game.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Arranque en fases, con el tiempo de cada una en el log y en /api/metrics ("startup.phase"):
+ * <ol>
+ *     <li>Antes de que Tomcat acepte conexiones: purga con sentencias masivas de las sesiones
+ *     creadas hace más de game.sessions.max-age-hours y restauración del estado de los juegos
+ *     ({@link GameStateSnapshotter}). El resto de sesiones se adoptan al primer acceso.</li>
+ *     <li>Seeders en paralelo y en segundo plano. Mientras corren, StartupGateFilter retiene
+ *     las peticiones a /api hasta que terminen ({@link #awaitReady}).</li>
+ * </ol>
+ */
+@Component
+public class StartupPipeline implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupPipeline.class);
+    private static final String PHASE_TIMER = "startup.phase";
+
+    private final GameSessionService gameSessionService;
+    private final ImpostorWordSeeder impostorWordSeeder;
+    private final WaitingMessageSeeder waitingMessageSeeder;
+    private final GameMetrics metrics;
+    private final GameStateSnapshotter snapshotter;
+    private final Duration sessionMaxAge;
+
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    // fase → milisegundos, en orden de finalización
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    public StartupPipeline(GameSessionService gameSessionService,
+                           ImpostorWordSeeder impostorWordSeeder,
+                           WaitingMessageSeeder waitingMessageSeeder,
+                           GameMetrics metrics,
+                           GameStateSnapshotter snapshotter,
+                           @Value("${game.sessions.max-age-hours:12}") long sessionMaxAgeHours) {
+        this.gameSessionService = gameSessionService;
+        this.impostorWordSeeder = impostorWordSeeder;
+        this.waitingMessageSeeder = waitingMessageSeeder;
+        this.metrics = metrics;
+        this.snapshotter = snapshotter;
+        this.sessionMaxAge = Duration.ofHours(sessionMaxAgeHours);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        phase("purge expired sessions", () -> {
+            int purged = gameSessionService.purgeSessionsCreatedBefore(LocalDateTime.now().minus(sessionMaxAge));
+            if (purged > 0) log.info("Sesiones caducadas borradas: {}", purged);
+        });
+        phase("restore game state", snapshotter::restore);
+
+        ExecutorService seeders = Executors.newVirtualThreadPerTaskExecutor();
+        CompletableFuture.allOf(
+                CompletableFuture.runAsync(() -> phase("seed impostor words", impostorWordSeeder::seed), seeders),
+                CompletableFuture.runAsync(() -> phase("seed waiting messages", waitingMessageSeeder::seed), seeders)
+        ).whenComplete((ignored, error) -> {
+            seeders.shutdown();
+            // Sin datos semilla la app sigue funcionando (salvo El Impostor): se abre igual
+            if (error != null) log.error("Falló la carga de datos iniciales", error);
+            log.info("Arranque listo en {} ms: {}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), phases());
+            ready.complete(null);
+        });
+    }
+
+    public boolean isReady() {
+        return ready.isDone();
+    }
+
+    /** Espera a que terminen los seeders; devuelve false si no terminaron a tiempo. */
+    public boolean awaitReady(Duration timeout) throws InterruptedException {
+        try {
+            ready.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e); // ready nunca se completa con error
+        }
+    }
+
+    public synchronized Map<String, Long> phases() {
+        return new LinkedHashMap<>(phases);
+    }
+
+    private void phase(String name, Runnable task) {
+        long start = System.nanoTime();
+        task.run();
+        long elapsed = System.nanoTime() - start;
+        metrics.record(PHASE_TIMER, name, elapsed);
+        synchronized (this) {
+            phases.put(name, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+        log.info("Arranque: {} en {} ms", name, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+}
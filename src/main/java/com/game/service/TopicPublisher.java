@@ -0,0 +1,91 @@
+package com.game.service;
+
+import com.game.dto.GameEvents;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+
+/**
+ * Publica en /topic/{sessionCode} eventos ya serializados (ver {@link com.game.dto.GameEvents}).
+ * Los bytes van directos al broker, sin pasar por los conversores del template,
+ * y el broker reparte el mismo mensaje a todos los suscriptores.
+ * <p>
+ * Cada evento lleva el header STOMP {@value #SEQ_HEADER} con su número dentro de la sesión
+ * y queda en el {@link SessionEventJournal}, desde donde se reenvía a quien se reconecta.
+ * <p>
+ * Contrato con el cliente: los seq de una sesión son crecientes y sin huecos, y no empiezan en 1
+ * sino en una época que cambia con cada reinicio (siempre mayor). Al reconectarse
+ * envía el último seq aplicado como header {@code lastSeq}; la repetición (header
+ * {@value #REPLAY_HEADER}) y los eventos en vivo pueden solaparse o cruzarse, así que el cliente
+ * descarta todo seq que ya haya aplicado y, si recibe {@code resyncRequired}, pide /sync.
+ */
+@Component
+public class TopicPublisher {
+
+    public static final String SEQ_HEADER = "seq";
+    public static final String REPLAY_HEADER = "replay";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MessageChannel clientOutboundChannel;
+    private final SessionEventJournal journal;
+    private final GameMetrics metrics;
+
+    public TopicPublisher(SimpMessagingTemplate messagingTemplate,
+                          @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+                          SessionEventJournal journal,
+                          GameMetrics metrics) {
+        this.messagingTemplate = messagingTemplate;
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.journal = journal;
+        this.metrics = metrics;
+    }
+
+    public void publish(String sessionCode, byte[] event) {
+        metrics.increment(GameMetrics.EVENTS_PUBLISHED, GameEvents.eventName(event));
+        journal.append(sessionCode, event, seq -> {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            accessor.setNativeHeader(SEQ_HEADER, Long.toString(seq));
+            accessor.setLeaveMutable(true);
+            Message<byte[]> message = MessageBuilder.createMessage(event, accessor.getMessageHeaders());
+            messagingTemplate.send("/topic/" + sessionCode, message);
+        });
+    }
+
+    /**
+     * Reenvía solo a una suscripción los eventos posteriores a {@code lastSeq}. Si ya no están
+     * en memoria se le envía {@code resyncRequired} y el cliente debe pedir /sync.
+     * El cliente descarta los seq que ya haya visto (un evento en vivo puede cruzarse con la repetición).
+     */
+    public void replay(String sessionCode, String simpSessionId, String subscriptionId, long lastSeq) {
+        List<SessionEventJournal.Entry> missed = journal.since(sessionCode, lastSeq);
+        if (missed == null) {
+            sendTo(sessionCode, simpSessionId, subscriptionId,
+                    GameEvents.resyncRequired(journal.lastSeq(sessionCode)), null);
+            return;
+        }
+        for (SessionEventJournal.Entry entry : missed) {
+            sendTo(sessionCode, simpSessionId, subscriptionId, entry.getEvent(), entry.getSeq());
+        }
+    }
+
+    private void sendTo(String sessionCode, String simpSessionId, String subscriptionId, byte[] event, Long seq) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(simpSessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination("/topic/" + sessionCode);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        if (seq != null) accessor.setNativeHeader(SEQ_HEADER, Long.toString(seq));
+        accessor.setNativeHeader(REPLAY_HEADER, "true");
+        accessor.setLeaveMutable(true);
+        clientOutboundChannel.send(MessageBuilder.createMessage(event, accessor.getMessageHeaders()));
+    }
+}
@@ -0,0 +1,111 @@
+package com.game.service;
+
+import com.game.dto.GameEvents;
+import com.game.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Agrupa los cambios de miembros de una sesión (entradas, reconexiones, salidas) que llegan
+ * dentro de una ventana corta y los difunde en un único evento con la lista final.
+ * Si 15 jugadores entran a la vez se envía una lista, no 15.
+ * <p>
+ * Una salida sola se sigue enviando como {@code userLeft}; si en la ventana hubo más cambios
+ * se envía {@code userUpdate} con los nombres que salieron en {@code left}. La salida del
+ * creador no espera: vacía lo pendiente y se envía en el momento como {@code creatorLeft}.
+ * La ventana se redondea al tick de {@link GameTimerService}.
+ */
+@Component
+public class UserListBroadcaster {
+
+    private static final String TIMER_GROUP = "user-list";
+
+    private final GameSessionStore sessionStore;
+    private final TopicPublisher topicPublisher;
+    private final GameTimerService gameTimers;
+    private final Duration window;
+
+    // sessionCode → cambios acumulados desde el último envío
+    private final ConcurrentHashMap<String, Pending> pending = new ConcurrentHashMap<>();
+
+    public UserListBroadcaster(GameSessionStore sessionStore,
+                               TopicPublisher topicPublisher,
+                               GameTimerService gameTimers,
+                               @Value("${game.broadcast.user-list-window-ms:50}") long windowMs) {
+        this.sessionStore = sessionStore;
+        this.topicPublisher = topicPublisher;
+        this.gameTimers = gameTimers;
+        this.window = Duration.ofMillis(windowMs);
+    }
+
+    /** Alguien entró, se reconectó o cambió su estado en la lista. */
+    public void usersChanged(String sessionCode) {
+        enqueue(sessionCode, null);
+    }
+
+    public void userLeft(String sessionCode, String username) {
+        enqueue(sessionCode, username);
+    }
+
+    public void creatorLeft(String sessionCode, String username) {
+        gameTimers.cancel(sessionCode, TIMER_GROUP);
+        pending.remove(sessionCode);
+        List<User> users = currentUsers(sessionCode);
+        if (users != null) topicPublisher.publish(sessionCode, GameEvents.creatorLeft(username, users));
+    }
+
+    /** Envía ya lo acumulado de la sesión, si hay algo. */
+    public void flush(String sessionCode) {
+        Pending changes = pending.remove(sessionCode);
+        if (changes == null) return;
+        List<User> users = currentUsers(sessionCode);
+        if (users == null) return;
+
+        byte[] event = changes.changes == 1 && changes.left.size() == 1
+                ? GameEvents.userLeft(changes.left.iterator().next(), users)
+                : GameEvents.userUpdate(users, changes.left);
+        topicPublisher.publish(sessionCode, event);
+    }
+
+    private void enqueue(String sessionCode, String leftUsername) {
+        if (window.isZero()) {
+            pending.compute(sessionCode, (k, p) -> (p != null ? p : new Pending()).add(leftUsername));
+            flush(sessionCode);
+            return;
+        }
+        boolean[] first = {false};
+        pending.compute(sessionCode, (k, p) -> {
+            if (p == null) {
+                first[0] = true;
+                p = new Pending();
+            }
+            return p.add(leftUsername);
+        });
+        if (first[0]) gameTimers.schedule(sessionCode, TIMER_GROUP, window, () -> flush(sessionCode));
+    }
+
+    private List<User> currentUsers(String sessionCode) {
+        try {
+            return sessionStore.get(sessionCode).getUsers();
+        } catch (IllegalArgumentException e) {
+            return null; // la sesión ya no existe
+        }
+    }
+
+    private static final class Pending {
+        private final Set<String> left = new LinkedHashSet<>();
+        private int changes;
+
+        Pending add(String leftUsername) {
+            changes++;
+            if (leftUsername != null) left.add(leftUsername);
+            return this;
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.game.service;
 
 import com.game.model.GameSession;
+import com.game.model.SessionSnapshot;
 import com.game.model.User;
 import com.game.repository.GameSessionRepository;
 import com.game.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
 import java.util.List;
@@ -17,11 +19,16 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final GameSessionRepository gameSessionRepository;
+    private final GameSessionStore sessionStore;
+    private final ReadyFlags readyFlags;
 
     @Autowired
-    public UserService(UserRepository userRepository, GameSessionRepository gameSessionRepository) {
+    public UserService(UserRepository userRepository, GameSessionRepository gameSessionRepository,
+                       GameSessionStore sessionStore, ReadyFlags readyFlags) {
         this.userRepository = userRepository;
         this.gameSessionRepository = gameSessionRepository;
+        this.sessionStore = sessionStore;
+        this.readyFlags = readyFlags;
     }
 
     /**
@@ -47,8 +54,10 @@ public class UserService {
      * @param username el nombre de usuario del usuario
      * @throws IllegalArgumentException si la sesión no es encontrada o el usuario ya está en la sesión
      */
+    @Transactional
     public void joinSession(String sessionCode, String username) {
-        GameSession session = gameSessionRepository.findBySessionCode(sessionCode)
+        // Sesión y usuarios en una consulta: se comprueba si ya está dentro
+        GameSession session = gameSessionRepository.findSnapshotBySessionCode(sessionCode)
                 .orElseThrow(() -> new IllegalArgumentException("Código de sesión inválido"));
 
         User user = userRepository.findByUsername(username)
@@ -63,6 +72,7 @@ public class UserService {
 
         gameSessionRepository.save(session);
         userRepository.save(user);
+        sessionStore.invalidate(sessionCode);
     }
 
     /**
@@ -86,6 +96,7 @@ public class UserService {
      * @return el User eliminado
      * @throws IllegalArgumentException si el usuario no existe en esa sesión
      */
+    @Transactional
     public User kickUser(String sessionCode, String username) {
         GameSession session = gameSessionRepository.findBySessionCode(sessionCode)
                 .orElseThrow(() -> new IllegalArgumentException("Código de sesión inválido"));
@@ -99,9 +110,11 @@ public class UserService {
         user.setGameSession(null);
         gameSessionRepository.save(session);
         userRepository.delete(user);
+        sessionStore.invalidate(sessionCode);
         return user;
     }
 
+    @Transactional
     public boolean logoutUser(String sessionToken) {
         Optional<User> user = userRepository.findBySessionToken(sessionToken);
 
@@ -124,6 +137,7 @@ public class UserService {
         gameSessionRepository.findByUsersContaining(user).ifPresent(session -> {
             session.getUsers().remove(user);
             gameSessionRepository.save(session);
+            sessionStore.invalidate(session.getSessionCode());
         });
     }
 
@@ -136,8 +150,7 @@ public class UserService {
     public void setUserReady(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
-        user.setReady(true);
-        userRepository.save(user);
+        markReady(user);
     }
 
     /**
@@ -151,8 +164,7 @@ public class UserService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
 
-        user.setReady(true);
-        userRepository.save(user);
+        markReady(user);
 
         Map<String, Object> response = new HashMap<>();
         response.put("username", username);
@@ -160,13 +172,13 @@ public class UserService {
 
         // Agregar información de la sesión y ronda si el usuario está en una sesión
         if (user.getGameSession() != null) {
-            GameSession session = user.getGameSession();
+            SessionSnapshot session = sessionStore.get(user.getGameSession().getSessionCode());
             response.put("sessionCode", session.getSessionCode());
             response.put("roundId", session.getCurrentRoundId());
             response.put("roundStatus", session.getRoundStatus());
 
             // Contar usuarios listos
-            long readyCount = session.getUsers().stream().filter(User::isReady).count();
+            long readyCount = session.getReadyCount();
             response.put("usersReady", readyCount);
             response.put("totalUsers", session.getUsers().size());
             response.put("allUsersReady", readyCount == session.getUsers().size());
@@ -174,5 +186,15 @@ public class UserService {
 
         return response;
     }
+
+    // Dentro de una sesión, el clic se agrupa con los de los demás jugadores (ver ReadyFlags)
+    private void markReady(User user) {
+        if (user.getGameSession() == null) {
+            user.setReady(true);
+            userRepository.save(user);
+            return;
+        }
+        readyFlags.markReady(user.getGameSession().getSessionCode(), user.getUsername());
+    }
 }
 
@@ -2,7 +2,6 @@ package com.game.service;
 
 import com.game.model.WaitingMessage;
 import com.game.repository.WaitingMessageRepository;
-import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -16,7 +15,7 @@ public class WaitingMessageSeeder {
         this.waitingMessageRepository = waitingMessageRepository;
     }
 
-    @PostConstruct
+    // Lanzado por StartupPipeline en paralelo con ImpostorWordSeeder
     public void seed() {
         if (waitingMessageRepository.count() == 0) {
             waitingMessageRepository.saveAll(List.of(
@@ -17,12 +17,23 @@ public class WebSocketSessionRegistry {
     private final ConcurrentHashMap<String, Set<String>> connected = new ConcurrentHashMap<>();
 
     public void register(String sessionCode, String username) {
-        connected.computeIfAbsent(sessionCode, k -> ConcurrentHashMap.newKeySet()).add(username);
+        connected.compute(sessionCode, (k, users) -> {
+            Set<String> set = users != null ? users : ConcurrentHashMap.newKeySet();
+            set.add(username);
+            return set;
+        });
     }
 
     public void unregister(String sessionCode, String username) {
-        Set<String> users = connected.get(sessionCode);
-        if (users != null) users.remove(username);
+        // Sin conexiones no se guarda la entrada: el mapa no crece con las sesiones ya jugadas
+        connected.computeIfPresent(sessionCode, (k, users) -> {
+            users.remove(username);
+            return users.isEmpty() ? null : users;
+        });
+    }
+
+    public void remove(String sessionCode) {
+        connected.remove(sessionCode);
     }
 
     public boolean isConnected(String sessionCode, String username) {
@@ -34,4 +45,11 @@ public class WebSocketSessionRegistry {
         Set<String> users = connected.get(sessionCode);
         return users != null ? Collections.unmodifiableSet(users) : Collections.emptySet();
     }
+
+    /** Conexiones activas en todas las sesiones. */
+    public int connectedCount() {
+        int count = 0;
+        for (Set<String> users : connected.values()) count += users.size();
+        return count;
+    }
 }
@@ -0,0 +1,61 @@
+package com.game;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.dto.GameEvents;
+import com.game.model.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class GameEventsTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testUserUpdateOnlyExposesUsernameAndReady() throws Exception {
+        User ana = new User("Ana");
+        ana.setId(7L);
+        ana.setReady(true);
+
+        JsonNode json = mapper.readTree(GameEvents.userUpdate(List.of(ana, new User("Beto"))));
+
+        Assertions.assertEquals("userUpdate", json.get("event").asText());
+        Assertions.assertEquals(2, json.get("users").size());
+        JsonNode first = json.get("users").get(0);
+        Assertions.assertEquals("Ana", first.get("username").asText());
+        Assertions.assertTrue(first.get("ready").asBoolean());
+        Assertions.assertFalse(first.has("sessionToken"));
+        Assertions.assertFalse(first.has("id"));
+    }
+
+    @Test
+    void testConstantAndStructuredEventsAreValidJson() throws Exception {
+        Assertions.assertEquals("gameStarted", mapper.readTree(GameEvents.GAME_STARTED).get("event").asText());
+        Assertions.assertSame(GameEvents.impostorCountdown(2), GameEvents.impostorCountdown(2));
+
+        Map<String, Long> votes = new LinkedHashMap<>();
+        votes.put("Ana", 2L);
+        votes.put("Beto \"B\"", 0L);
+        JsonNode result = mapper.readTree(GameEvents.votingResult(null, votes, false,
+                List.of("Beto \"B\""), List.of("Ana")));
+        Assertions.assertTrue(result.get("eliminatedPlayer").isNull());
+        Assertions.assertEquals(0, result.get("votes").get("Beto \"B\"").asLong());
+
+        // roundId con comillas ya no rompe el JSON (antes se concatenaba a mano)
+        JsonNode round = mapper.readTree(GameEvents.newRoundStarted("a\"b"));
+        Assertions.assertEquals("a\"b", round.get("roundId").asText());
+    }
+
+    @Test
+    void testEventNameReadsLeadingField() {
+        Assertions.assertEquals("gameStarted", GameEvents.eventName(GameEvents.GAME_STARTED));
+        Assertions.assertEquals("impostorCountdown", GameEvents.eventName(GameEvents.impostorCountdown(3)));
+        Assertions.assertEquals("userUpdate", GameEvents.eventName(GameEvents.userUpdate(List.of(new User("Ana")))));
+        Assertions.assertEquals("unknown", GameEvents.eventName("{\"users\":[]}".getBytes()));
+        Assertions.assertEquals("unknown", GameEvents.eventName(new byte[0]));
+    }
+}
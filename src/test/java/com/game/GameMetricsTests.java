@@ -0,0 +1,56 @@
+package com.game;
+
+import com.game.service.GameMetrics;
+import com.game.service.SessionExecutor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GameMetricsTests {
+
+    @Test
+    void testCountersTimersAndGaugesAppearInSnapshot() {
+        GameMetrics metrics = new GameMetrics();
+        AtomicInteger sessions = new AtomicInteger(3);
+        metrics.gauge("game.sessions.active", sessions::get);
+        metrics.increment(GameMetrics.EVENTS_PUBLISHED, "userUpdate");
+        metrics.increment(GameMetrics.EVENTS_PUBLISHED, "userUpdate");
+        metrics.record(GameMetrics.SERVICE_CALLS, "ElImpostorService.vote", 2_000_000);
+        metrics.record(GameMetrics.SERVICE_CALLS, "ElImpostorService.vote", 4_000_000);
+        sessions.set(5);
+
+        Map<String, Object> snapshot = metrics.snapshot();
+
+        Assertions.assertEquals(5, ((Map<?, ?>) snapshot.get("gauges")).get("game.sessions.active"));
+        Map<?, ?> events = (Map<?, ?>) ((Map<?, ?>) snapshot.get("counters")).get(GameMetrics.EVENTS_PUBLISHED);
+        Assertions.assertEquals(2L, events.get("userUpdate"));
+        Map<?, ?> vote = (Map<?, ?>) ((Map<?, ?>) ((Map<?, ?>) snapshot.get("timers"))
+                .get(GameMetrics.SERVICE_CALLS)).get("ElImpostorService.vote");
+        Assertions.assertEquals(2L, vote.get("count"));
+        Assertions.assertEquals(3.0, (double) vote.get("meanMs"), 1e-9);
+        Assertions.assertEquals(4.0, (double) vote.get("maxMs"), 1e-9);
+    }
+
+    @Test
+    void testEndpointFollowsTasksIntoSessionMailbox() {
+        GameMetrics metrics = new GameMetrics();
+        SessionExecutor executor = new SessionExecutor();
+        executor.setTaskDecorator(metrics::propagateEndpoint);
+        try {
+            Assertions.assertEquals("background", executor.call("1234", GameMetrics::currentEndpoint));
+
+            GameMetrics.enterEndpoint("POST /api/game-sessions/{sessionCode}/vote");
+            try {
+                Assertions.assertEquals("POST /api/game-sessions/{sessionCode}/vote",
+                        executor.call("1234", GameMetrics::currentEndpoint));
+            } finally {
+                GameMetrics.exitEndpoint();
+            }
+            Assertions.assertEquals("background", GameMetrics.currentEndpoint());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
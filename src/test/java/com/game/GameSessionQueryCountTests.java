@@ -0,0 +1,299 @@
+package com.game;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.model.CulturaPendeja;
+import com.game.model.PreguntasIncomodas;
+import com.game.model.QuienEsMasProbable;
+import com.game.model.YoNuncaNunca;
+import com.game.repository.CulturaPendejaRepository;
+import com.game.repository.PreguntasIncomodasRepository;
+import com.game.repository.QuienEsMasProbableRepository;
+import com.game.repository.YoNuncaNuncaRepository;
+import com.game.service.GameMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Presupuesto de sentencias SQL por endpoint de GameSessionController.
+ * <p>
+ * Juega la misma partida en un lobby de {@value #SMALL} y otro de {@value #LARGE} jugadores y
+ * cuenta, por ruta, las sentencias que prepara Hibernate durante la petición (incluido el
+ * trabajo en el buzón de la sesión; timers y eventos WebSocket no cuentan). Falla si una ruta
+ * supera su presupuesto o si su cuenta crece con el número de jugadores: una carga perezosa
+ * por usuario (N+1) aparece como sentencias extra en el lobby grande.
+ * <p>
+ * Corre en cada {@code mvn test} sobre H2 en memoria en modo PostgreSQL (perfil querycount).
+ * El número de sentencias de cada ruta no depende del dialecto.
+ * <p>
+ * /reset no tiene presupuesto: su trabajo es la llamada a reset_game_data por JdbcTemplate,
+ * que no pasa por Hibernate y no se contaría.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("querycount")
+public class GameSessionQueryCountTests {
+
+    private static final Logger log = LoggerFactory.getLogger(GameSessionQueryCountTests.class);
+
+    private static final String API = "/api/game-sessions";
+    private static final int SMALL = 3;
+    private static final int LARGE = 6;
+
+    // Máximo de sentencias por petición, medido con la tabla que escribe el test (H2); al bajar el
+    // consumo de una ruta, bajar también su techo. Las rutas a 0 se sirven de la memoria.
+    // el-impostor/vote: 3 cuando el voto termina la partida, 0 si no
+    private static final Map<String, Integer> BUDGETS = new LinkedHashMap<>();
+
+    static {
+        budget("POST", "/create", 6);
+        budget("POST", "/join", 9);
+        budget("GET", "/{sessionCode}", 0);
+        budget("GET", "/{sessionCode}/sync", 0);
+        budget("POST", "/{sessionCode}/start-game", 3);
+        budget("POST", "/{sessionCode}/start-preguntas-directas", 5);
+        budget("POST", "/{sessionCode}/send-question", 3);
+        budget("GET", "/{sessionCode}/round-info", 1);
+        budget("POST", "/{sessionCode}/check-all-ready", 1);
+        budget("GET", "/{sessionCode}/current-question", 7);
+        budget("POST", "/{sessionCode}/next-random-question", 5);
+        budget("POST", "/{sessionCode}/reset-users-ready", 1);
+        budget("POST", "/{sessionCode}/start-new-round", 6);
+        budget("POST", "/{sessionCode}/yo-nunca-nunca/start", 4);
+        budget("GET", "/{sessionCode}/next-yo-nunca-nunca", 0);
+        budget("POST", "/{sessionCode}/cultura-pendeja/start", 4);
+        budget("GET", "/{sessionCode}/next-cultura-pendeja", 0);
+        budget("POST", "/{sessionCode}/quien-es-mas-probable/start", 4);
+        budget("GET", "/{sessionCode}/next-quien-es-mas-probable", 3);
+        budget("POST", "/{sessionCode}/vote", 0);
+        budget("GET", "/{sessionCode}/vote-results", 0);
+        budget("GET", "/{sessionCode}/check-all-voted", 0);
+        budget("POST", "/{sessionCode}/clear-votes", 0);
+        budget("POST", "/{sessionCode}/start-preguntas-incomodas", 5);
+        budget("GET", "/{sessionCode}/next-preguntas-incomodas", 3);
+        budget("POST", "/{sessionCode}/el-impostor/start", 5);
+        budget("GET", "/{sessionCode}/el-impostor/my-role", 0);
+        budget("POST", "/{sessionCode}/el-impostor/call-vote", 0);
+        budget("POST", "/{sessionCode}/el-impostor/vote", 3);
+        budget("POST", "/{sessionCode}/kick", 7);
+        budget("POST", "/{sessionCode}/end-game", 3);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GameMetrics metrics;
+
+    @Autowired
+    private YoNuncaNuncaRepository yoNuncaNuncaRepository;
+
+    @Autowired
+    private CulturaPendejaRepository culturaPendejaRepository;
+
+    @Autowired
+    private QuienEsMasProbableRepository quienEsMasProbableRepository;
+
+    @Autowired
+    private PreguntasIncomodasRepository preguntasIncomodasRepository;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private static void budget(String method, String route, int max) {
+        BUDGETS.put(method + " " + API + route, max);
+    }
+
+    @BeforeEach
+    void seedContent() {
+        seed(yoNuncaNuncaRepository, YoNuncaNunca::new, (q, i) -> {
+            q.setTexto("Yo nunca nunca " + i);
+            q.setTipo("tranquilo");
+            return q;
+        });
+        seed(culturaPendejaRepository, CulturaPendeja::new, (q, i) -> {
+            q.setTexto("Cultura " + i);
+            q.setTipo("tranquilo");
+            return q;
+        });
+        seed(quienEsMasProbableRepository, QuienEsMasProbable::new, (q, i) -> {
+            q.setTexto("¿Quién es más probable " + i + "?");
+            q.setTipo("tranquilo");
+            return q;
+        });
+        seed(preguntasIncomodasRepository, PreguntasIncomodas::new, (q, i) -> {
+            q.setTexto("Pregunta incómoda " + i);
+            q.setTipo("tranquilo");
+            return q;
+        });
+    }
+
+    @Test
+    void testEveryRouteStaysWithinBudgetAndDoesNotGrowWithPlayers() throws Exception {
+        Map<String, Integer> small = playLobby(SMALL);
+        Map<String, Integer> large = playLobby(LARGE);
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : BUDGETS.entrySet()) {
+            String endpoint = entry.getKey();
+            Integer smallCount = small.get(endpoint);
+            Integer largeCount = large.get(endpoint);
+            if (smallCount == null || largeCount == null) {
+                failures.add(endpoint + ": no se ejecutó");
+                continue;
+            }
+            int worst = Math.max(smallCount, largeCount);
+            if (worst > entry.getValue()) {
+                failures.add(endpoint + ": " + worst + " sentencias (máximo " + entry.getValue() + ")");
+            }
+            // Con N+1, cada jugador extra añade al menos una sentencia
+            if (largeCount - smallCount >= LARGE - SMALL) {
+                failures.add(endpoint + ": crece con los jugadores (" + smallCount + " con " + SMALL
+                        + ", " + largeCount + " con " + LARGE + ")");
+            }
+        }
+
+        StringBuilder report = new StringBuilder("Sentencias por endpoint (" + SMALL + " / " + LARGE + " jugadores):");
+        BUDGETS.forEach((endpoint, max) -> report.append(String.format("%n  %-70s %3s / %3s  (máx %d)",
+                endpoint, small.get(endpoint), large.get(endpoint), max)));
+        log.info("{}", report);
+
+        Assertions.assertTrue(failures.isEmpty(), String.join("\n", failures) + "\n" + report);
+    }
+
+    /** Juega todas las rutas en un lobby nuevo; devuelve el peor conteo por endpoint. */
+    private Map<String, Integer> playLobby(int playerCount) throws Exception {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        String prefix = "qc" + UUID.randomUUID().toString().substring(0, 6) + "p";
+        List<String> players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) players.add(prefix + i);
+        String creator = players.get(0);
+        String last = players.get(playerCount - 1);
+
+        MvcResult created = measure(counts, "POST", "/create",
+                post(API + "/create").param("username", creator));
+        String code = mapper.readTree(created.getResponse().getContentAsByteArray()).get("sessionCode").asText();
+        String base = API + "/" + code;
+
+        for (String player : players.subList(1, playerCount)) {
+            measure(counts, "POST", "/join", post(API + "/join").content(json(
+                    Map.of("sessionCode", code, "username", player))));
+        }
+        measure(counts, "GET", "/{sessionCode}", get(base));
+        measure(counts, "GET", "/{sessionCode}/sync", get(base + "/sync").param("username", creator));
+        measure(counts, "POST", "/{sessionCode}/start-game", post(base + "/start-game"));
+
+        // Preguntas Directas: una pregunta por jugador, todos listos y ronda en juego
+        measure(counts, "POST", "/{sessionCode}/start-preguntas-directas", post(base + "/start-preguntas-directas"));
+        for (int i = 0; i < playerCount; i++) {
+            measure(counts, "POST", "/{sessionCode}/send-question", post(base + "/send-question").content(json(Map.of(
+                    "fromUser", players.get(i), "toUser", players.get((i + 1) % playerCount),
+                    "question", "¿Pregunta " + i + "?", "anonymous", i % 2 == 0))));
+        }
+        measure(counts, "GET", "/{sessionCode}/round-info", get(base + "/round-info"));
+        for (String player : players.subList(0, playerCount - 1)) {
+            mockMvc.perform(post("/api/users/" + player + "/ready"));
+        }
+        measure(counts, "POST", "/{sessionCode}/check-all-ready", post(base + "/check-all-ready"));
+        mockMvc.perform(post("/api/users/" + last + "/ready"));
+        measure(counts, "POST", "/{sessionCode}/check-all-ready", post(base + "/check-all-ready"));
+        measure(counts, "GET", "/{sessionCode}/current-question", get(base + "/current-question"));
+        measure(counts, "POST", "/{sessionCode}/next-random-question", post(base + "/next-random-question")
+                .content(json(Map.of("lastToUser", creator))));
+        measure(counts, "POST", "/{sessionCode}/reset-users-ready", post(base + "/reset-users-ready"));
+        measure(counts, "POST", "/{sessionCode}/start-new-round", post(base + "/start-new-round"));
+
+        measure(counts, "POST", "/{sessionCode}/yo-nunca-nunca/start", post(base + "/yo-nunca-nunca/start"));
+        measure(counts, "GET", "/{sessionCode}/next-yo-nunca-nunca",
+                get(base + "/next-yo-nunca-nunca").param("tipo", "tranquilo"));
+        measure(counts, "POST", "/{sessionCode}/cultura-pendeja/start", post(base + "/cultura-pendeja/start"));
+        measure(counts, "GET", "/{sessionCode}/next-cultura-pendeja",
+                get(base + "/next-cultura-pendeja").param("tipo", "tranquilo"));
+
+        measure(counts, "POST", "/{sessionCode}/quien-es-mas-probable/start",
+                post(base + "/quien-es-mas-probable/start"));
+        measure(counts, "GET", "/{sessionCode}/next-quien-es-mas-probable",
+                get(base + "/next-quien-es-mas-probable").param("tipo", "tranquilo"));
+        for (String voter : players) {
+            measure(counts, "POST", "/{sessionCode}/vote", post(base + "/vote").content(json(
+                    Map.of("votingUser", voter, "votedUser", creator))));
+        }
+        measure(counts, "GET", "/{sessionCode}/vote-results", get(base + "/vote-results"));
+        measure(counts, "GET", "/{sessionCode}/check-all-voted", get(base + "/check-all-voted"));
+        measure(counts, "POST", "/{sessionCode}/clear-votes", post(base + "/clear-votes"));
+
+        measure(counts, "POST", "/{sessionCode}/start-preguntas-incomodas", post(base + "/start-preguntas-incomodas"));
+        measure(counts, "GET", "/{sessionCode}/next-preguntas-incomodas",
+                get(base + "/next-preguntas-incomodas").param("tipo", "tranquilo"));
+
+        measure(counts, "POST", "/{sessionCode}/el-impostor/start", post(base + "/el-impostor/start")
+                .content(json(Map.of("impostorCount", 1))));
+        for (String player : players) {
+            measure(counts, "GET", "/{sessionCode}/el-impostor/my-role",
+                    get(base + "/el-impostor/my-role").param("username", player));
+        }
+        measure(counts, "POST", "/{sessionCode}/el-impostor/call-vote",
+                post(base + "/el-impostor/call-vote").param("username", creator));
+        for (String voter : players) {
+            measure(counts, "POST", "/{sessionCode}/el-impostor/vote", post(base + "/el-impostor/vote").content(json(
+                    Map.of("votingUser", voter, "votedUser", last))));
+        }
+
+        measure(counts, "POST", "/{sessionCode}/kick", post(base + "/kick").param("username", last));
+        measure(counts, "POST", "/{sessionCode}/end-game", post(base + "/end-game"));
+        return counts;
+    }
+
+    // Sentencias atribuidas al endpoint durante la petición (ver MetricsConfig)
+    private MvcResult measure(Map<String, Integer> counts, String method, String route,
+                              MockHttpServletRequestBuilder request) throws Exception {
+        String endpoint = method + " " + API + route;
+        long before = metrics.count(GameMetrics.DB_QUERIES, endpoint);
+        MvcResult result = mockMvc.perform(request).andReturn();
+        int statements = (int) (metrics.count(GameMetrics.DB_QUERIES, endpoint) - before);
+        Assertions.assertTrue(result.getResponse().getStatus() < 500,
+                endpoint + " respondió " + result.getResponse().getStatus());
+        counts.merge(endpoint, statements, Math::max);
+        return result;
+    }
+
+    private <T> void seed(JpaRepository<T, Long> repository,
+                          Supplier<T> factory, BiFunction<T, Integer, T> fill) {
+        if (repository.count() > 0) return;
+        List<T> rows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) rows.add(fill.apply(factory.get(), i));
+        repository.saveAll(rows);
+    }
+
+    private String json(Map<String, ?> body) throws Exception {
+        return mapper.writeValueAsString(body);
+    }
+
+    private static MockHttpServletRequestBuilder get(String path) {
+        return MockMvcRequestBuilders.request(HttpMethod.GET, path);
+    }
+
+    private static MockHttpServletRequestBuilder post(String path) {
+        return MockMvcRequestBuilders.request(HttpMethod.POST, path).contentType(MediaType.APPLICATION_JSON);
+    }
+}
@@ -0,0 +1,47 @@
+package com.game;
+
+import com.game.model.GameSession;
+import com.game.model.SessionSnapshot;
+import com.game.model.User;
+import com.game.repository.GameSessionRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+import java.util.Set;
+
+// H2 en memoria en lugar de la base configurada (la sustituye @DataJpaTest)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class GameSessionRepositoryTests {
+
+    @Autowired
+    private GameSessionRepository gameSessionRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void testSnapshotHasEachUserOnceWithShownQuestions() {
+        GameSession session = new GameSession();
+        session.setSessionCode("4321");
+        for (String name : List.of("ana", "beto", "caro")) {
+            User user = new User();
+            user.setUsername(name);
+            session.addUser(user);
+        }
+        session.getShownQuestions().addAll(Set.of(11L, 12L, 13L, 14L));
+        entityManager.persist(session);
+        entityManager.flush();
+        entityManager.clear();
+
+        GameSession loaded = gameSessionRepository.findSnapshotBySessionCode("4321").orElseThrow();
+        SessionSnapshot snapshot = SessionSnapshot.of(loaded, List.of());
+
+        Assertions.assertEquals(List.of("ana", "beto", "caro"),
+                snapshot.getUsers().stream().map(User::getUsername).sorted().toList());
+        Assertions.assertEquals(Set.of(11L, 12L, 13L, 14L), snapshot.getShownQuestions());
+    }
+}
@@ -73,7 +73,8 @@ public class GameSessionTests {
         users.add(new User("User2"));
         session.setUsers(users);
 
-        when(gameSessionRepository.findBySessionCode(sessionCode)).thenReturn(Optional.of(session));
+        // La lista sale de la vista en memoria, que se carga con findSnapshotBySessionCode
+        when(gameSessionRepository.findSnapshotBySessionCode(sessionCode)).thenReturn(Optional.of(session));
 
         try {
             List<User> userList = gameSessionService.getUsersInSession(sessionCode);
@@ -0,0 +1,139 @@
+package com.game;
+
+import com.game.repository.GameSessionRepository;
+import com.game.service.GameStateParticipant;
+import com.game.service.GameStateSnapshotter;
+import com.game.service.ServerGeneration;
+import com.game.service.SnapshotReader;
+import com.game.service.SnapshotWriter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class GameStateSnapshotterTests {
+
+    @TempDir
+    Path dir;
+
+    /** Juego de prueba: una lista de palabras por sesión. */
+    static class WordsGame implements GameStateParticipant<List<String>> {
+        final Map<String, List<String>> states = new HashMap<>();
+
+        @Override
+        public String snapshotKey() {
+            return "words";
+        }
+
+        @Override
+        public Map<String, List<String>> exportStates() {
+            return new HashMap<>(states);
+        }
+
+        @Override
+        public List<String> exportState(String sessionCode) {
+            return states.get(sessionCode);
+        }
+
+        @Override
+        public void restoreStates(Map<String, List<String>> restored) {
+            states.putAll(restored);
+        }
+
+        @Override
+        public void writeState(List<String> state, SnapshotWriter out) {
+            out.writeStrings(state);
+        }
+
+        @Override
+        public List<String> readState(SnapshotReader in) {
+            return in.readStrings(ArrayList::new);
+        }
+
+        @Override
+        public void cleanup(String sessionCode) {
+            states.remove(sessionCode);
+        }
+    }
+
+    private static List<Object[]> sessions(Object[]... rows) {
+        return List.of(rows);
+    }
+
+    @Test
+    void testStateSurvivesRestartOnlyForSessionsStillInDatabase() throws Exception {
+        Path file = dir.resolve("games.snap");
+        WordsGame before = new WordsGame();
+        before.states.put("1234", List.of("á", "b"));
+        before.states.put("5678", List.of("c"));
+        ServerGeneration oldGeneration = new ServerGeneration();
+        oldGeneration.markCurrent("1234");
+        oldGeneration.markCurrent("5678");
+        new GameStateSnapshotter(List.of(before), oldGeneration, mock(GameSessionRepository.class),
+                file.toString()).save();
+
+        GameSessionRepository repository = mock(GameSessionRepository.class);
+        when(repository.findAllCurrentGames()).thenReturn(sessions(new Object[]{"1234", "words"}));
+        WordsGame after = new WordsGame();
+        ServerGeneration generation = new ServerGeneration();
+        int restored = new GameStateSnapshotter(List.of(after), generation, repository, file.toString()).restore();
+
+        Assertions.assertEquals(1, restored);
+        Assertions.assertEquals(Map.of("1234", List.of("á", "b")), after.states);
+        Assertions.assertTrue(generation.isCurrent("1234"));
+        Assertions.assertFalse(generation.isCurrent("5678"));
+        verify(repository).stampGeneration(List.of("1234"), generation.id());
+        verify(repository, never()).endInMemoryGame(any(), anyList());
+        Assertions.assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void testGameWithoutSavedStateIsEnded() throws Exception {
+        Path file = dir.resolve("games.snap");
+        ServerGeneration oldGeneration = new ServerGeneration();
+        oldGeneration.markCurrent("1234");
+        new GameStateSnapshotter(List.of(new WordsGame()), oldGeneration, mock(GameSessionRepository.class),
+                file.toString()).save();
+
+        // El juego empezó después del último guardado periódico
+        GameSessionRepository repository = mock(GameSessionRepository.class);
+        when(repository.findAllCurrentGames()).thenReturn(sessions(new Object[]{"1234", "words"}));
+        new GameStateSnapshotter(List.of(new WordsGame()), new ServerGeneration(), repository,
+                file.toString()).restore();
+
+        verify(repository).endInMemoryGame(eq("1234"), anyList());
+    }
+
+    @Test
+    void testCorruptFileIsIgnored() throws Exception {
+        Path file = dir.resolve("games.snap");
+        ServerGeneration oldGeneration = new ServerGeneration();
+        oldGeneration.markCurrent("1234");
+        WordsGame before = new WordsGame();
+        before.states.put("1234", List.of("a"));
+        new GameStateSnapshotter(List.of(before), oldGeneration, mock(GameSessionRepository.class),
+                file.toString()).save();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+
+        GameSessionRepository repository = mock(GameSessionRepository.class);
+        WordsGame after = new WordsGame();
+        int restored = new GameStateSnapshotter(List.of(after), new ServerGeneration(), repository,
+                file.toString()).restore();
+
+        Assertions.assertEquals(0, restored);
+        Assertions.assertTrue(after.states.isEmpty());
+        verifyNoInteractions(repository);
+    }
+}
@@ -0,0 +1,49 @@
+package com.game;
+
+import com.game.service.HashedWheelTimer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HashedWheelTimerTests {
+
+    private final HashedWheelTimer timer = new HashedWheelTimer("test-wheel", Duration.ofMillis(10), 8);
+
+    @AfterEach
+    void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    void testFiresAfterDelayIncludingLongerThanOneRound() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(2);
+        long start = System.nanoTime();
+        timer.schedule(Duration.ofMillis(30), t -> fired.countDown());
+        // 8 buckets de 10 ms: 200 ms da más de dos vueltas a la rueda
+        timer.schedule(Duration.ofMillis(200), t -> fired.countDown());
+
+        Assertions.assertTrue(fired.await(2, TimeUnit.SECONDS));
+        Assertions.assertTrue(System.nanoTime() - start >= Duration.ofMillis(200).toNanos());
+        Assertions.assertEquals(0, timer.pendingTimeouts());
+    }
+
+    @Test
+    void testCancelledTimeoutsNeverFire() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch last = new CountDownLatch(1);
+        for (int i = 0; i < 1000; i++) {
+            timer.schedule(Duration.ofMillis(50), t -> runs.incrementAndGet()).cancel();
+        }
+        HashedWheelTimer.Timeout kept = timer.schedule(Duration.ofMillis(60), t -> last.countDown());
+
+        Assertions.assertTrue(last.await(2, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, runs.get());
+        Assertions.assertTrue(kept.isExpired());
+        Assertions.assertFalse(kept.cancel());
+    }
+}
@@ -0,0 +1,101 @@
+package com.game;
+
+import com.game.model.ImpostorGameState;
+import com.game.service.ElImpostorService;
+import com.game.service.SnapshotReader;
+import com.game.service.SnapshotWriter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class ImpostorGameStateTests {
+
+    private final ImpostorGameState state =
+            new ImpostorGameState(List.of("ana", "beto", "caro", "dani", "eva"), List.of("caro"));
+
+    private void vote(String voter, String target) {
+        state.castVote(state.indexOf(voter), state.indexOf(target));
+    }
+
+    @Test
+    void testTallyTracksPendingAndLeaderOnEachVote() {
+        state.clearVotes();
+        Assertions.assertEquals(ImpostorGameState.NONE, state.getLeader());
+
+        vote("ana", "caro");
+        vote("beto", "dani");
+        Assertions.assertEquals(ImpostorGameState.NONE, state.getLeader()); // empate 1-1
+        vote("caro", "dani");
+
+        Assertions.assertEquals(state.indexOf("dani"), state.getLeader());
+        Assertions.assertEquals(3, state.getVotedCount());
+        Assertions.assertEquals(2, state.getPendingCount());
+        Assertions.assertEquals(List.of("dani", "eva"), new ArrayList<>(state.getPendingVoters()));
+    }
+
+    @Test
+    void testEliminationWithdrawsVoteAndUpdatesCounters() {
+        state.clearVotes();
+        vote("ana", "caro");
+        vote("beto", "dani");
+        vote("caro", "dani");
+
+        // caro se desconecta: su voto a dani se anula y los votos que recibió dejan de contar
+        state.eliminate(state.indexOf("caro"));
+
+        Assertions.assertEquals(state.indexOf("dani"), state.getLeader()); // solo dani conserva votos
+        Assertions.assertEquals(1, state.getVotes(state.indexOf("dani")));
+        Assertions.assertEquals(4, state.getAliveCount());
+        Assertions.assertEquals(0, state.getImpostorsAlive());
+        Assertions.assertEquals(2, state.getVotedCount());
+        Assertions.assertEquals(List.of("caro"), state.getEliminatedPlayers());
+        Assertions.assertEquals(List.of("ana", "beto", "dani", "eva"), new ArrayList<>(state.getAlivePlayers()));
+    }
+
+    @Test
+    void testCopyIsDetachedFromLiveGame() {
+        state.clearVotes();
+        state.setPhase("voting");
+        vote("ana", "caro");
+
+        ImpostorGameState copy = state.copy();
+        vote("beto", "dani");
+        state.eliminate(state.indexOf("eva"));
+        state.setPhase("result");
+
+        Assertions.assertEquals("voting", copy.getPhase());
+        Assertions.assertEquals(1, copy.getVotedCount());
+        Assertions.assertEquals(copy.indexOf("caro"), copy.getLeader());
+        Assertions.assertEquals(5, copy.getAliveCount());
+        Assertions.assertEquals(List.of("beto", "caro", "dani", "eva"), new ArrayList<>(copy.getPendingVoters()));
+    }
+
+    @Test
+    void testSnapshotCodecRebuildsTally() {
+        ElImpostorService service = new ElImpostorService(null, null, null, null, null, null, null, null);
+        state.setPhase("voting");
+        state.setWord("faro");
+        state.setLastCallTime(state.indexOf("ana"), 1_000L);
+        state.clearVotes();
+        state.eliminate(state.indexOf("eva"));
+        vote("ana", "beto");
+        vote("caro", "beto");
+
+        SnapshotWriter out = new SnapshotWriter();
+        service.writeState(new ElImpostorService.Snapshot(state, Set.of("faro")), out);
+        ImpostorGameState restored = service.readState(
+                new SnapshotReader(ByteBuffer.wrap(out.array(), 0, out.size()))).game();
+
+        Assertions.assertEquals(state.indexOf("beto"), restored.getLeader());
+        Assertions.assertEquals(2, restored.getVotes(restored.indexOf("beto")));
+        Assertions.assertEquals(List.of("beto", "dani"), new ArrayList<>(restored.getPendingVoters()));
+        Assertions.assertEquals(List.of("eva"), restored.getEliminatedPlayers());
+        Assertions.assertTrue(restored.isImpostor("caro"));
+        Assertions.assertEquals(1_000L, restored.getLastCallTime(restored.indexOf("ana")));
+        Assertions.assertEquals("voting", restored.getPhase());
+    }
+}
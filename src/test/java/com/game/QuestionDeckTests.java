@@ -0,0 +1,67 @@
+package com.game;
+
+import com.game.model.QuestionDeck;
+import com.game.model.SessionDeck;
+import com.game.model.YoNuncaNunca;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+public class QuestionDeckTests {
+
+    private static YoNuncaNunca pregunta(long id, String tipo) {
+        YoNuncaNunca q = new YoNuncaNunca();
+        q.setId(id);
+        q.setTexto("Yo nunca nunca " + id);
+        q.setTipo(tipo);
+        return q;
+    }
+
+    @Test
+    void testEachSessionSeesEveryQuestionOfTipoOnce() {
+        List<YoNuncaNunca> questions = List.of(
+                pregunta(1, "tranquilo"), pregunta(2, "picante"), pregunta(3, "Tranquilo"), pregunta(4, "tranquilo"));
+        QuestionDeck<YoNuncaNunca> deck = QuestionDeck.of(questions, YoNuncaNunca::getTipo);
+
+        SessionDeck<YoNuncaNunca> first = deck.newSessionDeck(new Random(1));
+        SessionDeck<YoNuncaNunca> second = deck.newSessionDeck(new Random(2));
+
+        Set<Long> seen = new HashSet<>();
+        YoNuncaNunca q;
+        while ((q = first.next("TRANQUILO")) != null) {
+            Assertions.assertTrue(seen.add(q.getId()));
+        }
+        Assertions.assertEquals(Set.of(1L, 3L, 4L), seen);
+        Assertions.assertFalse(first.isExhausted());
+        Assertions.assertEquals(2L, first.next("picante").getId());
+        Assertions.assertTrue(first.isExhausted());
+
+        // Otra sesión tiene su propio recorrido sobre el mismo catálogo
+        Assertions.assertNotNull(second.next("tranquilo"));
+        Assertions.assertNull(second.next("inexistente"));
+    }
+
+    @Test
+    void testResumedDeckContinuesWhereItStopped() {
+        List<YoNuncaNunca> questions = List.of(
+                pregunta(1, "tranquilo"), pregunta(2, "tranquilo"), pregunta(3, "tranquilo"), pregunta(4, "picante"));
+        QuestionDeck<YoNuncaNunca> deck = QuestionDeck.of(questions, YoNuncaNunca::getTipo);
+        SessionDeck<YoNuncaNunca> original = deck.newSessionDeck(new Random(7));
+        Long first = original.next("tranquilo").getId();
+
+        SessionDeck<YoNuncaNunca> resumed = deck.resume(original.position(), new Random());
+        Assertions.assertEquals(original.next("tranquilo").getId(), resumed.next("tranquilo").getId());
+        Assertions.assertNotEquals(first, resumed.next("tranquilo").getId());
+        Assertions.assertNull(resumed.next("tranquilo"));
+        Assertions.assertEquals(4L, resumed.next("picante").getId());
+        Assertions.assertTrue(resumed.isExhausted());
+
+        // Con otro catálogo los índices no valen: recorrido nuevo
+        QuestionDeck<YoNuncaNunca> changed = QuestionDeck.of(questions.subList(0, 3), YoNuncaNunca::getTipo);
+        SessionDeck<YoNuncaNunca> fresh = changed.resume(original.position(), new Random());
+        int served = 0;
+        while (fresh.next("tranquilo") != null) served++;
+        Assertions.assertEquals(3, served);
+    }
+}
@@ -0,0 +1,77 @@
+package com.game;
+
+import com.game.repository.UserRepository;
+import com.game.service.GameSessionStore;
+import com.game.service.ReadyFlags;
+import com.game.service.SessionExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ReadyFlagsTests {
+
+    private final SessionExecutor sessionExecutor = new SessionExecutor();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final GameSessionStore sessionStore = mock(GameSessionStore.class);
+    private final ReadyFlags readyFlags = new ReadyFlags(jdbcTemplate, userRepository, sessionExecutor, sessionStore);
+
+    @AfterEach
+    void tearDown() {
+        sessionExecutor.shutdown();
+    }
+
+    @Test
+    void testClicksDuringAFlushGoOutInTheNextBatch() throws Exception {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> batchSizes = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            List<?> args = inv.getArgument(1);
+            synchronized (batchSizes) {
+                batchSizes.add(args.size());
+            }
+            firstBatchStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new int[args.size()];
+        });
+
+        ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<?>> clicks = new ArrayList<>();
+        clicks.add(clients.submit(() -> readyFlags.markReady("1234", "p0")));
+        Assertions.assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < 20; i++) {
+            String username = "p" + i;
+            clicks.add(clients.submit(() -> readyFlags.markReady("1234", username)));
+        }
+        Thread.sleep(100);
+        release.countDown();
+        for (Future<?> click : clicks) click.get(5, TimeUnit.SECONDS);
+        clients.shutdown();
+
+        Assertions.assertEquals(List.of(1, 19), batchSizes);
+        verify(sessionStore, times(2)).invalidate("1234");
+    }
+
+    @Test
+    void testResetIsASingleStatement() {
+        readyFlags.resetSession("1234", 42L);
+
+        verify(userRepository, times(1)).resetReadyForSession(42L);
+        verify(userRepository, never()).save(any());
+        verify(sessionStore).invalidate("1234");
+    }
+}
@@ -0,0 +1,63 @@
+package com.game;
+
+import com.game.model.Question;
+import com.game.model.RoundQuestionDeck;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+public class RoundQuestionDeckTests {
+
+    private static Question question(long id, String toUser) {
+        Question q = new Question();
+        q.setId(id);
+        q.setToUser(toUser);
+        q.setQuestion("Pregunta " + id);
+        q.setRoundId("ronda");
+        return q;
+    }
+
+    @Test
+    void testNoConsecutiveQuestionsToSameUser() {
+        List<Question> questions = new ArrayList<>();
+        long id = 1;
+        for (int i = 0; i < 5; i++) questions.add(question(id++, "Ana"));
+        for (int i = 0; i < 3; i++) questions.add(question(id++, "Beto"));
+        for (int i = 0; i < 2; i++) questions.add(question(id++, "Carla"));
+
+        for (int seed = 0; seed < 50; seed++) {
+            RoundQuestionDeck deck = RoundQuestionDeck.shuffle("ronda", questions, Set.of(), null, new Random(seed));
+            Set<Long> seen = new HashSet<>();
+            String last = null;
+            Question q;
+            while ((q = deck.next(last)) != null) {
+                Assertions.assertNotEquals(last, q.getToUser());
+                Assertions.assertTrue(seen.add(q.getId()));
+                last = q.getToUser();
+            }
+            Assertions.assertEquals(questions.size(), seen.size());
+            Assertions.assertEquals(questions.size(), deck.getShownCount());
+        }
+    }
+
+    @Test
+    void testSkipsAlreadyShownQuestions() {
+        List<Question> questions = List.of(question(1, "Ana"), question(2, "Beto"), question(3, "Ana"));
+        RoundQuestionDeck deck = RoundQuestionDeck.shuffle("ronda", questions, Set.of(1L, 2L), null, new Random(1));
+
+        Assertions.assertEquals(2, deck.getShownCount());
+        Assertions.assertEquals(3L, deck.next("Beto").getId());
+        Assertions.assertNull(deck.next("Ana"));
+    }
+
+    @Test
+    void testRepeatsUserOnlyWhenNoAlternative() {
+        List<Question> questions = List.of(question(1, "Ana"), question(2, "Ana"));
+        RoundQuestionDeck deck = RoundQuestionDeck.shuffle("ronda", questions, Set.of(), "Ana", new Random(1));
+
+        Assertions.assertNotNull(deck.next("Ana"));
+        Assertions.assertNotNull(deck.next("Ana"));
+        Assertions.assertNull(deck.next("Ana"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.game;
+
+import com.game.repository.GameSessionRepository;
+import com.game.service.SessionCodeAllocator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+
+public class SessionCodeAllocatorTests {
+
+    @Test
+    void testAllocatesEveryCodeOnce() {
+        GameSessionRepository repository = mock(GameSessionRepository.class);
+        when(repository.findAllSessionCodes()).thenReturn(List.of("1000", "9999"));
+        SessionCodeAllocator allocator = new SessionCodeAllocator(repository);
+
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 8998; i++) {
+            String code = allocator.allocate();
+            int value = Integer.parseInt(code);
+            Assertions.assertTrue(value >= 1000 && value <= 9999);
+            Assertions.assertTrue(codes.add(code), "Código repetido: " + code);
+        }
+        Assertions.assertFalse(codes.contains("1000"));
+        Assertions.assertFalse(codes.contains("9999"));
+        Assertions.assertThrows(IllegalStateException.class, allocator::allocate);
+    }
+
+    @Test
+    void testReleasedCodeCanBeReused() {
+        GameSessionRepository repository = mock(GameSessionRepository.class);
+        when(repository.findAllSessionCodes()).thenReturn(List.of());
+        SessionCodeAllocator allocator = new SessionCodeAllocator(repository);
+
+        String code = allocator.allocate();
+        Assertions.assertEquals(8999, allocator.available());
+        allocator.release(code);
+        allocator.release(code); // liberar dos veces no duplica el código
+        Assertions.assertEquals(9000, allocator.available());
+    }
+
+    @Test
+    void testFailedLoadIsRetriedBeforeAllocating() {
+        GameSessionRepository repository = mock(GameSessionRepository.class);
+        when(repository.findAllSessionCodes())
+                .thenThrow(new IllegalStateException("BD caída"))
+                .thenReturn(List.of("1000"));
+        SessionCodeAllocator allocator = new SessionCodeAllocator(repository);
+
+        Assertions.assertThrows(IllegalStateException.class, allocator::allocate);
+        Assertions.assertEquals(0, allocator.inUse());
+
+        // El segundo intento vuelve a consultar y respeta los códigos ya guardados
+        Assertions.assertEquals(8999, allocator.available());
+        verify(repository, times(2)).findAllSessionCodes();
+    }
+}
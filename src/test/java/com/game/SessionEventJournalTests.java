@@ -0,0 +1,83 @@
+package com.game;
+
+import com.game.service.SessionEventJournal;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SessionEventJournalTests {
+
+    private final SessionEventJournal journal = new SessionEventJournal(4);
+
+    private static byte[] event(int n) {
+        return ("{\"n\":" + n + "}").getBytes();
+    }
+
+    // Número asignado al primer evento de la sesión
+    private long first(String sessionCode) {
+        return journal.append(sessionCode, event(1), seq -> {});
+    }
+
+    @Test
+    void testSequenceNumbersAreAssignedInSendOrder() {
+        Assertions.assertEquals(0, journal.lastSeq("1234"));
+        List<Long> sent = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) journal.append("1234", event(i), sent::add);
+        long other = first("5678");
+
+        long start = sent.get(0);
+        Assertions.assertEquals(List.of(start, start + 1, start + 2), sent);
+        Assertions.assertEquals(start + 2, journal.lastSeq("1234"));
+        Assertions.assertEquals(other, journal.lastSeq("5678"));
+    }
+
+    @Test
+    void testReplaysOnlyMissedEvents() {
+        long start = first("1234");
+        for (int i = 2; i <= 3; i++) journal.append("1234", event(i), seq -> {});
+
+        List<SessionEventJournal.Entry> missed = journal.since("1234", start);
+        Assertions.assertEquals(2, missed.size());
+        Assertions.assertEquals(start + 1, missed.get(0).getSeq());
+        Assertions.assertArrayEquals(event(3), missed.get(1).getEvent());
+        Assertions.assertTrue(journal.since("1234", start + 2).isEmpty());
+        Assertions.assertEquals(3, journal.since("1234", 0).size()); // 0: desde el primero
+    }
+
+    @Test
+    void testGapBeyondCapacityRequiresResync() {
+        long start = first("1234");
+        for (int i = 2; i <= 6; i++) journal.append("1234", event(i), seq -> {});
+
+        // Capacidad 4: quedan los 4 últimos, así que desde el segundo aún se puede, desde el primero no
+        Assertions.assertEquals(4, journal.since("1234", start + 1).size());
+        Assertions.assertNull(journal.since("1234", start));
+        Assertions.assertNull(journal.since("1234", 0));
+        Assertions.assertNull(journal.since("1234", start + 9));
+        Assertions.assertNull(journal.since("9999", 5));
+        Assertions.assertTrue(journal.since("9999", 0).isEmpty());
+    }
+
+    @Test
+    void testSeqFromAnEarlierProcessRequiresResync() throws InterruptedException {
+        first("1234");
+        long oldLast = journal.append("1234", event(2), seq -> {});
+
+        // Reinicio: otro diario, con pocos eventos nuevos en la misma sesión
+        Thread.sleep(2);
+        SessionEventJournal restarted = new SessionEventJournal(4);
+        long fresh = restarted.append("1234", event(1), seq -> {});
+        for (int i = 2; i <= 3; i++) restarted.append("1234", event(i), seq -> {});
+
+        Assertions.assertTrue(fresh > oldLast); // el cliente no los descarta como ya aplicados
+        Assertions.assertNull(restarted.since("1234", oldLast));
+
+        // Lo mismo si la sesión se borra y se vuelve a crear en el mismo proceso
+        restarted.remove("1234");
+        long recreated = restarted.append("1234", event(1), seq -> {});
+        Assertions.assertTrue(recreated > fresh + 2);
+        Assertions.assertNull(restarted.since("1234", fresh));
+    }
+}
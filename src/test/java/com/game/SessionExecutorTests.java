@@ -0,0 +1,46 @@
+package com.game;
+
+import com.game.service.SessionExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class SessionExecutorTests {
+
+    private final SessionExecutor executor = new SessionExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testTasksOfOneSessionRunInOrderWithoutOverlap() {
+        List<Integer> seen = new ArrayList<>(); // sin sincronizar: solo la toca el buzón
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int n = i;
+            futures.add(executor.submit("1234", () -> {
+                seen.add(n);
+                return null;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        Assertions.assertEquals(1000, seen.size());
+        for (int i = 0; i < 1000; i++) Assertions.assertEquals(i, seen.get(i));
+    }
+
+    @Test
+    void testReentrantCallRunsInlineAndExceptionsPropagate() {
+        int result = executor.call("1234", () -> executor.call("1234", () -> 42));
+        Assertions.assertEquals(42, result);
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> executor.run("1234", () -> { throw new IllegalStateException("boom"); }));
+    }
+}
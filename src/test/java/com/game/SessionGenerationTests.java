@@ -0,0 +1,68 @@
+package com.game;
+
+import com.game.repository.GameSessionRepository;
+import com.game.service.GameSessionService;
+import com.game.service.GameSessionStore;
+import com.game.service.ServerGeneration;
+import com.game.service.SessionExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class SessionGenerationTests {
+
+    private final SessionExecutor sessionExecutor = new SessionExecutor();
+    private final GameSessionRepository repository = mock(GameSessionRepository.class);
+    private final GameSessionStore sessionStore = mock(GameSessionStore.class);
+    private final ServerGeneration generation = new ServerGeneration();
+    private final GameSessionService service = new GameSessionService(repository, null, null, null, null,
+            null, null, null, null, null, sessionStore, null, null, null, sessionExecutor, generation);
+
+    @AfterEach
+    void tearDown() {
+        sessionExecutor.shutdown();
+    }
+
+    @Test
+    void testStaleSessionIsAdoptedOnceAndKeepsDbBackedGames() {
+        when(repository.findGenerationBySessionCode("1234")).thenReturn(Optional.of("generación anterior"));
+
+        service.ensureCurrentGeneration("1234");
+        service.ensureCurrentGeneration("1234");
+
+        verify(repository, times(1)).findGenerationBySessionCode("1234");
+        verify(repository).endInMemoryGame("1234", List.of("preguntas-directas"));
+        verify(repository).stampGeneration(List.of("1234"), generation.id());
+        verify(sessionStore).invalidate("1234");
+        Assertions.assertTrue(generation.isCurrent("1234"));
+    }
+
+    @Test
+    void testCurrentSessionIsOnlyRemembered() {
+        when(repository.findGenerationBySessionCode("1234")).thenReturn(Optional.of(generation.id()));
+
+        service.ensureCurrentGeneration("1234");
+
+        verify(repository, never()).endInMemoryGame(anyString(), anyList());
+        verify(repository, never()).stampGeneration(anyList(), any());
+        Assertions.assertTrue(generation.isCurrent("1234"));
+    }
+
+    @Test
+    void testMissingSessionIsNotMarked() {
+        when(repository.findGenerationBySessionCode("9999")).thenReturn(Optional.empty());
+
+        service.ensureCurrentGeneration("9999");
+
+        Assertions.assertFalse(generation.isCurrent("9999"));
+        verifyNoInteractions(sessionStore);
+    }
+}
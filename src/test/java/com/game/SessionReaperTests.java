@@ -0,0 +1,113 @@
+package com.game;
+
+import com.game.repository.GameSessionRepository;
+import com.game.service.GameMetrics;
+import com.game.service.GameSessionService;
+import com.game.service.GameSessionStore;
+import com.game.service.GameStateParticipant;
+import com.game.service.GameTimerService;
+import com.game.service.PreguntasDirectasService;
+import com.game.service.ServerGeneration;
+import com.game.service.SessionCodeAllocator;
+import com.game.service.SessionEventJournal;
+import com.game.service.SessionExecutor;
+import com.game.service.SessionReaper;
+import com.game.service.SessionSyncTracker;
+import com.game.service.WebSocketSessionRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+public class SessionReaperTests {
+
+    private final SessionExecutor sessionExecutor = new SessionExecutor();
+    private final ServerGeneration generation = new ServerGeneration();
+    private final WebSocketSessionRegistry registry = new WebSocketSessionRegistry();
+    private final GameSessionService gameSessionService = mock(GameSessionService.class);
+    private final GameSessionRepository repository = mock(GameSessionRepository.class);
+    private final GameStateParticipant<?> participant = mock(GameStateParticipant.class);
+    private final PreguntasDirectasService preguntasDirectas = mock(PreguntasDirectasService.class);
+    private final SessionCodeAllocator codeAllocator = mock(SessionCodeAllocator.class);
+    private final GameMetrics metrics = new GameMetrics();
+
+    // TTL 0: cualquier sesión sin conexiones caduca en la siguiente pasada
+    private final SessionReaper reaper = new SessionReaper(gameSessionService, repository, List.of(participant),
+            preguntasDirectas, mock(GameSessionStore.class), mock(SessionSyncTracker.class),
+            new SessionEventJournal(16), mock(GameTimerService.class), registry, codeAllocator,
+            sessionExecutor, generation, metrics, 0);
+
+    @AfterEach
+    void tearDown() {
+        sessionExecutor.shutdown();
+    }
+
+    @Test
+    void testIdleSessionsWithoutConnectionsAreDeletedAndReleased() {
+        when(repository.findAllSessionCodes()).thenReturn(List.of("1111", "2222"));
+        generation.markCurrent("3333");
+        registry.register("2222", "ana");
+
+        int reaped = reaper.reap();
+
+        Assertions.assertEquals(2, reaped);
+        for (String code : List.of("1111", "3333")) {
+            verify(gameSessionService).deleteSessions(List.of(code));
+            verify(participant).evict(code);
+            verify(preguntasDirectas).cleanup(code);
+            verify(codeAllocator).release(code);
+        }
+        verify(participant, never()).evict("2222");
+        Assertions.assertFalse(generation.isCurrent("3333"));
+        Assertions.assertEquals(1, reaper.trackedSessions());
+        Map<?, ?> counters = (Map<?, ?>) metrics.snapshot().get("counters");
+        Assertions.assertEquals(2L, ((Map<?, ?>) counters.get(GameMetrics.SESSIONS_REAPED)).get("idle"));
+    }
+
+    @Test
+    void testDeleteRunsInTheMailboxBeforeRelease() {
+        when(repository.findAllSessionCodes()).thenReturn(List.of());
+        generation.markCurrent("1111");
+        Thread caller = Thread.currentThread();
+        List<Thread> deletedOn = new ArrayList<>();
+        doAnswer(inv -> {
+            deletedOn.add(Thread.currentThread());
+            verify(codeAllocator, never()).release("1111");
+            return 1;
+        }).when(gameSessionService).deleteSessions(List.of("1111"));
+
+        Assertions.assertEquals(1, reaper.reap());
+        Assertions.assertEquals(1, deletedOn.size());
+        Assertions.assertNotSame(caller, deletedOn.get(0));
+        verify(codeAllocator).release("1111");
+    }
+
+    @Test
+    void testFailedDeleteKeepsTheSession() {
+        when(repository.findAllSessionCodes()).thenReturn(List.of());
+        generation.markCurrent("1111");
+        generation.markCurrent("2222");
+        doThrow(new IllegalStateException("bd caída")).when(gameSessionService).deleteSessions(List.of("1111"));
+
+        Assertions.assertEquals(1, reaper.reap());
+        Assertions.assertTrue(generation.isCurrent("1111"));
+        verify(codeAllocator, never()).release("1111");
+        verify(codeAllocator).release("2222");
+        Assertions.assertEquals(1, reaper.trackedSessions());
+    }
+
+    @Test
+    void testOnlyCurrentSessionsAreTouched() {
+        reaper.touch("1111");
+        Assertions.assertEquals(0, reaper.trackedSessions());
+
+        generation.markCurrent("1111");
+        sessionExecutor.run("1111", () -> { });
+        Assertions.assertEquals(1, reaper.trackedSessions());
+    }
+}
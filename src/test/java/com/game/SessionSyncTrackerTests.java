@@ -0,0 +1,81 @@
+package com.game;
+
+import com.game.dto.GameStateDTO;
+import com.game.dto.SessionSyncDTO;
+import com.game.dto.SyncUserDTO;
+import com.game.service.GameSessionStore;
+import com.game.service.SessionExecutor;
+import com.game.service.SessionSyncTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+
+public class SessionSyncTrackerTests {
+
+    private final SessionExecutor executor = new SessionExecutor();
+    private final SessionSyncTracker tracker = new SessionSyncTracker(mock(GameSessionStore.class), executor);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    private static SessionSyncDTO sync(boolean anaReady, String phase) {
+        return new SessionSyncDTO("1234", "Ana",
+                List.of(new SyncUserDTO("Ana", anaReady, true, "t1"), new SyncUserDTO("Beto", false, true, "t2")),
+                "preguntas-directas", new GameStateDTO("IN_PROGRESS", "r1", phase, null), 0, 0);
+    }
+
+    @Test
+    void testRebuildsOnlyAfterChangesAndBumpsOnlyWhenContentDiffers() {
+        AtomicInteger builds = new AtomicInteger();
+
+        long first = tracker.current("1234", () -> { builds.incrementAndGet(); return sync(false, "A"); }).getVersion();
+        Assertions.assertEquals(first, tracker.current("1234", () -> { builds.incrementAndGet(); return sync(true, "B"); }).getVersion());
+        Assertions.assertEquals(1, builds.get()); // sin marca de cambio no se reconstruye
+
+        executor.run("1234", () -> { }); // cualquier tarea del buzón marca la sesión
+        Assertions.assertEquals(first, tracker.current("1234", () -> { builds.incrementAndGet(); return sync(false, "A"); }).getVersion());
+
+        tracker.markChanged("1234");
+        Assertions.assertTrue(tracker.current("1234", () -> sync(true, "B")).getVersion() > first);
+        Assertions.assertEquals(2, builds.get());
+    }
+
+    @Test
+    void testDiffReturnsOnlyChangedNestedFields() {
+        long first = tracker.current("1234", () -> sync(false, "A")).getVersion();
+        tracker.markChanged("1234");
+        SessionSyncTracker.SyncView after = tracker.current("1234", () -> sync(false, "B")).getView();
+        SessionSyncTracker.SyncView before = tracker.at("1234", first);
+
+        Map<String, Object> changed = SessionSyncTracker.diff(before.getFields(), after.getFields());
+        Assertions.assertEquals(Map.of("gameState", Map.of("phase", "B")), changed);
+        Assertions.assertNull(tracker.at("1234", 99));
+    }
+
+    @Test
+    void testVersionsFromAnEarlierProcessAreNeverReused() throws InterruptedException {
+        long old = tracker.current("1234", () -> sync(false, "A")).getVersion();
+        tracker.markChanged("1234");
+        old = Math.max(old, tracker.current("1234", () -> sync(true, "A")).getVersion());
+
+        // Otro proceso (reinicio) que arranca después, con la misma sesión y el mismo contenido
+        Thread.sleep(2);
+        SessionSyncTracker restarted = new SessionSyncTracker(mock(GameSessionStore.class), executor);
+        long fresh = restarted.current("1234", () -> sync(true, "A")).getVersion();
+
+        Assertions.assertTrue(fresh > old);
+        Assertions.assertNull(restarted.at("1234", old)); // el cliente recibe la vista completa
+
+        // Una sesión borrada y vuelta a crear tampoco repite versiones
+        restarted.remove("1234");
+        Assertions.assertTrue(restarted.current("1234", () -> sync(true, "A")).getVersion() > fresh);
+    }
+}
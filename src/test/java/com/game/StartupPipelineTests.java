@@ -0,0 +1,65 @@
+package com.game;
+
+import com.game.service.GameMetrics;
+import com.game.service.GameSessionService;
+import com.game.service.GameStateSnapshotter;
+import com.game.service.ImpostorWordSeeder;
+import com.game.service.StartupPipeline;
+import com.game.service.WaitingMessageSeeder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class StartupPipelineTests {
+
+    @Test
+    void testCleanupRunsFirstAndGateOpensWhenSeedersFinish() throws Exception {
+        GameSessionService gameSessionService = mock(GameSessionService.class);
+        ImpostorWordSeeder words = mock(ImpostorWordSeeder.class);
+        WaitingMessageSeeder messages = mock(WaitingMessageSeeder.class);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            release.await();
+            return null;
+        }).when(words).seed();
+
+        GameStateSnapshotter snapshotter = mock(GameStateSnapshotter.class);
+        StartupPipeline pipeline = new StartupPipeline(gameSessionService, words, messages, new GameMetrics(),
+                snapshotter, 12);
+        pipeline.afterSingletonsInstantiated();
+
+        // Purga y restauración son síncronas; los seeders siguen en segundo plano
+        verify(gameSessionService).purgeSessionsCreatedBefore(any(LocalDateTime.class));
+        verify(snapshotter).restore();
+        Assertions.assertFalse(pipeline.isReady());
+        Assertions.assertFalse(pipeline.awaitReady(Duration.ofMillis(50)));
+
+        release.countDown();
+        Assertions.assertTrue(pipeline.awaitReady(Duration.ofSeconds(5)));
+        Assertions.assertTrue(pipeline.phases().keySet().containsAll(List.of(
+                "purge expired sessions", "restore game state", "seed impostor words", "seed waiting messages")));
+    }
+
+    @Test
+    void testGateOpensEvenIfASeederFails() throws Exception {
+        WaitingMessageSeeder messages = mock(WaitingMessageSeeder.class);
+        doAnswer(inv -> {
+            throw new IllegalStateException("BD caída");
+        }).when(messages).seed();
+
+        StartupPipeline pipeline = new StartupPipeline(mock(GameSessionService.class),
+                mock(ImpostorWordSeeder.class), messages, new GameMetrics(), mock(GameStateSnapshotter.class), 12);
+        pipeline.afterSingletonsInstantiated();
+
+        Assertions.assertTrue(pipeline.awaitReady(Duration.ofSeconds(5)));
+    }
+}
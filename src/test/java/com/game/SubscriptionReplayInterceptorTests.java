@@ -0,0 +1,56 @@
+package com.game;
+
+import com.game.listener.SubscriptionReplayInterceptor;
+import com.game.listener.WebSocketEventListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class SubscriptionReplayInterceptorTests {
+
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<WebSocketEventListener> provider = mock(ObjectProvider.class);
+    private final WebSocketEventListener listener = mock(WebSocketEventListener.class);
+    private final SubscriptionReplayInterceptor interceptor = new SubscriptionReplayInterceptor(provider);
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    private static Message<byte[]> stomp(StompCommand command) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId("ws-1");
+        accessor.setDestination("/topic/1234");
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @Test
+    void testReplaysOnlyAfterBrokerRegisteredSubscription() {
+        when(provider.getObject()).thenReturn(listener);
+        Message<byte[]> subscribe = stomp(StompCommand.SUBSCRIBE);
+
+        // Otros handlers del canal (p. ej. los @MessageMapping) no cuentan como registro
+        interceptor.afterMessageHandled(subscribe, channel, mock(MessageHandler.class), null);
+        verify(listener, never()).replayMissed(any());
+
+        interceptor.afterMessageHandled(subscribe, channel, mock(SimpleBrokerMessageHandler.class), null);
+        verify(listener).replayMissed(subscribe);
+    }
+
+    @Test
+    void testIgnoresOtherCommandsAndFailedSubscriptions() {
+        when(provider.getObject()).thenReturn(listener);
+        SimpleBrokerMessageHandler broker = mock(SimpleBrokerMessageHandler.class);
+
+        interceptor.afterMessageHandled(stomp(StompCommand.SEND), channel, broker, null);
+        interceptor.afterMessageHandled(stomp(StompCommand.SUBSCRIBE), channel, broker, new IllegalStateException());
+
+        verifyNoInteractions(listener);
+    }
+}
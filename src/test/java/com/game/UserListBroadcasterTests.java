@@ -0,0 +1,80 @@
+package com.game;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.model.SessionSnapshot;
+import com.game.model.User;
+import com.game.service.GameSessionStore;
+import com.game.service.GameTimerService;
+import com.game.service.TopicPublisher;
+import com.game.service.UserListBroadcaster;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class UserListBroadcasterTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final GameSessionStore sessionStore = mock(GameSessionStore.class);
+    private final TopicPublisher topicPublisher = mock(TopicPublisher.class);
+    private final GameTimerService gameTimers = mock(GameTimerService.class);
+    private final UserListBroadcaster broadcaster =
+            new UserListBroadcaster(sessionStore, topicPublisher, gameTimers, 50);
+
+    @BeforeEach
+    void setUp() {
+        SessionSnapshot snapshot = mock(SessionSnapshot.class);
+        when(snapshot.getUsers()).thenReturn(List.of(new User("Ana"), new User("Beto")));
+        when(sessionStore.get("1234")).thenReturn(snapshot);
+    }
+
+    private JsonNode published() throws Exception {
+        ArgumentCaptor<byte[]> event = ArgumentCaptor.forClass(byte[].class);
+        verify(topicPublisher).publish(eq("1234"), event.capture());
+        return mapper.readTree(event.getValue());
+    }
+
+    @Test
+    void testBurstOfChangesIsSentAsOneUserUpdate() throws Exception {
+        for (int i = 0; i < 15; i++) broadcaster.usersChanged("1234");
+        broadcaster.userLeft("1234", "Carla");
+
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(gameTimers, times(1)).schedule(eq("1234"), any(), eq(Duration.ofMillis(50)), flush.capture());
+        verifyNoInteractions(topicPublisher);
+
+        flush.getValue().run();
+        JsonNode json = published();
+        Assertions.assertEquals("userUpdate", json.get("event").asText());
+        Assertions.assertEquals(2, json.get("users").size());
+        Assertions.assertEquals("Carla", json.get("left").get(0).asText());
+    }
+
+    @Test
+    void testSingleLeaveKeepsUserLeftEvent() throws Exception {
+        broadcaster.userLeft("1234", "Carla");
+        broadcaster.flush("1234");
+
+        JsonNode json = published();
+        Assertions.assertEquals("userLeft", json.get("event").asText());
+        Assertions.assertEquals("Carla", json.get("username").asText());
+    }
+
+    @Test
+    void testCreatorLeftIsImmediateAndDropsPendingChanges() throws Exception {
+        broadcaster.usersChanged("1234");
+        broadcaster.creatorLeft("1234", "Ana");
+        broadcaster.flush("1234");
+
+        Assertions.assertEquals("creatorLeft", published().get("event").asText());
+        verify(gameTimers).cancel(eq("1234"), any());
+    }
+}